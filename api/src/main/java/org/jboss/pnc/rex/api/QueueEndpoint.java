@@ -27,11 +27,17 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.pnc.rex.api.openapi.OpenapiConstants;
 import org.jboss.pnc.rex.dto.responses.ErrorResponse;
 import org.jboss.pnc.rex.dto.responses.LongResponse;
+import org.jboss.pnc.rex.dto.responses.QueueNodeResponse;
+import org.jboss.pnc.rex.dto.responses.QueueStatsResponse;
+import org.jboss.pnc.rex.dto.responses.StartRateResponse;
 
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.core.MediaType;
 
+import java.util.List;
+
 @Tag(name = "Endpoint for queue administration")
 @Path("/rest/queue")
 public interface QueueEndpoint {
@@ -51,7 +57,8 @@ public interface QueueEndpoint {
 
     String SET_CONCURRENT_NAMED = "/{name}/concurrency";
     @Path(SET_CONCURRENT_NAMED)
-    @Operation(summary = "[ADMIN] Sets the amount of possible concurrent tasks in a NAMED queue. Tasks that are currently running are never affected.")
+    @Operation(summary = "[ADMIN] Sets the amount of possible concurrent tasks in a NAMED queue. Tasks that are currently running are never affected.",
+        description = "The amount must not be lower than the sum of minimal shares guaranteed to children of the queue.")
     @APIResponses(value = {
         @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
         @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
@@ -94,6 +101,40 @@ public interface QueueEndpoint {
     @GET
     LongResponse getConcurrentNamed(@PathParam("name") String name);
 
+    String GET_EFFECTIVE_CONCURRENT = "/concurrency/effective";
+    @Path(GET_EFFECTIVE_CONCURRENT)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns amount of possible concurrent tasks from DEFAULT queue currently in effect.",
+        description = "Lower than the configured amount if the queue is in adaptive mode and the remote entity is degraded.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = LongResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    LongResponse getEffectiveConcurrent();
+
+    String GET_EFFECTIVE_CONCURRENT_NAMED = "/{name}/concurrency/effective";
+    @Path(GET_EFFECTIVE_CONCURRENT_NAMED)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns amount of possible concurrent tasks from a NAMED queue currently in effect.",
+        description = "Lower than the configured amount if the queue is in adaptive mode and the remote entity is degraded.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = LongResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    LongResponse getEffectiveConcurrentNamed(@PathParam("name") String name);
+
     String GET_RUNNING = "/running";
     @Path(GET_RUNNING)
     @Produces(MediaType.APPLICATION_JSON)
@@ -125,4 +166,187 @@ public interface QueueEndpoint {
     })
     @GET
     LongResponse getRunningNamed(@PathParam("name") String name);
+
+    String GET_STATS = "/stats";
+    @Path(GET_STATS)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns amount of tasks in each state group and the age of the oldest ENQUEUED task for every queue.",
+        description = "Counts are served from memory and are cheap to poll. They are eventually consistent with the cluster.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    List<QueueStatsResponse> getStats();
+
+    String SET_PARENT = "/parent";
+    @Path(SET_PARENT)
+    @Operation(summary = "[ADMIN] Places DEFAULT queue under a parent queue.",
+        description = "Maximum concurrency of the parent bounds the combined running tasks of the parent and all its descendants. "
+            + "'minShare' running tasks are guaranteed to the queue regardless of its siblings. "
+            + "Minimal shares of all children must not exceed maximum concurrency of the parent.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @POST
+    void setParent(@QueryParam("parent") @NotBlank String parent, @QueryParam("minShare") @DefaultValue("0") @Min(0) Long minShare);
+
+    String SET_PARENT_NAMED = "/{name}/parent";
+    @Path(SET_PARENT_NAMED)
+    @Operation(summary = "[ADMIN] Places a NAMED queue under a parent queue.",
+        description = "Maximum concurrency of the parent bounds the combined running tasks of the parent and all its descendants. "
+            + "'minShare' running tasks are guaranteed to the queue regardless of its siblings. "
+            + "Minimal shares of all children must not exceed maximum concurrency of the parent.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @POST
+    void setParentNamed(@PathParam("name") String name, @QueryParam("parent") @NotBlank String parent, @QueryParam("minShare") @DefaultValue("0") @Min(0) Long minShare);
+
+    String REMOVE_PARENT = "/parent";
+    @Path(REMOVE_PARENT)
+    @Operation(summary = "[ADMIN] Detaches DEFAULT queue from its parent queue.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @DELETE
+    void removeParent();
+
+    String REMOVE_PARENT_NAMED = "/{name}/parent";
+    @Path(REMOVE_PARENT_NAMED)
+    @Operation(summary = "[ADMIN] Detaches a NAMED queue from its parent queue.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @DELETE
+    void removeParentNamed(@PathParam("name") String name);
+
+    String GET_TREE = "/tree";
+    @Path(GET_TREE)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns parent and guaranteed share of every queue that has a parent.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    List<QueueNodeResponse> getTree();
+
+    String SET_RATE = "/rate";
+    @Path(SET_RATE)
+    @Operation(summary = "[ADMIN] Limits start rate of tasks in DEFAULT queue.",
+        description = "Tasks of the queue start at most 'perSecond' times per second, up to 'burst' at once after the queue was quiet "
+            + "(defaults to 'perSecond'). The limit applies on top of maximum concurrency.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @POST
+    void setStartRate(@QueryParam("perSecond") @NotNull @Min(1) Long perSecond, @QueryParam("burst") @Min(1) Long burst);
+
+    String SET_RATE_NAMED = "/{name}/rate";
+    @Path(SET_RATE_NAMED)
+    @Operation(summary = "[ADMIN] Limits start rate of tasks in a NAMED queue.",
+        description = "Tasks of the queue start at most 'perSecond' times per second, up to 'burst' at once after the queue was quiet "
+            + "(defaults to 'perSecond'). The limit applies on top of maximum concurrency.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @POST
+    void setStartRateNamed(@PathParam("name") String name, @QueryParam("perSecond") @NotNull @Min(1) Long perSecond, @QueryParam("burst") @Min(1) Long burst);
+
+    String REMOVE_RATE = "/rate";
+    @Path(REMOVE_RATE)
+    @Operation(summary = "[ADMIN] Removes start-rate limit of DEFAULT queue.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @DELETE
+    void removeStartRate();
+
+    String REMOVE_RATE_NAMED = "/{name}/rate";
+    @Path(REMOVE_RATE_NAMED)
+    @Operation(summary = "[ADMIN] Removes start-rate limit of a NAMED queue.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @DELETE
+    void removeStartRateNamed(@PathParam("name") String name);
+
+    String GET_RATE = "/rate";
+    @Path(GET_RATE)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns start-rate limit of DEFAULT queue. Fields are empty if the queue is not rate limited.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    StartRateResponse getStartRate();
+
+    String GET_RATE_NAMED = "/{name}/rate";
+    @Path(GET_RATE_NAMED)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns start-rate limit of a NAMED queue. Fields are empty if the queue is not rate limited.")
+    @APIResponses(value = {
+        @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION),
+        @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    StartRateResponse getStartRateNamed(@PathParam("name") String name);
 }
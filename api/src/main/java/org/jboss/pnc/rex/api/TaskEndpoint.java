@@ -28,26 +28,40 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.pnc.rex.api.openapi.OpenapiConstants;
 import org.jboss.pnc.rex.api.parameters.TaskFilterParameters;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.TaskProjection;
 import org.jboss.pnc.rex.dto.TaskDTO;
+import org.jboss.pnc.rex.dto.TransitionEventDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
 import org.jboss.pnc.rex.dto.responses.ErrorResponse;
+import org.jboss.pnc.rex.dto.responses.TaskGraphResponse;
+import org.jboss.pnc.rex.dto.responses.TaskStatsResponse;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 @Tag(name = "Task endpoint")
 @Path("/rest/tasks")
@@ -85,7 +99,10 @@ public interface TaskEndpoint {
     @Operation(description = "Returns list of all tasks with optional filtering.\n " +
             "Unspecified queueFilter returns all tasks.\n" +
             "Specifying more than one queueFilter will include all tasks in those queues.\n" +
-            "To filter by 'default' queue use 'null' String.\n",
+            "To filter by 'default' queue use 'null' String.\n" +
+            "Specifying changedSince returns only tasks changed after that change sequence, at most 'limit' of them. " +
+            "Only changes up to a safe cursor are returned: no change with a lower sequence becomes visible later, " +
+            "so 'changeSequence' of the last returned task is the next changedSince without re-reading.\n",
             summary = "Returns list of all tasks with optional filtering.")
     @APIResponses(value = {
             @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION),
@@ -99,12 +116,55 @@ public interface TaskEndpoint {
     @Produces(MediaType.APPLICATION_JSON)
     Set<TaskDTO> getAll(@BeanParam TaskFilterParameters filterParameters, @QueryParam("queue") @Nullable List<String> queueFilter);
 
+    String GET_STATS_PATH = "/stats";
+    @Path(GET_STATS_PATH)
+    @Operation(summary = "Returns amount of tasks in each state and state group and the age of the oldest ENQUEUED task.",
+            description = "Counts are served from memory and are cheap to poll. They are eventually consistent with the cluster.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = TaskStatsResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    TaskStatsResponse getStats();
+
+    String EVENTS_PATH = "/events";
+    @Path(EVENTS_PATH)
+    @Operation(summary = "Streams transitions of tasks as Server-Sent Events.",
+            description = "Every event carries the task name, the transition and its time. The id of an event is made of " +
+                    "an epoch of the instance and a sequence number. A client resumes the stream by sending the id " +
+                    "of the last received event in 'since' parameter or in 'Last-Event-ID' header. An id issued by " +
+                    "another instance or before a restart is refused with 400; the client then subscribes without " +
+                    "it. Only a limited number of the latest events is kept for resuming; a gap in sequence numbers " +
+                    "means that some events were missed. The stream is closed if the client does not keep up, and " +
+                    "the client is expected to resume it.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = TransitionEventDTO.class))),
+            @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    void events(@Parameter(description = "Stream only transitions of tasks with this correlation ID") @QueryParam("correlationID") @Nullable String correlationID,
+                @Parameter(description = "Id of the last received event") @QueryParam("since") @Nullable String since,
+                @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) @Nullable String lastEventID,
+                @Context SseEventSink sink,
+                @Context Sse sse);
+
     String GET_SPECIFIC_PATH = "/{taskID}";
     @Path(GET_SPECIFIC_PATH)
-    @Operation(summary = "Returns a specific task.")
+    @Operation(summary = "Returns a specific task.",
+            description = "The response carries an ETag with the version of the task. Sending it back in " +
+                    "If-None-Match results in 304 Not Modified while the task is unchanged.")
     @APIResponses(value = {
             @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
                     content = @Content(schema = @Schema(implementation = TaskDTO.class))),
+            @APIResponse(responseCode = OpenapiConstants.NOT_MODIFIED_CODE, description = OpenapiConstants.NOT_MODIFIED_DESCRIPTION),
             @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
@@ -116,6 +176,51 @@ public interface TaskEndpoint {
     @Produces(MediaType.APPLICATION_JSON)
     TaskDTO getSpecific(@Parameter(description = TASK_ID) @PathParam("taskID") @NotBlank String taskID);
 
+    String AWAIT_PATH = "/{taskID}/await";
+    @Path(AWAIT_PATH)
+    @Operation(summary = "Waits until a task reaches a final state.",
+            description = "The request completes with the task as soon as it reaches a final state. If the timeout " +
+                    "elapses first, the task is returned in its current state. A task that finished and got cleaned " +
+                    "up in the meantime is returned with its name and final state only.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = TaskDTO.class))),
+            @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    CompletionStage<TaskDTO> await(@Parameter(description = TASK_ID) @PathParam("taskID") @NotBlank String taskID,
+                                   @Parameter(description = "Maximal time to wait in seconds") @QueryParam("timeout") @DefaultValue("30") @Min(0) @Max(300) long timeout);
+
+    String GRAPH_PATH = "/{taskID}/graph";
+    @Path(GRAPH_PATH)
+    @Operation(summary = "Returns the graph of tasks connected to a task.",
+            description = "Returns tasks reachable from the task through dependencies and dependants in either " +
+                    "direction, together with the dependencies between them. Depth limits the distance from the task, " +
+                    "without it the whole connected graph is returned. State filter applies only to returned tasks, " +
+                    "the graph is still traversed through tasks in other states.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = TaskGraphResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.NOT_FOUND_CODE, description = OpenapiConstants.NOT_FOUND_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @APIResponse(responseCode = OpenapiConstants.SERVER_ERROR_CODE, description = OpenapiConstants.SERVER_ERROR_DESCRIPTION,
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    TaskGraphResponse graph(@Parameter(description = TASK_ID) @PathParam("taskID") @NotBlank String taskID,
+                            @Parameter(description = "Maximal distance from the task") @QueryParam("depth") @Min(0) Integer depth,
+                            @Parameter(description = "Return only tasks in these states") @QueryParam("state") Set<State> states,
+                            @Parameter(description = "Fields of returned tasks") @QueryParam("projection") @DefaultValue("FULL") TaskProjection projection);
+
     String CANCEL_PATH = "/{taskID}/cancel";
     @Path(CANCEL_PATH)
     @Operation(summary = "Cancels execution of a task and the tasks which depend on it")
@@ -134,9 +239,12 @@ public interface TaskEndpoint {
     String GET_BY_CORRELATION_ID = "/by-correlation/{correlationID}";
     @Path(GET_BY_CORRELATION_ID)
     @GET
-    @Operation(summary = "Returns tasks grouped by correlation ID.")
+    @Operation(summary = "Returns tasks grouped by correlation ID.",
+            description = "The response carries a weak ETag with the version of the correlation. Sending it back in " +
+                    "If-None-Match results in 304 Not Modified while no task of the correlation changed.")
     @APIResponses(value = {
             @APIResponse(responseCode = OpenapiConstants.SUCCESS_CODE, description = OpenapiConstants.SUCCESS_DESCRIPTION),
+            @APIResponse(responseCode = OpenapiConstants.NOT_MODIFIED_CODE, description = OpenapiConstants.NOT_MODIFIED_DESCRIPTION),
             @APIResponse(responseCode = OpenapiConstants.NO_CONTENT_CODE, description = OpenapiConstants.NO_CONTENT_DESCRIPTION),
             @APIResponse(responseCode = OpenapiConstants.INVALID_CODE, description = OpenapiConstants.INVALID_DESCRIPTION,
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
@@ -147,18 +255,4 @@ public interface TaskEndpoint {
     })
     @Produces(MediaType.APPLICATION_JSON)
     Set<TaskDTO> byCorrelation(@PathParam("correlationID") @NotBlank String correlationID);
-
-
-
-  /*  @Path("/{serviceName}/graph")
-    @APIResponses(value = {
-            @APIResponse(responseCode = SUCCESS_CODE, description = SUCCESS_DESCRIPTION,
-                    content = @Content(schema = @Schema(implementation = ServiceListResponse.class))),
-            @APIResponse(responseCode = NOT_FOUND_CODE, description = NOT_FOUND_DESCRIPTION),
-            @APIResponse(responseCode = SERVER_ERROR_CODE, description = SERVER_ERROR_DESCRIPTION,
-                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
-    })
-    @GET
-    @Produces(MediaType.APPLICATION_JSON)
-    List<TaskDTO> getGraph(@Parameter(description = SERVICE_NAME) @PathParam("serviceName") String serviceName);*/
 }
@@ -36,6 +36,8 @@ public class OpenapiConstants {
     public static final String FORBIDDEN_CODE = "403";
     public static final String MOVED_TEMPORARILY_DESCRIPTION = "Redirected to resource";
     public static final String MOVED_TEMPORARILY_CODE = "302";
+    public static final String NOT_MODIFIED_DESCRIPTION = "Entity matches the version in If-None-Match";
+    public static final String NOT_MODIFIED_CODE = "304";
     public static final String NOT_FOUND_DESCRIPTION = "Can not find specified result";
     public static final String NOT_FOUND_CODE = "404";
     public static final String CONFLICTED_DESCRIPTION = "Conflict while saving an entity";
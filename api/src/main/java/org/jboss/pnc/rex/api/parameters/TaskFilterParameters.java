@@ -20,6 +20,7 @@ package org.jboss.pnc.rex.api.parameters;
 import lombok.Data;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.QueryParam;
 
@@ -46,4 +47,17 @@ public class TaskFilterParameters {
     @DefaultValue("false")
     private Boolean rollingback;
 
+    @Parameter(description = "Return only tasks changed after this change sequence (taken from 'changeSequence' of a "
+            + "previously returned task). Results are ordered by change sequence and end at a safe cursor; changes issued "
+            + "but not yet committed are returned by a later request.")
+    @QueryParam("changedSince")
+    private Long changedSince;
+
+    @Parameter(description = "Maximal number of tasks returned with 'changedSince'. The next page is requested with "
+            + "'changeSequence' of the last returned task.")
+    @QueryParam("limit")
+    @DefaultValue("1000")
+    @Min(1)
+    private Integer limit;
+
 }
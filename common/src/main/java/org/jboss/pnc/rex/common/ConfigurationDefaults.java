@@ -17,6 +17,8 @@
  */
 package org.jboss.pnc.rex.common;
 
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
+
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 
@@ -31,4 +33,5 @@ public class ConfigurationDefaults {
     public static final Duration heartbeatInitialDelay = Duration.ZERO;
     public static final Duration heartbeatInterval = Duration.of(5, ChronoUnit.SECONDS);
     public static final int heartbeatToleranceThreshold = 3;
+    public static final NotificationPayload notificationPayload = NotificationPayload.FULL;
 }
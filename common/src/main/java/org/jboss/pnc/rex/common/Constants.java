@@ -0,0 +1,31 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.common;
+
+/**
+ * The values in here are auto-generated from Maven plugin maven-replacer-plugin and the template is found in the
+ * template folder
+ *
+ * @author Dustin Kut Moy Cheung {@literal <dcheung@redhat.com>}
+ */
+public final class Constants {
+
+    public static final String REX_VERSION = "1.2.4-SNAPSHOT";
+    public static final String COMMIT_HASH = "2a625f3";
+    public static final String BUILD_TIME = "2026-10-19T17:57:18Z";
+}
@@ -21,5 +21,7 @@ import org.infinispan.protostream.annotations.ProtoEnumValue;
 
 public enum ResourceType {
     @ProtoEnumValue(0)
-    CLUSTERED_JOB
+    CLUSTERED_JOB,
+    @ProtoEnumValue(1)
+    QUEUE_DISPATCHER
 }
@@ -0,0 +1,39 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.common.enums;
+
+/**
+ * Profile of the Task view returned in graph listings. It is independent of {@link NotificationPayload}, which is
+ * persisted with the Task and selects fields of notifications; constants share names but not field sets.
+ */
+public enum TaskProjection {
+    /**
+     * Only identity and state of the Task (name, correlationID, queue, state, stopFlag and stoppedCause).
+     */
+    MINIMAL,
+
+    /**
+     * Everything except server responses, configuration and relations of the Task (which are given by the edges).
+     */
+    STANDARD,
+
+    /**
+     * The whole Task.
+     */
+    FULL
+}
@@ -0,0 +1,39 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.common.util;
+
+public class LogUtils {
+
+    /**
+     * Converts the value to String and cuts it to the maximal length. A negative maximal length means no limit.
+     *
+     * @param value value to log
+     * @param maxLength maximal number of characters of the value
+     * @return the (truncated) String representation of the value
+     */
+    public static String truncate(Object value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        String string = value.toString();
+        if (maxLength < 0 || string.length() <= maxLength) {
+            return string;
+        }
+        return string.substring(0, maxLength) + "...(" + (string.length() - maxLength) + " more characters)";
+    }
+}
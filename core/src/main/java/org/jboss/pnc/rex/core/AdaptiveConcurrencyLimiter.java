@@ -0,0 +1,311 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.infinispan.client.hotrod.VersionedValue;
+import org.jboss.pnc.rex.core.config.AdaptiveConcurrencyConfig;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.counter.Counter;
+import org.jboss.pnc.rex.core.counter.EffectiveMax;
+import org.jboss.pnc.rex.core.counter.MaxConcurrent;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adapts the effective maximum of queues in adaptive mode to the health of the remote entity (AIMD).
+ *
+ * Each healthy response to a start request increases the limit by {@code increase / limit}, so the limit grows by
+ * {@link AdaptiveConcurrencyConfig#increase()} per round of responses. An unhealthy response (5xx, 425, 429,
+ * connection failure or latency over the threshold) multiplies the limit by
+ * {@link AdaptiveConcurrencyConfig#decreaseFactor()}, at most once per cooldown. The limit stays between
+ * {@link AdaptiveConcurrencyConfig#minConcurrency()} and the maximum set for the queue.
+ *
+ * Start requests are sent by the instance that dequeued the Tasks, which is the dispatcher of the queue. The estimate
+ * is therefore kept locally and only whole-number changes are published to the 'rex-counter' cache, where the poke and
+ * other instances (f.e. a new dispatcher after a handover) read it. The maximum and the published effective maximum
+ * are kept in memory as well and re-read at most once per {@link AdaptiveConcurrencyConfig#refreshInterval()}, so
+ * responses are recorded without reading the cache.
+ */
+@Slf4j
+@ApplicationScoped
+public class AdaptiveConcurrencyLimiter {
+
+    private static final String DEFAULT_QUEUE_NAMING = "DEFAULT";
+
+    private final AdaptiveConcurrencyConfig config;
+
+    private final Counter max;
+
+    private final Counter effective;
+
+    private final PokeCoalescer coalescer;
+
+    private final Map<String, Estimate> estimates = new HashMap<>();
+
+    /**
+     * Number of resets of estimates. Values read from the cache before a reset are not applied after it.
+     */
+    private long resets;
+
+    public AdaptiveConcurrencyLimiter(ApplicationConfig appConfig,
+                                      @MaxConcurrent Counter max,
+                                      @EffectiveMax Counter effective,
+                                      PokeCoalescer coalescer) {
+        this.config = appConfig.options().adaptiveConcurrency();
+        this.max = max;
+        this.effective = effective;
+        this.coalescer = coalescer;
+    }
+
+    public boolean isAdaptive(@Nullable String queue) {
+        if (!config.enabled()) {
+            return false;
+        }
+        return config.queues()
+                .map(queues -> queues.contains(queue == null ? DEFAULT_QUEUE_NAMING : queue))
+                .orElse(true);
+    }
+
+    /**
+     * Replaces maximum of adaptive queues with their effective maximum.
+     *
+     * @param maxEntries maximum counters keyed by queue
+     * @return maximum counters with effective values for adaptive queues
+     */
+    public Map<String, Long> effectiveMaximums(Map<String, Long> maxEntries) {
+        if (!config.enabled()) {
+            return maxEntries;
+        }
+
+        Map<String, Long> published = effective.entries();
+        Map<String, Long> result = new HashMap<>(maxEntries);
+        result.replaceAll((queue, configured) -> isAdaptive(queue) ? clamp(published.get(queue), configured) : configured);
+        return result;
+    }
+
+    /**
+     * Returns effective maximum of a queue. Equals to the configured maximum for queues that are not adaptive.
+     *
+     * @param queue the queue
+     * @return effective maximum or null if the queue doesn't exist
+     */
+    @Nullable
+    public Long getEffectiveMaximum(@Nullable String queue) {
+        VersionedValue<Long> configured = max.getMetadataValue(queue);
+        if (configured == null) {
+            return null;
+        }
+        if (!isAdaptive(queue)) {
+            return configured.getValue();
+        }
+
+        VersionedValue<Long> published = effective.getMetadataValue(queue);
+        return clamp(published == null ? null : published.getValue(), configured.getValue());
+    }
+
+    /**
+     * Records a response of the remote entity to a start request of a Task in the queue.
+     *
+     * @param queue queue of the Task
+     * @param statusCode status code of the response
+     * @param latency time it took to receive the response
+     */
+    public void onResponse(@Nullable String queue, int statusCode, Duration latency) {
+        if (!isAdaptive(queue)) {
+            return;
+        }
+
+        boolean overloaded = statusCode >= 500 || statusCode == 425 || statusCode == 429;
+        boolean slow = latency.compareTo(config.latencyThreshold()) > 0;
+        try {
+            if (overloaded || slow) {
+                log.debug("QUEUE '{}': Unhealthy start response (STATUS CODE: {}, latency: {}ms).",
+                        queue == null ? DEFAULT_QUEUE_NAMING : queue,
+                        statusCode,
+                        latency.toMillis());
+                decrease(queue);
+            } else {
+                increase(queue);
+            }
+        } catch (RuntimeException e) {
+            // never interfere with handling of the response
+            log.warn("QUEUE '{}': Could not adapt effective maximum.", queue == null ? DEFAULT_QUEUE_NAMING : queue, e);
+        }
+    }
+
+    /**
+     * Records a connection failure of a start request of a Task in the queue.
+     *
+     * @param queue queue of the Task
+     */
+    public void onConnectionFailure(@Nullable String queue) {
+        if (!isAdaptive(queue)) {
+            return;
+        }
+
+        try {
+            decrease(queue);
+        } catch (RuntimeException e) {
+            log.warn("QUEUE '{}': Could not adapt effective maximum.", queue == null ? DEFAULT_QUEUE_NAMING : queue, e);
+        }
+    }
+
+    private void increase(String queue) {
+        refresh(queue);
+        long published;
+        long limit;
+        synchronized (estimates) {
+            Estimate estimate = estimates.get(queue);
+            if (estimate == null) {
+                return;
+            }
+            published = estimate.published;
+            estimate.limit = Math.min(estimate.ceiling, estimate.limit + (double) config.increase() / estimate.limit);
+            limit = (long) estimate.limit;
+            estimate.published = limit;
+        }
+
+        if (limit > published) {
+            publish(queue, published, limit);
+            // more Tasks can start
+            coalescer.request(Collections.singleton(queue));
+        }
+    }
+
+    private void decrease(String queue) {
+        refresh(queue);
+        long published;
+        long limit;
+        synchronized (estimates) {
+            Estimate estimate = estimates.get(queue);
+            if (estimate == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now - estimate.lastDecrease < config.decreaseCooldown().toMillis()) {
+                return;
+            }
+            estimate.lastDecrease = now;
+            published = estimate.published;
+            estimate.limit = Math.max(config.minConcurrency(), estimate.limit * config.decreaseFactor());
+            limit = (long) estimate.limit;
+            estimate.published = limit;
+        }
+
+        if (limit < published) {
+            publish(queue, published, limit);
+        }
+    }
+
+    /**
+     * Refreshes the local estimate. The maximum and the published effective maximum are re-read from the cache only if
+     * the estimate is missing or older than the refresh interval. The cache is read without holding the lock of
+     * estimates, so responses of other queues don't wait for it. The estimate is then re-initialized from the published
+     * effective maximum (or the maximum of the queue if there is none) if the published value was changed elsewhere,
+     * f.e. by another instance or by setting the maximum of the queue, and the ceiling is refreshed with the current
+     * maximum of the queue. The estimate is removed if the queue doesn't exist.
+     */
+    private void refresh(String queue) {
+        long generation;
+        synchronized (estimates) {
+            Estimate estimate = estimates.get(queue);
+            if (estimate != null && System.currentTimeMillis() - estimate.loadedAt < config.refreshInterval().toMillis()) {
+                return;
+            }
+            generation = resets;
+        }
+
+        VersionedValue<Long> configured = max.getMetadataValue(queue);
+        VersionedValue<Long> current = configured == null ? null : effective.getMetadataValue(queue);
+
+        synchronized (estimates) {
+            if (generation != resets) {
+                // the values may predate the reset, the next response reads them again
+                return;
+            }
+            if (configured == null) {
+                estimates.remove(queue);
+                return;
+            }
+
+            long ceiling = Math.max(config.minConcurrency(), configured.getValue());
+            long published = current == null ? ceiling : current.getValue();
+
+            Estimate estimate = estimates.computeIfAbsent(queue, q -> new Estimate());
+            if (estimate.published != published) {
+                estimate.limit = published;
+                estimate.published = published;
+            }
+            estimate.ceiling = ceiling;
+            estimate.limit = Math.min(Math.max(estimate.limit, config.minConcurrency()), ceiling);
+            estimate.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    private void publish(String queue, long previous, long limit) {
+        log.info("QUEUE '{}': Adapting effective maximum. ({} to {})",
+                queue == null ? DEFAULT_QUEUE_NAMING : queue,
+                previous,
+                limit);
+        try {
+            QuarkusTransaction.requiringNew().run(() -> effective.initialize(queue, limit));
+        } catch (RuntimeException e) {
+            // the next change publishes again
+            log.warn("QUEUE '{}': Could not publish effective maximum.", queue == null ? DEFAULT_QUEUE_NAMING : queue, e);
+        }
+    }
+
+    /**
+     * Restarts adaptation of the queue from the maximum. Invoked when the maximum of the queue is set.
+     *
+     * @param queue the queue
+     * @param maximum new maximum of the queue
+     */
+    public void reset(@Nullable String queue, long maximum) {
+        if (isAdaptive(queue)) {
+            effective.initialize(queue, maximum);
+            synchronized (estimates) {
+                // re-read on the next response
+                estimates.remove(queue);
+                resets++;
+            }
+        }
+    }
+
+    private long clamp(@Nullable Long published, long configured) {
+        if (published == null) {
+            return configured;
+        }
+        return Math.min(configured, Math.max(published, Math.min(config.minConcurrency(), configured)));
+    }
+
+    private static class Estimate {
+        private double limit;
+        private double ceiling;
+        private long published;
+        private long lastDecrease;
+        private long loadedAt;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.jboss.pnc.rex.core.config.TokenCacheConfig;
+import org.jboss.pnc.rex.core.config.api.HttpConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the Authorization header of outbound requests in memory so that requests don't wait on the token endpoint
+ * (or LDAP credentials file).
+ *
+ * The header is obtained at startup and refreshed in the background shortly before it expires. The expiry is read
+ * from the token if it is a JWT, otherwise the configured TTL is used. {@link #get()} is called on the event loop and
+ * never waits: if the header is missing or expired (f.e. the proactive refresh failed), the last header is served while
+ * a background refresh runs. Only a request rejected as unauthorized refreshes synchronously, off the event loop.
+ */
+@Slf4j
+@ApplicationScoped
+public class AuthorizationHeaderCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long MIN_REFRESH_DELAY_MILLIS = 1000;
+    private static final AttributeKey<String> TRIGGER = AttributeKey.stringKey("trigger");
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+
+    private final PNCClientAuth auth;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+    private final BiConsumer<Duration, Runnable> scheduler;
+    private final LongSupplier clock;
+    private final LongCounter refreshes;
+
+    private final Object lock = new Object();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile String header;
+    private volatile long expiresAt;
+    private volatile long refreshedAt;
+
+    @Inject
+    public AuthorizationHeaderCache(PNCClientAuth auth,
+                                    HttpConfiguration configuration,
+                                    ManagedExecutor executor,
+                                    OpenTelemetry openTelemetry) {
+        this(auth,
+                configuration.tokenCache(),
+                (delay, task) -> CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executor).execute(task),
+                openTelemetry.getMeter("rex"),
+                System::currentTimeMillis);
+    }
+
+    public AuthorizationHeaderCache(PNCClientAuth auth,
+                                    TokenCacheConfig config,
+                                    BiConsumer<Duration, Runnable> scheduler,
+                                    Meter meter,
+                                    LongSupplier clock) {
+        this.auth = auth;
+        this.ttlMillis = config.ttl().toMillis();
+        this.refreshAheadMillis = config.refreshAhead().toMillis();
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.refreshes = meter.counterBuilder("rex.auth.token.refresh")
+                .setDescription("Refreshes of the Authorization header of outbound requests")
+                .build();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        prime();
+    }
+
+    /**
+     * Obtains the header synchronously so that the first requests don't go out without it. A failure is retried in
+     * the background.
+     */
+    public void prime() {
+        try {
+            synchronized (lock) {
+                refresh("initial");
+            }
+        } catch (RuntimeException e) {
+            log.warn("AUTH: Could not obtain the token at startup. Retrying in the background.", e);
+            refreshInBackground("initial");
+        }
+    }
+
+    /**
+     * Returns the cached header without waiting. If the header is missing or expired, a background refresh is started
+     * and the last header (or null if there was none yet) is returned meanwhile.
+     *
+     * @return value of the Authorization header or null
+     */
+    public String get() {
+        String current = header;
+        if (current == null || clock.getAsLong() >= expiresAt) {
+            refreshInBackground(current == null ? "initial" : "expired");
+        }
+        return current;
+    }
+
+    /**
+     * Refreshes the header synchronously after the remote entity rejected it (401). Does nothing if the header was
+     * already refreshed after the request was sent.
+     *
+     * @param sentAt time (from {@link #now()}) the rejected request was sent
+     */
+    public void invalidate(long sentAt) {
+        synchronized (lock) {
+            if (refreshedAt > sentAt) {
+                return;
+            }
+            log.warn("AUTH: Request was rejected as unauthorized. Refreshing the token.");
+            refresh("unauthorized");
+        }
+    }
+
+    /**
+     * @return time of the clock used to compare with refreshes
+     */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    private void refresh(String trigger) {
+        try {
+            String fresh = auth.getHttpAuthorizationHeaderValue();
+            long now = clock.getAsLong();
+            header = fresh;
+            refreshedAt = now;
+            expiresAt = expiryOf(fresh, now);
+            refreshes.add(1, Attributes.of(TRIGGER, trigger, OUTCOME, "success"));
+            log.debug("AUTH: Token refreshed ({}). Valid for {}ms.", trigger, expiresAt - now);
+        } catch (RuntimeException e) {
+            refreshes.add(1, Attributes.of(TRIGGER, trigger, OUTCOME, "failure"));
+            throw e;
+        }
+        scheduleRefresh();
+    }
+
+    private void refreshInBackground(String trigger) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        scheduler.accept(Duration.ZERO, () -> {
+            try {
+                synchronized (lock) {
+                    if (header != null && clock.getAsLong() < expiresAt) {
+                        // refreshed by another thread meanwhile
+                        return;
+                    }
+                    refresh(trigger);
+                }
+            } catch (RuntimeException e) {
+                log.warn("AUTH: Token refresh ({}) failed. Serving the last token.", trigger, e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        // the token endpoint may hand out a token close to its expiry, don't refresh in a tight loop
+        long delay = Math.max(MIN_REFRESH_DELAY_MILLIS, expiresAt - refreshAheadMillis - clock.getAsLong());
+        scheduler.accept(Duration.ofMillis(delay), () -> {
+            refreshScheduled.set(false);
+            try {
+                synchronized (lock) {
+                    refresh("proactive");
+                }
+            } catch (RuntimeException e) {
+                // the last header is served meanwhile
+                log.warn("AUTH: Proactive token refresh failed. Retrying.", e);
+                scheduleRefresh();
+            }
+        });
+    }
+
+    private long expiryOf(String header, long now) {
+        long ttlExpiry = now + ttlMillis;
+        if (header == null || !header.startsWith("Bearer ")) {
+            return ttlExpiry;
+        }
+
+        String[] parts = header.substring("Bearer ".length()).split("\\.");
+        if (parts.length != 3) {
+            return ttlExpiry;
+        }
+        try {
+            JsonNode claims = MAPPER.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            if (claims.hasNonNull("exp")) {
+                return Math.min(ttlExpiry, Duration.ofSeconds(claims.get("exp").asLong()).toMillis());
+            }
+        } catch (Exception e) {
+            log.debug("AUTH: Token is not a readable JWT. Using TTL.", e);
+        }
+        return ttlExpiry;
+    }
+}
@@ -24,18 +24,24 @@ import io.vertx.mutiny.ext.web.client.HttpResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.jboss.pnc.rex.common.enums.Transition;
 import org.jboss.pnc.rex.common.exceptions.RequestRetryException;
+import org.jboss.pnc.rex.core.NotificationBatcher.Ack;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
 import org.jboss.pnc.rex.core.mapper.MiniTaskMapper;
+import org.jboss.pnc.rex.model.CorrelationProgress;
 import org.jboss.pnc.rex.model.Header;
 import org.jboss.pnc.rex.model.Request;
 import org.jboss.pnc.rex.model.Task;
+import org.jboss.pnc.rex.model.requests.CorrelationNotificationRequest;
 import org.jboss.pnc.rex.model.requests.NotificationRequest;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import static org.jboss.pnc.rex.common.util.LogUtils.truncate;
 import static org.jboss.pnc.rex.common.util.MDCUtils.wrapWithMDC;
 
 @Unremovable
@@ -47,16 +53,37 @@ public class CallerNotificationClient {
 
     private final GenericVertxHttpClient client;
 
-    public CallerNotificationClient(MiniTaskMapper miniMapper, GenericVertxHttpClient client) {
+    private final NotificationBatcher batcher;
+
+    private final int logMaxLength;
+
+    public CallerNotificationClient(MiniTaskMapper miniMapper,
+                                    GenericVertxHttpClient client,
+                                    NotificationBatcher batcher,
+                                    ApplicationConfig config) {
         this.miniMapper = miniMapper;
         this.client = client;
+        this.batcher = batcher;
+        this.logMaxLength = config.options().notifications().logMaxLength();
     }
 
     public boolean notifyCaller(Transition transition, Task task) {
+        return deliver(transition, task) == Ack.ACCEPTED;
+    }
+
+    /**
+     * Sends the notification of the transition and reports how the caller acknowledged it.
+     *
+     * @param transition transition of the Task
+     * @param task the Task
+     * @return ACCEPTED if the caller accepted the notification, REJECTED if the caller refused it and RETRY if the
+     * caller was not reachable or failed to process it
+     */
+    public Ack deliver(Transition transition, Task task) {
 
         if (task.getCallerNotifications() == null) {
             log.warn("NOTIFICATION {}: DISABLED", task.getName());
-            return false;
+            return Ack.REJECTED;
         }
 
         if (task.getConfiguration() != null && task.getConfiguration().getMdcHeaderKeyMapping() != null) {
@@ -69,7 +96,7 @@ public class CallerNotificationClient {
         }
     }
 
-    private boolean notifyCallerInternal(Transition transition, Task task) {
+    private Ack notifyCallerInternal(Transition transition, Task task) {
         Request requestDefinition = task.getCallerNotifications();
 
         URI uri;
@@ -84,15 +111,34 @@ public class CallerNotificationClient {
                 .before(transition.getBefore())
                 .after(transition.getAfter())
                 .attachment(requestDefinition.getAttachment())
-                .task(miniMapper.minimize(task))
+                .task(miniMapper.minimizeForNotification(task))
                 .build();
 
         log.info("NOTIFICATION {}: {} transition. Sending notification. REQUEST: {}.",
                 task.getName(),
                 transition,
-                request.toString());
+                truncate(request, logMaxLength));
+
+        if (batcher.isEnabled()) {
+            // bounded wait, the notification is sent on its own if the batch is not acknowledged in time
+            Ack ack = batcher.submitAndAwait(uri, requestDefinition, request);
+            switch (ack) {
+                case ACCEPTED -> {
+                    log.debug("NOTIFICATION {}: Successful for transition {} ", task.getName(), transition);
+                    return ack;
+                }
+                case REJECTED -> {
+                    log.warn("NOTIFICATION {}: Caller rejected notification for transition {}.",
+                            task.getName(),
+                            transition);
+                    return ack;
+                }
+                default -> log.warn("NOTIFICATION {}: Caller could not process batched notification for transition {}."
+                        + " Sending it on its own.", task.getName(), transition);
+            }
+        }
 
-        AtomicBoolean result = new AtomicBoolean(false);
+        AtomicReference<Ack> result = new AtomicReference<>(Ack.RETRY);
         client.makeRequest(uri,
                 requestDefinition.getMethod(),
                 requestDefinition.getHeaders(),
@@ -102,32 +148,93 @@ public class CallerNotificationClient {
         return result.get();
     }
 
-    private void handleResponse(HttpResponse<Buffer> response, Transition transition, Task task, AtomicBoolean result) {
+    /**
+     * Sends the graph-level notification of a finished correlation.
+     *
+     * @param progress final progress of the correlation
+     * @return true if the caller accepted the notification
+     */
+    public boolean notifyCorrelation(CorrelationProgress progress) {
+        Request requestDefinition = progress.getNotification();
+        String correlationID = progress.getCorrelationID();
+
+        URI uri;
+        try {
+            uri = new URI(requestDefinition.getUrl());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Url for notifications is not a valid URL for correlation "
+                    + correlationID, e);
+        }
+
+        CorrelationNotificationRequest request = CorrelationNotificationRequest.builder()
+                .correlationID(correlationID)
+                .summary(progress.summary())
+                .attachment(requestDefinition.getAttachment())
+                .build();
+
+        log.info("CORRELATION NOTIFICATION {}: All Tasks finished. Sending notification. REQUEST: {}.",
+                correlationID,
+                truncate(request, logMaxLength));
+
+        AtomicBoolean result = new AtomicBoolean(false);
+        client.makeRequest(uri,
+                requestDefinition.getMethod(),
+                requestDefinition.getHeaders(),
+                request,
+                response -> handleCorrelationResponse(response, correlationID, result),
+                throwable -> {
+                    log.error("CORRELATION NOTIFICATION {}: HTTP call to the Caller failed multiple times.",
+                            correlationID,
+                            throwable);
+                    return Uni.createFrom().voidItem();
+                });
+        return result.get();
+    }
+
+    private void handleCorrelationResponse(HttpResponse<Buffer> response, String correlationID, AtomicBoolean result) {
         if (200 <= response.statusCode() && response.statusCode() <= 299) {
-            log.debug("NOTIFICATION {}: Successful for transition {} ", task.getName(), transition);
+            log.debug("CORRELATION NOTIFICATION {}: Successful", correlationID);
 
             result.set(true);
+        } else if (300 <= response.statusCode() && response.statusCode() <= 499) {
+            log.warn("CORRELATION NOTIFICATION {}: Failure while sending notification. RESPONSE: {}",
+                    correlationID,
+                    truncate(response.bodyAsString(), logMaxLength));
+        } else {
+            // trigger retry
+            log.warn("CORRELATION NOTIFICATION {}: System Failure while sending notification. RESPONSE: {}",
+                    correlationID,
+                    truncate(response.bodyAsString(), logMaxLength));
+            throw new RequestRetryException("Retrying");
+        }
+    }
+
+    private void handleResponse(HttpResponse<Buffer> response, Transition transition, Task task, AtomicReference<Ack> result) {
+        if (200 <= response.statusCode() && response.statusCode() <= 299) {
+            log.debug("NOTIFICATION {}: Successful for transition {} ", task.getName(), transition);
+
+            result.set(Ack.ACCEPTED);
         } else if (300 <= response.statusCode() && response.statusCode() <= 499) {
             log.warn("NOTIFICATION {}: Failure while sending notification for transition {}. RESPONSE: {}",
                     task.getName(),
                     transition,
-                    response.bodyAsString());
+                    truncate(response.bodyAsString(), logMaxLength));
 
-            result.set(false);
+            result.set(Ack.REJECTED);
         } else {
             // trigger retry
             log.warn("NOTIFICATION {}: System Failure while sending notification for transition {}. RESPONSE: {}",
                     task.getName(),
                     transition,
-                    response.bodyAsString());
+                    truncate(response.bodyAsString(), logMaxLength));
             throw new RequestRetryException("Retrying");
         }
     }
 
-    private Uni<Void> onConnectionFailure(Throwable exception, Task task, AtomicBoolean result) {
-        log.error("NOTIFICATION {}: HTTP call to the Caller failed multiple times.", task, exception);
+    private Uni<Void> onConnectionFailure(Throwable exception, Task task, AtomicReference<Ack> result) {
+        log.error("NOTIFICATION {}: HTTP call to the Caller failed multiple times.", task.getName(), exception);
         // IS THIS A FAIL STATE? SHOULD I THROW EXCEPTION? SHOULD FAILING BE CONFIGURABLE?
-        result.set(false);
+        result.set(Ack.RETRY);
 
         return Uni.createFrom().voidItem();
     }
@@ -0,0 +1,261 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.infinispan.client.Remote;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.Shutdown;
+import io.quarkus.runtime.Startup;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.RemoteCacheManager;
+import org.infinispan.client.hotrod.RemoteCounterManagerFactory;
+import org.infinispan.counter.api.CounterConfiguration;
+import org.infinispan.counter.api.CounterManager;
+import org.infinispan.counter.api.CounterType;
+import org.infinispan.counter.api.Storage;
+import org.infinispan.counter.api.StrongCounter;
+import org.jboss.pnc.rex.core.common.Constants;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.ChangeSequenceConfig;
+import org.jboss.pnc.rex.core.infinispan.TaskQueries;
+import org.jboss.pnc.rex.model.Task;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues change sequences stamped on Tasks whenever they are saved.
+ *
+ * Sequences come from a cluster-wide counter, so they do not depend on clocks of the instances. To avoid a round trip
+ * on every save, an instance reserves a block of sequences and issues them one by one. A block is abandoned once it is
+ * used up or older than its configured lifetime. A sequence is always higher than the previous sequence of the Task.
+ *
+ * Instances issue from different blocks at the same time and sequences are issued before their transactions commit,
+ * so a sequence can become visible after a higher one. Every instance therefore publishes its floor in 'rex-counter':
+ * the lowest sequence it may still make visible, i.e. the lowest sequence of its uncommitted transactions or the next
+ * sequence of its block. The floor only grows. Before a block is reserved, the floor is lowered below anything the
+ * reservation can return. The safe cursor is the highest sequence below the floors of all instances and not above the
+ * counter; every change up to it is already visible.
+ */
+@Slf4j
+@ApplicationScoped
+public class ChangeSequencer {
+
+    public static final String COUNTER_NAME = "rex-change-sequence";
+
+    private final RemoteCacheManager cacheManager;
+
+    private final RemoteCache<String, Long> counters;
+
+    private final TaskQueries queries;
+
+    private final ChangeSequenceConfig config;
+
+    private final TransactionSynchronizationRegistry tsr;
+
+    private final String floorKey;
+
+    /**
+     * Issued sequences whose transactions have not completed yet.
+     */
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    private StrongCounter counter;
+
+    /**
+     * Next sequence to issue and the last sequence of the current block.
+     */
+    private long next = 1;
+
+    private long blockEnd = 0;
+
+    private long blockReservedAt;
+
+    private boolean floorPublished;
+
+    private Cancellable publishing;
+
+    public ChangeSequencer(RemoteCacheManager cacheManager,
+                           @Remote("rex-tasks") RemoteCache<String, Task> tasks,
+                           @Remote("rex-counter") RemoteCache<String, Long> counters,
+                           ApplicationConfig config,
+                           TransactionSynchronizationRegistry tsr) {
+        this.cacheManager = cacheManager;
+        this.counters = counters;
+        this.queries = new TaskQueries(tasks);
+        this.config = config.options().changeSequence();
+        this.tsr = tsr;
+        this.floorKey = Constants.CHANGE_FLOOR_KEY + Constants.NAME_SEPARATOR + config.name();
+    }
+
+    @Startup(ObserverMethod.DEFAULT_PRIORITY)
+    void start() {
+        publishing = Multi.createFrom().ticks().every(config.blockLifetime())
+                .onOverflow().drop()
+                .subscribe().with(
+                        tick -> publishFloor(),
+                        e -> log.error("CHANGE SEQUENCE: Floor publishing stopped.", e));
+    }
+
+    @Shutdown
+    void stop() {
+        if (publishing != null) {
+            publishing.cancel();
+        }
+    }
+
+    /**
+     * Has to be called in the transaction that stamps the sequence.
+     *
+     * @param previous the current sequence of the Task (0 for a new Task)
+     * @return sequence to stamp on the Task
+     */
+    public synchronized long next(long previous) {
+        // the Task may have been stamped from a block reserved after the current one
+        if (blockExpired() || next > blockEnd || next <= previous) {
+            reserve(previous);
+        }
+        long issued = next++;
+        track(issued);
+        return issued;
+    }
+
+    /**
+     * Returns the highest sequence such that all changes up to it are visible. Listing changes only up to the cursor
+     * means the last listed sequence is a cursor nothing will be stamped below later.
+     *
+     * @return the safe cursor
+     */
+    public long safeCursor() {
+        // the counter is read before the floors: a block reserved later lies above it, a block reserved earlier is
+        // covered by the floor its instance published before reserving
+        long cursor = counter().getValue().join();
+        String prefix = Constants.CHANGE_FLOOR_KEY + Constants.NAME_SEPARATOR;
+        for (Map.Entry<String, Long> floor : counters.entrySet()) {
+            // the floor of this instance is taken from memory, the published one may be stale
+            if (floor.getKey().startsWith(prefix) && !floor.getKey().equals(floorKey)) {
+                cursor = Math.min(cursor, floor.getValue() - 1);
+            }
+        }
+        Long local = floor();
+        return local == null ? cursor : Math.min(cursor, local - 1);
+    }
+
+    /**
+     * Publishes the floor of the instance. Once the block is unusable and nothing is in flight, the floor is withdrawn;
+     * the next reservation publishes a new one first.
+     */
+    synchronized void publishFloor() {
+        writeFloor(floor());
+    }
+
+    /**
+     * @return the lowest sequence this instance may still make visible; null if it cannot make any visible without
+     * reserving a new block
+     */
+    private synchronized Long floor() {
+        Long lowest = inFlight.isEmpty() ? null : inFlight.first();
+        if (next <= blockEnd && !blockExpired()) {
+            lowest = lowest == null ? next : Math.min(lowest, next);
+        }
+        return lowest;
+    }
+
+    private boolean blockExpired() {
+        return System.nanoTime() - blockReservedAt > config.blockLifetime().toNanos();
+    }
+
+    private void track(long issued) {
+        if (tsr.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return;
+        }
+        inFlight.add(issued);
+        tsr.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                inFlight.remove(issued);
+            }
+        });
+    }
+
+    private void reserve(long above) {
+        int blockSize = config.blockSize();
+        // anything reserved from now on is above the current value
+        long current = counter().getValue().join();
+        writeFloor(inFlight.isEmpty() ? current + 1 : Math.min(inFlight.first(), current + 1));
+
+        long end = counter().addAndGet(blockSize).join();
+        if (end - blockSize < above) {
+            // the counter is behind a stamped sequence (e.g. it was lost), catch up
+            end = counter().addAndGet(above + blockSize - end).join();
+        }
+        next = end - blockSize + 1;
+        blockEnd = end;
+        blockReservedAt = System.nanoTime();
+        writeFloor(floor());
+    }
+
+    private void writeFloor(Long floor) {
+        if (floor == null && !floorPublished) {
+            return;
+        }
+        // outside of the stamping transaction, the floor has to be visible before the sequences are issued
+        QuarkusTransaction.requiringNew().run(() -> {
+            if (floor == null) {
+                counters.remove(floorKey);
+            } else {
+                counters.put(floorKey, floor, config.floorLifespan().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        floorPublished = floor != null;
+    }
+
+    private StrongCounter counter() {
+        if (counter == null) {
+            CounterManager counters = RemoteCounterManagerFactory.asCounterManager(cacheManager);
+            boolean defined = counters.defineCounter(COUNTER_NAME, CounterConfiguration.builder(CounterType.UNBOUNDED_STRONG)
+                    .initialValue(0)
+                    .storage(Storage.PERSISTENT)
+                    .build());
+            StrongCounter strong = counters.getStrongCounter(COUNTER_NAME);
+            if (defined) {
+                // start above sequences of existing Tasks
+                long latest = queries.latestChangeSequence();
+                if (latest > 0) {
+                    strong.addAndGet(latest).join();
+                    log.info("CHANGE SEQUENCE: Counter defined and raised to {}.", latest);
+                }
+            }
+            counter = strong;
+        }
+        return counter;
+    }
+}
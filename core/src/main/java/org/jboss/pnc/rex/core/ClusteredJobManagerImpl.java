@@ -73,6 +73,13 @@ public class ClusteredJobManagerImpl implements ClusteredJobManager, ResourceHol
         return job != null && job.isOwnedBy(appConfig.name());
     }
 
+    @Override
+    public boolean isOwnedCached(String id) {
+        ClusteredJobReference job = registry.getCachedById(id);
+
+        return job != null && job.isOwnedBy(appConfig.name());
+    }
+
     @Override
     public boolean exists(String id) {
         return registry.getById(id) != null;
@@ -25,6 +25,8 @@ import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.jboss.pnc.rex.core.api.ClusteredJobRegistry;
 import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.NearCacheConfig;
+import org.jboss.pnc.rex.core.infinispan.NearCache;
 import org.jboss.pnc.rex.model.ClusteredJobReference;
 
 import java.util.List;
@@ -37,6 +39,8 @@ public class ClusteredJobRegistryImpl implements ClusteredJobRegistry {
 
     private final RemoteCache<String, ClusteredJobReference> jobs;
 
+    private final NearCache<String, ClusteredJobReference> nearJobs;
+
     private final ApplicationConfig appConfig;
 
     public ClusteredJobRegistryImpl(
@@ -44,6 +48,9 @@ public class ClusteredJobRegistryImpl implements ClusteredJobRegistry {
             ApplicationConfig appConfig) {
         this.jobs = jobCache;
         this.appConfig = appConfig;
+
+        NearCacheConfig nearCacheConfig = appConfig.options().nearCache();
+        this.nearJobs = new NearCache<>(jobCache, nearCacheConfig.enabled(), nearCacheConfig.clusterJobsMaxEntries());
     }
 
     @Override
@@ -80,6 +87,11 @@ public class ClusteredJobRegistryImpl implements ClusteredJobRegistry {
         return jobs.get(id);
     }
 
+    @Override
+    public ClusteredJobReference getCachedById(String id) {
+        return nearJobs.get(id);
+    }
+
     @Override
     @Transactional(MANDATORY)
     public String createWithOwnership(ClusteredJobReference jobReference) {
@@ -96,6 +108,7 @@ public class ClusteredJobRegistryImpl implements ClusteredJobRegistry {
                 put,
                 jobReference);
         }
+        nearJobs.invalidateOnCompletion(jobReference.getId());
 
         return jobReference.getId();
     }
@@ -104,7 +117,7 @@ public class ClusteredJobRegistryImpl implements ClusteredJobRegistry {
         ClusteredJobReference put = jobs
             .withFlags(Flag.FORCE_RETURN_VALUE)
             .put(jobReference.getId(), jobReference);
-
+        nearJobs.invalidateOnCompletion(jobReference.getId());
 
         return jobReference.getId();
     }
@@ -113,11 +126,13 @@ public class ClusteredJobRegistryImpl implements ClusteredJobRegistry {
     @Transactional(MANDATORY)
     public void delete(String jobId) {
         jobs.remove(jobId);
+        nearJobs.invalidateOnCompletion(jobId);
     }
 
     @Override
     @Transactional(MANDATORY)
     public void deleteAll() {
         jobs.clear();
+        nearJobs.invalidateAll();
     }
 }
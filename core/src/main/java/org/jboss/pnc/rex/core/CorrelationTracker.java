@@ -0,0 +1,247 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.infinispan.client.Remote;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.common.exceptions.ConcurrentUpdateException;
+import org.jboss.pnc.rex.model.CorrelationProgress;
+import org.jboss.pnc.rex.model.Request;
+import org.jboss.pnc.rex.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static jakarta.transaction.Transactional.TxType.MANDATORY;
+
+/**
+ * Tracks how many Tasks of a correlation are unfinished for correlations with a graph-level notification. The
+ * progress is updated incrementally on installs and on transitions into (and out of) FINAL states, so finding out that
+ * the whole correlation is finished does not require querying its Tasks.
+ *
+ * Tasks are counted in stripes chosen by their name, so transitions of Tasks in different stripes do not compete on
+ * one entry. The head of the correlation counts stripes with unfinished Tasks and is updated only when a stripe drains
+ * or refills. Stripes drained by concurrent transactions therefore conflict on the head, and the one retried sees the
+ * correlation finished.
+ */
+@Slf4j
+@ApplicationScoped
+public class CorrelationTracker {
+
+    /**
+     * Number of stripes the Tasks of a correlation are counted in.
+     */
+    private static final int STRIPES = 16;
+
+    private static final String STRIPE_SEPARATOR = "#";
+
+    private final RemoteCache<String, CorrelationProgress> correlations;
+
+    public CorrelationTracker(@Remote("rex-correlations") RemoteCache<String, CorrelationProgress> correlations) {
+        this.correlations = correlations;
+    }
+
+    /**
+     * Adds newly installed Tasks to the correlation. Correlations without a notification are not tracked. When a
+     * correlation starts to be tracked, its unfinished Tasks from previous installs are counted once, so that the
+     * notification is not sent before they finish.
+     *
+     * @param correlationID the correlation
+     * @param notification notification of the correlation; null keeps the current one
+     * @param added names of new Tasks with the correlationID
+     * @param existing names of unfinished Tasks with the correlationID from previous installs
+     */
+    @Transactional(MANDATORY)
+    public void register(String correlationID,
+                         @Nullable Request notification,
+                         Collection<String> added,
+                         Supplier<Collection<String>> existing) {
+        MetadataValue<CorrelationProgress> head = correlations.getWithMetadata(correlationID);
+
+        List<String> unfinished = new ArrayList<>(added);
+        if (head == null) {
+            if (notification == null) {
+                return;
+            }
+            unfinished.addAll(existing.get());
+        }
+
+        long[] perStripe = new long[STRIPES];
+        unfinished.forEach(name -> perStripe[stripeOf(name)]++);
+
+        long refilled = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            if (perStripe[stripe] == 0) {
+                continue;
+            }
+            String key = stripeKey(correlationID, stripe);
+            MetadataValue<CorrelationProgress> meta = correlations.getWithMetadata(key);
+            boolean pushed;
+            if (meta == null) {
+                CorrelationProgress progress = CorrelationProgress.builder()
+                        .correlationID(correlationID)
+                        .remaining(perStripe[stripe])
+                        .build();
+                pushed = correlations.putIfAbsent(key, progress) == null;
+                refilled++;
+            } else {
+                CorrelationProgress current = meta.getValue();
+                if (current.getRemaining() <= 0) {
+                    refilled++;
+                }
+                CorrelationProgress progress = current.toBuilder()
+                        .remaining(current.getRemaining() + perStripe[stripe])
+                        .build();
+                pushed = correlations.replaceWithVersion(key, progress, meta.getVersion());
+            }
+            if (!pushed) {
+                throw concurrentUpdate(correlationID);
+            }
+        }
+
+        boolean pushed;
+        if (head == null) {
+            CorrelationProgress progress = CorrelationProgress.builder()
+                    .correlationID(correlationID)
+                    .notification(notification)
+                    .remaining(refilled)
+                    .build();
+            pushed = correlations.putIfAbsent(correlationID, progress) == null;
+        } else if (refilled > 0 || notification != null) {
+            var builder = head.getValue().toBuilder().remaining(head.getValue().getRemaining() + refilled);
+            if (notification != null) {
+                builder.notification(notification);
+            }
+            pushed = correlations.replaceWithVersion(correlationID, builder.build(), head.getVersion());
+        } else {
+            pushed = true;
+        }
+
+        if (!pushed) {
+            throw concurrentUpdate(correlationID);
+        }
+        log.debug("CORRELATION {}: {} Tasks added.", correlationID, added.size());
+    }
+
+    /**
+     * Records a transition of a Task into or out of a FINAL state.
+     *
+     * @param task the Task
+     * @param transition the transition
+     * @return final progress if the Task was the last unfinished Task of a tracked correlation, otherwise null
+     */
+    @Transactional(MANDATORY)
+    public CorrelationProgress onTransition(Task task, Transition transition) {
+        String correlationID = task.getCorrelationID();
+        boolean leftFinal = transition.getBefore().isFinal();
+        boolean reachedFinal = transition.getAfter().isFinal();
+        if (correlationID == null || leftFinal == reachedFinal) {
+            return null;
+        }
+
+        String key = stripeKey(correlationID, stripeOf(task.getName()));
+        MetadataValue<CorrelationProgress> meta = correlations.getWithMetadata(key);
+        if (meta == null) {
+            return null;
+        }
+
+        CorrelationProgress stripe = reachedFinal
+                ? meta.getValue().withFinal(transition.getAfter(), 1)
+                : meta.getValue().withFinal(transition.getBefore(), -1);
+        if (!correlations.replaceWithVersion(key, stripe, meta.getVersion())) {
+            throw concurrentUpdate(correlationID);
+        }
+
+        boolean drained = meta.getValue().getRemaining() > 0 && stripe.getRemaining() <= 0;
+        boolean refilled = meta.getValue().getRemaining() <= 0 && stripe.getRemaining() > 0;
+        if (!drained && !refilled) {
+            return null;
+        }
+
+        MetadataValue<CorrelationProgress> head = correlations.getWithMetadata(correlationID);
+        if (head == null) {
+            return null;
+        }
+        long active = head.getValue().getRemaining() + (drained ? -1 : 1);
+        if (active > 0) {
+            CorrelationProgress progress = head.getValue().toBuilder().remaining(active).build();
+            if (!correlations.replaceWithVersion(correlationID, progress, head.getVersion())) {
+                throw concurrentUpdate(correlationID);
+            }
+            return null;
+        }
+
+        CorrelationProgress progress = finish(correlationID, head);
+        log.info("CORRELATION {}: All Tasks finished. SUMMARY: {}", correlationID, progress.summary());
+        return progress;
+    }
+
+    /**
+     * Removes progress of all correlations.
+     */
+    @Transactional(MANDATORY)
+    public void clear() {
+        correlations.clear();
+    }
+
+    /**
+     * Removes the head and all stripes of a finished correlation.
+     *
+     * @return progress summed up from the stripes
+     */
+    private CorrelationProgress finish(String correlationID, MetadataValue<CorrelationProgress> head) {
+        if (!correlations.removeWithVersion(correlationID, head.getVersion())) {
+            throw concurrentUpdate(correlationID);
+        }
+
+        CorrelationProgress progress = head.getValue().toBuilder().remaining(0).build();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            String key = stripeKey(correlationID, stripe);
+            MetadataValue<CorrelationProgress> meta = correlations.getWithMetadata(key);
+            if (meta == null) {
+                continue;
+            }
+            if (!correlations.removeWithVersion(key, meta.getVersion())) {
+                throw concurrentUpdate(correlationID);
+            }
+            progress = progress.plus(meta.getValue());
+        }
+        return progress;
+    }
+
+    private static int stripeOf(String taskName) {
+        return (taskName.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    private static String stripeKey(String correlationID, int stripe) {
+        return correlationID + STRIPE_SEPARATOR + stripe;
+    }
+
+    private static ConcurrentUpdateException concurrentUpdate(String correlationID) {
+        return new ConcurrentUpdateException("Progress of correlation " + correlationID
+                + " was remotely updated during the transaction");
+    }
+}
@@ -121,6 +121,11 @@ public class FailoverInitiator {
     }
 
     private void tryToTakeoverResource(String resourceId, Logger logger) {
+        if (resourceHolders.stream().anyMatch(holder -> holder.isLiveRecord(resourceId))) {
+            // not a failover signal
+            return;
+        }
+
         QuarkusTransaction.requiringNew()
             .exceptionHandler(throwable -> exceptionHandler(throwable, logger))
             .run(() -> {
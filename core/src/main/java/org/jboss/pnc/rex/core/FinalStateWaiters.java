@@ -0,0 +1,97 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.core.model.TransitionEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local registry of requests waiting for Tasks to reach a final State. Waiters are parked as futures keyed by the
+ * Task name and completed by transition events, so no thread is held while waiting. Waiter sets are only modified
+ * inside {@link Map#compute} so that a waiter cannot be added to a set that a transition has already taken away.
+ */
+@ApplicationScoped
+public class FinalStateWaiters {
+
+    private final Map<String, Set<CompletableFuture<State>>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * Parks a waiter for the Task. The waiter has to be removed with {@link #remove(String, CompletableFuture)} if it
+     * is abandoned before completion.
+     *
+     * @param taskName the task name
+     * @return future completed with the final State of the Task
+     */
+    public CompletableFuture<State> register(String taskName) {
+        CompletableFuture<State> waiter = new CompletableFuture<>();
+        waiters.compute(taskName, (name, parked) -> {
+            Set<CompletableFuture<State>> updated = parked == null ? ConcurrentHashMap.newKeySet() : parked;
+            updated.add(waiter);
+            return updated;
+        });
+        return waiter;
+    }
+
+    /**
+     * Removes the waiter from the registry.
+     *
+     * @param taskName the task name
+     * @param waiter the waiter
+     */
+    public void remove(String taskName, CompletableFuture<State> waiter) {
+        waiters.computeIfPresent(taskName, (name, parked) -> {
+            parked.remove(waiter);
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+
+    /**
+     * Wakes waiters of the Task if the transition ends in a final State.
+     *
+     * @param event the transition event
+     */
+    public void onTransition(TransitionEvent event) {
+        if (!event.getAfter().isFinal()) {
+            return;
+        }
+
+        List<CompletableFuture<State>> woken = new ArrayList<>();
+        waiters.compute(event.getTaskName(), (name, parked) -> {
+            if (parked != null) {
+                woken.addAll(parked);
+            }
+            return null;
+        });
+        woken.forEach(waiter -> waiter.complete(event.getAfter()));
+    }
+
+    /**
+     * @return number of parked waiters
+     */
+    public int size() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -18,28 +18,29 @@
 package org.jboss.pnc.rex.core;
 
 
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
 import io.smallrye.mutiny.Context;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import io.smallrye.mutiny.unchecked.Unchecked;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.ext.auth.authentication.TokenCredentials;
 import io.vertx.ext.web.client.impl.ClientPhase;
 import io.vertx.ext.web.client.impl.HttpContext;
-import io.vertx.ext.web.client.impl.WebClientInternal;
 import io.vertx.mutiny.core.Vertx;
 import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.ext.web.client.HttpRequest;
 import io.vertx.mutiny.ext.web.client.HttpResponse;
-import io.vertx.mutiny.ext.web.client.WebClient;
 import jakarta.enterprise.context.control.ActivateRequestContext;
 import jakarta.ws.rs.core.HttpHeaders;
 import lombok.extern.slf4j.Slf4j;
-import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
 import org.jboss.pnc.rex.common.enums.Method;
 import org.jboss.pnc.rex.common.exceptions.HttpResponseException;
 import org.jboss.pnc.rex.common.exceptions.RequestRetryException;
 import org.jboss.pnc.rex.core.config.RequestRetryPolicy;
 import org.jboss.pnc.rex.core.config.InternalRetryPolicy;
+import org.jboss.pnc.rex.core.config.ConnectionPoolConfig;
 import org.jboss.pnc.rex.core.config.StatusCodeRetryPolicy;
 import org.jboss.pnc.rex.core.config.api.HttpConfiguration;
 import org.jboss.pnc.rex.model.Header;
@@ -48,6 +49,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import java.net.URI;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -60,25 +64,48 @@ public class GenericVertxHttpClient {
 
     private static final String CTX_RESPONSE_KEY = "response";
 
-    private final WebClient client;
+    private final Vertx vertx;
+    private final Meter meter;
+    private final Map<String, HostConnectionPool> pools = new ConcurrentHashMap<>();
     private final InternalRetryPolicy internalPolicy;
     private final HttpConfiguration configuration;
     private final RequestRetryPolicy requestRetryPolicy;
     private final StatusCodeRetryPolicy statusCodeRetryPolicy;
-    private final PNCClientAuth pncClientAuth;
+    private final AuthorizationHeaderCache authorization;
 
     public GenericVertxHttpClient(Vertx vertx,
                                   InternalRetryPolicy internalPolicy,
                                   HttpConfiguration configuration,
-            PNCClientAuth pncClientAuth) {
-        this.client = WebClient.create(vertx);
+                                  AuthorizationHeaderCache authorization,
+                                  OpenTelemetry openTelemetry) {
+        this.vertx = vertx;
+        this.meter = openTelemetry.getMeter("rex");
         this.internalPolicy = internalPolicy;
         this.configuration = configuration;
         this.requestRetryPolicy = configuration.requestRetryPolicy();
         this.statusCodeRetryPolicy = configuration.statusCodeRetryPolicy();
-        this.pncClientAuth = pncClientAuth;
-        WebClientInternal delegate = (WebClientInternal) client.getDelegate();
-        delegate.addInterceptor(this::putOrRefreshToken);
+        this.authorization = authorization;
+    }
+
+    /**
+     * Returns the connection pool of the remote host. Pools are created on first request to the host.
+     *
+     * @param remoteEndpoint URL on the host
+     * @return the pool
+     */
+    public HostConnectionPool getPool(URI remoteEndpoint) {
+        String host = remoteEndpoint.getHost() + ":" + getPort(remoteEndpoint);
+        return pools.computeIfAbsent(host, key -> {
+            ConnectionPoolConfig profile = configuration.hosts().get(key);
+            if (profile == null) {
+                profile = configuration.hosts().getOrDefault(remoteEndpoint.getHost(), configuration.pool());
+            }
+            log.debug("HTTP-CLIENT : Creating connection pool for {} (max-pool-size: {}, http2: {})",
+                    key,
+                    profile.maxPoolSize(),
+                    profile.http2());
+            return new HostConnectionPool(key, vertx, profile, meter, List.of(this::putOrRefreshToken));
+        });
     }
 
     /**
@@ -211,7 +238,8 @@ public class GenericVertxHttpClient {
                              Object requestBody,
                              Consumer<HttpResponse<Buffer>> onResponse,
                              Function<Throwable, Uni<Void>> onConnectionUnreachable) {
-        HttpRequest<Buffer> request = client.request(toVertxMethod(method),
+        HostConnectionPool pool = getPool(remoteEndpoint);
+        HttpRequest<Buffer> request = pool.getClient().request(toVertxMethod(method),
                 getPort(remoteEndpoint),
                 remoteEndpoint.getHost(),
                 getPath(remoteEndpoint));
@@ -226,10 +254,47 @@ public class GenericVertxHttpClient {
                 headers.toString(),
                 requestBody.toString());
 
+        // the outcome is registered in the circuit breaker of the host exactly once
+        boolean probe = pool.getBreaker().onRequest();
+        AtomicBoolean registered = new AtomicBoolean();
+        Consumer<HttpResponse<Buffer>> trackedOnResponse = response -> {
+            if (registered.compareAndSet(false, true)) {
+                pool.onResult(probe, response.statusCode() < 500);
+            }
+            onResponse.accept(response);
+        };
+        Function<Throwable, Uni<Void>> trackedOnConnectionUnreachable = throwable -> {
+            if (registered.compareAndSet(false, true)) {
+                pool.onResult(probe, false);
+            }
+            return onConnectionUnreachable.apply(throwable);
+        };
+
+        // a rejected token is refreshed and the request repeated once
+        Uni<HttpResponse<Buffer>> send = Uni.createFrom().deferred(() -> {
+            long sentAt = authorization.now();
+            return request.sendJson(requestBody)
+                    .flatMap(response -> {
+                        if (response.statusCode() != 401) {
+                            return Uni.createFrom().item(response);
+                        }
+                        // token endpoint can block, leave the event loop
+                        return Uni.createFrom().voidItem()
+                                .emitOn(Infrastructure.getDefaultWorkerPool())
+                                .invoke(() -> authorization.invalidate(sentAt))
+                                .chain(() -> request.sendJson(requestBody));
+                    });
+        });
+
         return handleRequest(
-                request.sendJson(requestBody),
-                onResponse,
-                onConnectionUnreachable);
+                send,
+                trackedOnResponse,
+                trackedOnConnectionUnreachable)
+            .onTermination().invoke(() -> {
+                if (registered.compareAndSet(false, true)) {
+                    pool.onRelease(probe);
+                }
+            });
     }
 
     private static String getPath(URI remoteEndpoint) {
@@ -259,7 +324,7 @@ public class GenericVertxHttpClient {
     }
 
     /**
-     * Interceptor that is called every request. Ensures that the accessToken is refreshed during retries.
+     * Interceptor that is called every request. Puts the cached Authorization header on the request, including retries.
      *
      * @link <a href="https://stackoverflow.com/questions/76985918/custom-interceptor-in-quarkus-mutiny-web-client">Stack Overflow</a>
      * @param context httpContext
@@ -268,7 +333,11 @@ public class GenericVertxHttpClient {
         try {
             if (context.phase() == ClientPhase.PREPARE_REQUEST) {
                 io.vertx.ext.web.client.HttpRequest<?> request = context.request();
-                request.putHeader(HttpHeaders.AUTHORIZATION, pncClientAuth.getHttpAuthorizationHeaderValue());
+                String header = authorization.get();
+                if (header != null) {
+                    // without a token yet the request gets 401 and is repeated after a synchronous refresh
+                    request.putHeader(HttpHeaders.AUTHORIZATION, header);
+                }
             }
         } finally {
             // go to next interceptor
@@ -0,0 +1,172 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker and in-flight limit of a single remote host.
+ *
+ * The circuit opens after a number of consecutive failed requests. While it is open, no Tasks are dispatched to the
+ * host and they stay ENQUEUED. After the open duration the circuit is half-open and lets a limited amount of probe
+ * requests through. A successful probe closes the circuit, a failed one opens it again.
+ */
+@Slf4j
+public class HostCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String host;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+    private final int maxInFlight;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private int inFlight;
+    private int probesInFlight;
+
+    public HostCircuitBreaker(String host,
+                              boolean enabled,
+                              int failureThreshold,
+                              long openMillis,
+                              int halfOpenProbes,
+                              int maxInFlight,
+                              LongSupplier clock) {
+        this.host = host;
+        this.enabled = enabled;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.maxInFlight = maxInFlight;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether another Task can be dispatched to the host.
+     *
+     * @param pending Tasks already picked for the host but not yet sent
+     * @return true if the Task can be dispatched
+     */
+    public synchronized boolean admits(int pending) {
+        if (maxInFlight >= 0 && inFlight + pending >= maxInFlight) {
+            return false;
+        }
+        return switch (currentState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> probesInFlight + pending < halfOpenProbes;
+        };
+    }
+
+    /**
+     * Registers a request sent to the host.
+     *
+     * @return true if the request is a probe of half-open circuit
+     */
+    public synchronized boolean onRequest() {
+        inFlight++;
+        if (currentState() == State.HALF_OPEN) {
+            probesInFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registers the outcome of a request.
+     *
+     * @param probe whether the request was a probe
+     * @param success false if the host was unreachable or responded with 5xx
+     * @return true if the circuit has opened
+     */
+    public synchronized boolean onResult(boolean probe, boolean success) {
+        release(probe);
+        if (!enabled) {
+            return false;
+        }
+
+        if (success) {
+            if (state != State.CLOSED) {
+                log.info("CIRCUIT {}: Host is reachable again. Closing circuit.", host);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            return false;
+        }
+
+        consecutiveFailures++;
+        if ((probe && state == State.HALF_OPEN) || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("CIRCUIT {}: {} consecutive failure(s). Opening circuit for {}ms.", host, consecutiveFailures, openMillis);
+            state = State.OPEN;
+            openUntil = clock.getAsLong() + openMillis;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registers a request that finished without an outcome.
+     *
+     * @param probe whether the request was a probe
+     */
+    public synchronized void onRelease(boolean probe) {
+        release(probe);
+    }
+
+    public synchronized State getState() {
+        return currentState();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return millis until the open circuit turns half-open (0 if not open)
+     */
+    public synchronized long getRemainingOpen() {
+        return currentState() == State.OPEN ? Math.max(0, openUntil - clock.getAsLong()) : 0;
+    }
+
+    private void release(boolean probe) {
+        inFlight = Math.max(0, inFlight - 1);
+        if (probe) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    private State currentState() {
+        if (state == State.OPEN && clock.getAsLong() >= openUntil) {
+            log.info("CIRCUIT {}: Circuit is half-open. Probing the host.", host);
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+        }
+        return state;
+    }
+}
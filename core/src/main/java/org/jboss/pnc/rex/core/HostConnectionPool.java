@@ -0,0 +1,282 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.client.impl.ClientPhase;
+import io.vertx.ext.web.client.impl.HttpContext;
+import io.vertx.ext.web.client.impl.WebClientInternal;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.ext.web.client.WebClient;
+import lombok.Getter;
+import org.jboss.pnc.rex.core.config.ConnectionPoolConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Web client with its own connection pool for a single remote host (host:port).
+ *
+ * Requests are tracked through phases of the client: a request is queued while the client acquires a connection for it
+ * and active from then until its response is dispatched. Acquisition starts once all other interceptors handled the
+ * creation of the request, so their time (f.e. fetching a token) is not counted as waiting for a connection. Time from
+ * sending the request over the connection until its response arrives is measured separately.
+ */
+public class HostConnectionPool {
+
+    private static final String CTX_STATE_KEY = "rex.pool.state";
+    private static final String CTX_QUEUED_AT_KEY = "rex.pool.queued-at";
+    private static final String CTX_SENT_AT_KEY = "rex.pool.sent-at";
+
+    @Getter
+    private final String host;
+
+    @Getter
+    private final WebClient client;
+
+    @Getter
+    private final HostCircuitBreaker breaker;
+
+    private final Vertx vertx;
+
+    /**
+     * Callbacks of dispatches held back by the breaker. Keyed to deduplicate (f.e. by queue).
+     */
+    private final Map<String, Runnable> whenAvailable = new HashMap<>();
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong waited = new AtomicLong();
+    private final DoubleHistogram waitTime;
+    private final DoubleHistogram exchangeTime;
+    private final Attributes attributes;
+
+    HostConnectionPool(String host,
+                       Vertx vertx,
+                       ConnectionPoolConfig config,
+                       Meter meter,
+                       List<Handler<HttpContext<?>>> interceptors) {
+        this.host = host;
+        this.vertx = vertx;
+        this.client = WebClient.create(vertx, toOptions(host, config));
+        this.breaker = new HostCircuitBreaker(host,
+                config.circuitBreaker().enabled(),
+                config.circuitBreaker().failureThreshold(),
+                config.circuitBreaker().openDuration().toMillis(),
+                config.circuitBreaker().halfOpenProbes(),
+                config.maxInFlight(),
+                System::currentTimeMillis);
+
+        // interceptors run in the order they were added: connection acquisition is observed right before the client
+        // starts it and right after it finished
+        WebClientInternal delegate = (WebClientInternal) client.getDelegate();
+        delegate.addInterceptor(this::trackConnected);
+        interceptors.forEach(delegate::addInterceptor);
+        delegate.addInterceptor(this::trackCreated);
+
+        this.attributes = Attributes.builder().put("host", host).build();
+        meter.gaugeBuilder("rex.http.client.pool.active")
+                .ofLongs()
+                .setDescription("Requests with an assigned connection")
+                .buildWithCallback(measurement -> measurement.record(active.get(), attributes));
+        meter.gaugeBuilder("rex.http.client.pool.queued")
+                .ofLongs()
+                .setDescription("Requests waiting for a connection")
+                .buildWithCallback(measurement -> measurement.record(queued.get(), attributes));
+        this.waitTime = meter.histogramBuilder("rex.http.client.pool.wait")
+                .setDescription("Time requests waited for a connection")
+                .setUnit("ms")
+                .build();
+        this.exchangeTime = meter.histogramBuilder("rex.http.client.pool.exchange")
+                .setDescription("Time from sending a request over its connection until its response arrived")
+                .setUnit("ms")
+                .build();
+    }
+
+    /**
+     * @return amount of requests with an assigned connection
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * @return amount of requests waiting for a connection
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return amount of requests that got a connection
+     */
+    public long getWaited() {
+        return waited.get();
+    }
+
+    /**
+     * Registers a callback run once when the host can accept Tasks again (a request finishes or the circuit turns
+     * half-open).
+     *
+     * @param key deduplication key, a later callback with the same key replaces the earlier one
+     * @param callback the callback
+     */
+    public void whenAvailable(String key, Runnable callback) {
+        synchronized (whenAvailable) {
+            whenAvailable.put(key, callback);
+        }
+    }
+
+    /**
+     * Registers the outcome of a request in the breaker.
+     *
+     * @param probe whether the request was a probe
+     * @param success false if the host was unreachable or responded with 5xx
+     */
+    void onResult(boolean probe, boolean success) {
+        if (breaker.onResult(probe, success)) {
+            long delay = Math.max(1, breaker.getRemainingOpen());
+            vertx.setTimer(delay, id -> notifyAvailable());
+        }
+        notifyAvailable();
+    }
+
+    /**
+     * Registers a request that finished without an outcome.
+     *
+     * @param probe whether the request was a probe
+     */
+    void onRelease(boolean probe) {
+        breaker.onRelease(probe);
+        notifyAvailable();
+    }
+
+    private void notifyAvailable() {
+        if (!breaker.admits(0)) {
+            return;
+        }
+
+        List<Runnable> callbacks;
+        synchronized (whenAvailable) {
+            if (whenAvailable.isEmpty()) {
+                return;
+            }
+            callbacks = new ArrayList<>(whenAvailable.values());
+            whenAvailable.clear();
+        }
+        callbacks.forEach(Runnable::run);
+    }
+
+    /**
+     * Runs after all other interceptors handled the phase, right before the client acts on it.
+     */
+    private void trackCreated(HttpContext<?> context) {
+        try {
+            if (context.phase() == ClientPhase.CREATE_REQUEST) {
+                // f.e. a redirect creates the request again
+                leave(context);
+                context.set(CTX_STATE_KEY, ClientPhase.CREATE_REQUEST);
+                context.set(CTX_QUEUED_AT_KEY, System.nanoTime());
+                queued.incrementAndGet();
+            }
+        } finally {
+            context.next();
+        }
+    }
+
+    /**
+     * Runs before all other interceptors, right after the client finished the previous phase.
+     */
+    private void trackConnected(HttpContext<?> context) {
+        try {
+            switch (context.phase()) {
+                case SEND_REQUEST -> {
+                    leave(context);
+                    long now = System.nanoTime();
+                    Long queuedAt = context.get(CTX_QUEUED_AT_KEY);
+                    if (queuedAt != null) {
+                        waited.incrementAndGet();
+                        waitTime.record(toMillis(now - queuedAt), attributes);
+                    }
+                    context.set(CTX_STATE_KEY, ClientPhase.SEND_REQUEST);
+                    context.set(CTX_SENT_AT_KEY, now);
+                    active.incrementAndGet();
+                }
+                case RECEIVE_RESPONSE -> {
+                    Long sentAt = context.get(CTX_SENT_AT_KEY);
+                    if (sentAt != null) {
+                        exchangeTime.record(toMillis(System.nanoTime() - sentAt), attributes);
+                        context.set(CTX_SENT_AT_KEY, null);
+                    }
+                }
+                case DISPATCH_RESPONSE, FAILURE -> leave(context);
+                default -> {}
+            }
+        } finally {
+            context.next();
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void leave(HttpContext<?> context) {
+        ClientPhase state = context.get(CTX_STATE_KEY);
+        if (state == ClientPhase.CREATE_REQUEST) {
+            queued.decrementAndGet();
+        } else if (state == ClientPhase.SEND_REQUEST) {
+            active.decrementAndGet();
+        }
+        context.set(CTX_STATE_KEY, null);
+    }
+
+    private static WebClientOptions toOptions(String host, ConnectionPoolConfig config) {
+        WebClientOptions options = new WebClientOptions()
+                .setMaxPoolSize(config.maxPoolSize())
+                .setMaxWaitQueueSize(config.maxWaitQueueSize())
+                .setKeepAlive(config.keepAlive())
+                .setKeepAliveTimeout((int) config.keepAliveTimeout().toSeconds())
+                .setConnectTimeout((int) config.connectTimeout().toMillis())
+                .setPipelining(config.pipelining())
+                .setPipeliningLimit(config.pipeliningLimit())
+                .setTcpNoDelay(config.tcpNoDelay())
+                .setTcpKeepAlive(config.tcpKeepAlive())
+                .setName("rex-" + host);
+
+        if (config.http2()) {
+            options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(true)
+                    .setHttp2ClearTextUpgrade(true)
+                    .setHttp2MaxPoolSize(config.http2MaxPoolSize())
+                    .setHttp2MultiplexingLimit(config.http2MultiplexingLimit())
+                    .setHttp2KeepAliveTimeout((int) config.keepAliveTimeout().toSeconds());
+        }
+        return options;
+    }
+}
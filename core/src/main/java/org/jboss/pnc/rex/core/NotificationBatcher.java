@@ -0,0 +1,328 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.vertx.core.json.JsonArray;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.pnc.rex.common.exceptions.RequestRetryException;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.NotificationConfig;
+import org.jboss.pnc.rex.model.Request;
+import org.jboss.pnc.rex.model.requests.NotificationRequest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.jboss.pnc.rex.common.util.LogUtils.truncate;
+
+/**
+ * Buffers notifications bound for the same endpoint and sends them as one request with an array body. Each
+ * notification is acknowledged separately so that the result maps back to the job that submitted it.
+ *
+ * The first notification of a batch schedules the batch to be sent after a short window. The batch is sent earlier
+ * once it reaches its maximal size. Batches are sent from Vert.x timers and never from the worker pool, whose threads
+ * wait for the acknowledgments; sending is non-blocking.
+ *
+ * A notification whose submitter stopped waiting for its acknowledgment is sent on its own by the submitter. It is
+ * left out of further attempts of its batch and a late acknowledgment of it is ignored.
+ *
+ * @see NotificationConfig.Batching
+ */
+@Slf4j
+@ApplicationScoped
+public class NotificationBatcher {
+
+    private final GenericVertxHttpClient client;
+
+    private final Vertx vertx;
+
+    private final NotificationConfig.Batching config;
+
+    private final int logMaxLength;
+
+    private final Map<String, Batch> batches = new HashMap<>();
+
+    public NotificationBatcher(GenericVertxHttpClient client, Vertx vertx, ApplicationConfig config) {
+        this.client = client;
+        this.vertx = vertx;
+        this.config = config.options().notifications().batching();
+        this.logMaxLength = config.options().notifications().logMaxLength();
+    }
+
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    /**
+     * Adds the notification to the batch of its endpoint.
+     *
+     * @param uri endpoint of the caller
+     * @param definition notification request definition of the Task
+     * @param notification notification to send
+     * @return acknowledgment of the notification
+     */
+    public CompletableFuture<Ack> submit(URI uri, Request definition, NotificationRequest notification) {
+        CompletableFuture<Ack> ack = new CompletableFuture<>();
+        String key = toKey(definition);
+
+        Batch toSend = null;
+        boolean schedule = false;
+        synchronized (batches) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                batch = new Batch(uri, definition);
+                batches.put(key, batch);
+                schedule = true;
+            }
+            batch.items.add(notification);
+            batch.acks.add(ack);
+
+            if (batch.items.size() >= config.maxSize()) {
+                batches.remove(key);
+                toSend = batch;
+            }
+        }
+
+        if (toSend != null) {
+            Batch full = toSend;
+            vertx.runOnContext(() -> send(full));
+        } else if (schedule) {
+            vertx.setTimer(Math.max(1, config.window().toMillis()), id -> flush(key));
+        }
+        return ack;
+    }
+
+    /**
+     * Adds the notification to the batch of its endpoint and waits for its acknowledgment at most for the configured
+     * timeout.
+     *
+     * @param uri endpoint of the caller
+     * @param definition notification request definition of the Task
+     * @param notification notification to send
+     * @return acknowledgment of the notification, {@link Ack#RETRY} if it did not arrive in time
+     */
+    public Ack submitAndAwait(URI uri, Request definition, NotificationRequest notification) {
+        CompletableFuture<Ack> ack = submit(uri, definition, notification);
+        try {
+            return ack.get(config.ackTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // completing the acknowledgment leaves the notification out of further attempts of the batch
+            if (!ack.complete(Ack.RETRY)) {
+                return ack.join();
+            }
+            log.warn("NOTIFICATION BATCH: No acknowledgment from {} in {}ms.",
+                    definition.getUrl(),
+                    config.ackTimeout().toMillis());
+            return Ack.RETRY;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ack.complete(Ack.RETRY) ? Ack.RETRY : ack.join();
+        } catch (ExecutionException e) {
+            log.warn("NOTIFICATION BATCH: Batch to {} failed.", definition.getUrl(), e.getCause());
+            return Ack.RETRY;
+        }
+    }
+
+    private void flush(String key) {
+        Batch batch;
+        synchronized (batches) {
+            batch = batches.remove(key);
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        Request definition = batch.definition;
+        log.debug("NOTIFICATION BATCH: Sending {} notifications to {}.", batch.items.size(), definition.getUrl());
+
+        try {
+            client.makeReactiveRequest(batch.uri,
+                            definition.getMethod(),
+                            definition.getHeaders(),
+                            batch,
+                            response -> handleResponse(response, batch),
+                            throwable -> onConnectionFailure(throwable, batch))
+                    .subscribe().with(
+                            ignored -> batch.completeRemaining(Ack.REJECTED),
+                            throwable -> batch.completeRemaining(Ack.REJECTED));
+        } catch (RuntimeException e) {
+            log.error("NOTIFICATION BATCH: Unexpected error while sending batch to {}.", definition.getUrl(), e);
+            batch.completeRemaining(Ack.REJECTED);
+        }
+    }
+
+    private void handleResponse(HttpResponse<Buffer> response, Batch batch) {
+        int status = response.statusCode();
+        if (200 <= status && status <= 299) {
+            Buffer body = response.body();
+            if (body == null || body.length() == 0) {
+                batch.completeRemaining(Ack.ACCEPTED);
+                return;
+            }
+
+            JsonArray codes;
+            try {
+                codes = body.toJsonArray();
+            } catch (RuntimeException e) {
+                log.warn("NOTIFICATION BATCH: Unreadable acknowledgment from {}. Sending notifications one by one. "
+                        + "RESPONSE: {}",
+                        batch.definition.getUrl(),
+                        truncate(response.bodyAsString(), logMaxLength));
+                batch.completeRemaining(Ack.RETRY);
+                return;
+            }
+            // acknowledgments map to the notifications of the attempt, completed ones are not overwritten
+            List<CompletableFuture<Ack>> sent = batch.sent();
+            for (int i = 0; i < sent.size(); i++) {
+                Object code = i < codes.size() ? codes.getValue(i) : null;
+                sent.get(i).complete(code instanceof Number number ? Ack.of(number.intValue()) : Ack.RETRY);
+            }
+        } else if (300 <= status && status <= 499) {
+            log.warn("NOTIFICATION BATCH: Failure while sending notifications to {}. RESPONSE: {}",
+                    batch.definition.getUrl(),
+                    truncate(response.bodyAsString(), logMaxLength));
+            batch.completeRemaining(Ack.REJECTED);
+        } else if (batch.isSettled()) {
+            log.warn("NOTIFICATION BATCH: System Failure while sending notifications to {}. No notification waits for "
+                    + "the batch anymore. RESPONSE: {}",
+                    batch.definition.getUrl(),
+                    truncate(response.bodyAsString(), logMaxLength));
+        } else {
+            // trigger retry of the whole batch
+            log.warn("NOTIFICATION BATCH: System Failure while sending notifications to {}. RESPONSE: {}",
+                    batch.definition.getUrl(),
+                    truncate(response.bodyAsString(), logMaxLength));
+            throw new RequestRetryException("Retrying");
+        }
+    }
+
+    private Uni<Void> onConnectionFailure(Throwable exception, Batch batch) {
+        log.error("NOTIFICATION BATCH: HTTP call to {} failed multiple times.", batch.definition.getUrl(), exception);
+        batch.completeRemaining(Ack.REJECTED);
+
+        return Uni.createFrom().voidItem();
+    }
+
+    private static String toKey(Request definition) {
+        String headers = definition.getHeaders() == null
+                ? ""
+                : definition.getHeaders().stream()
+                        .map(header -> header.getName() + ':' + header.getValue())
+                        .collect(Collectors.joining("\n"));
+        return definition.getMethod() + " " + definition.getUrl() + "\n" + headers;
+    }
+
+    /**
+     * Acknowledgment of a single notification of a batch.
+     */
+    public enum Ack {
+        /**
+         * The caller accepted the notification.
+         */
+        ACCEPTED,
+        /**
+         * The caller refused the notification.
+         */
+        REJECTED,
+        /**
+         * The caller could not process the notification, it should be sent again on its own.
+         */
+        RETRY;
+
+        static Ack of(int status) {
+            if (200 <= status && status <= 299) {
+                return ACCEPTED;
+            } else if (300 <= status && status <= 499) {
+                return REJECTED;
+            }
+            return RETRY;
+        }
+    }
+
+    private static class Batch {
+
+        private final URI uri;
+
+        private final Request definition;
+
+        private final List<NotificationRequest> items = new ArrayList<>();
+
+        private final List<CompletableFuture<Ack>> acks = new ArrayList<>();
+
+        private Batch(URI uri, Request definition) {
+            this.uri = uri;
+            this.definition = definition;
+        }
+
+        /**
+         * Acknowledgments of the notifications in the body of the last attempt.
+         */
+        private List<CompletableFuture<Ack>> sent = List.of();
+
+        private void completeRemaining(Ack ack) {
+            acks.forEach(future -> future.complete(ack));
+        }
+
+        /**
+         * Body of an attempt, serialized again for every attempt. Notifications whose acknowledgment is already
+         * completed are left out.
+         */
+        @JsonValue
+        synchronized List<NotificationRequest> body() {
+            List<NotificationRequest> body = new ArrayList<>();
+            List<CompletableFuture<Ack>> awaited = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (!acks.get(i).isDone()) {
+                    body.add(items.get(i));
+                    awaited.add(acks.get(i));
+                }
+            }
+            sent = awaited;
+            return body;
+        }
+
+        private synchronized List<CompletableFuture<Ack>> sent() {
+            return sent;
+        }
+
+        private boolean isSettled() {
+            return acks.stream().allMatch(CompletableFuture::isDone);
+        }
+
+        @Override
+        public String toString() {
+            return items.toString();
+        }
+    }
+}
@@ -0,0 +1,477 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.infinispan.client.Remote;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.Shutdown;
+import io.quarkus.runtime.Startup;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.common.exceptions.ConcurrentUpdateException;
+import org.jboss.pnc.rex.core.NotificationBatcher.Ack;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.NotificationConfig;
+import org.jboss.pnc.rex.core.jobs.NotifyCallerJob;
+import org.jboss.pnc.rex.model.NotificationOutbox;
+import org.jboss.pnc.rex.model.PendingNotification;
+import org.jboss.pnc.rex.model.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static jakarta.transaction.Transactional.TxType.MANDATORY;
+
+/**
+ * Delivers notifications from the durable outbox in 'rex-notifications'.
+ *
+ * A notification is appended to the outbox of its Task in the transaction of the transition, so it is never lost once
+ * the transition is committed. After the commit, a worker of the instance drains the outbox: notifications are
+ * delivered one by one in the order of the transitions and a notification is removed only after its delivery has
+ * finished. Jobs that depend on the result of a notification (f.e. signalling dependants after the final notification)
+ * are run after the delivery.
+ *
+ * Failed deliveries are retried with an exponential backoff. Later notifications of the same Task wait for the earlier
+ * ones. A notification that exhausts its attempts counts as failed.
+ *
+ * Each outbox is leased by the instance delivering it and the lease is renewed while a delivery is in flight. Outboxes
+ * whose lease expired (f.e. after a crash of the owner) are found by a periodic scan and taken over. Jobs depending on
+ * a notification are run only by the worker that removed it from the outbox.
+ */
+@Slf4j
+@ApplicationScoped
+public class NotificationOutboxDispatcher {
+
+    private final RemoteCache<String, NotificationOutbox> outboxes;
+
+    private final NotificationConfig.Outbox config;
+
+    private final String instance;
+
+    private final CallerNotificationClient client;
+
+    private final TaskControllerImpl controller;
+
+    private final ManagedExecutor executor;
+
+    private final TransactionSynchronizationRegistry tsr;
+
+    /**
+     * Outboxes waiting for a worker.
+     */
+    private final Set<String> ready = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Outboxes being drained by a worker of this instance. At most one worker drains an outbox.
+     */
+    private final Set<String> draining = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Outboxes waiting for a backoff to pass. The value is the time of the scheduled wake-up.
+     */
+    private final Map<String, Long> delayed = new ConcurrentHashMap<>();
+
+    private final Semaphore workers;
+
+    private Cancellable scan;
+
+    public NotificationOutboxDispatcher(@Remote("rex-notifications") RemoteCache<String, NotificationOutbox> outboxes,
+                                        ApplicationConfig appConfig,
+                                        CallerNotificationClient client,
+                                        TaskControllerImpl controller,
+                                        ManagedExecutor executor,
+                                        TransactionSynchronizationRegistry tsr) {
+        this.outboxes = outboxes;
+        this.config = appConfig.options().notifications().outbox();
+        this.instance = appConfig.name();
+        this.client = client;
+        this.controller = controller;
+        this.executor = executor;
+        this.tsr = tsr;
+        this.workers = new Semaphore(config.concurrency());
+    }
+
+    @Startup(ObserverMethod.DEFAULT_PRIORITY + 30) // after caches are started
+    void start() {
+        if (!config.enabled()) {
+            return;
+        }
+
+        scan = Multi.createFrom().ticks().every(config.scanInterval())
+                .onOverflow().drop()
+                .subscribe().with(
+                        tick -> scanAll(),
+                        e -> log.error("OUTBOX: Scan of notification outboxes stopped.", e));
+        scanAll();
+    }
+
+    @Shutdown
+    void stop() {
+        if (scan != null) {
+            scan.cancel();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    /**
+     * Appends the notification of the transition to the outbox of the Task. The notification is delivered after the
+     * transaction commits.
+     *
+     * @param task the Task after the transition
+     * @param transition the transition to notify about
+     */
+    @Transactional(MANDATORY)
+    public void append(Task task, Transition transition) {
+        String name = task.getName();
+        long now = System.currentTimeMillis();
+        MetadataValue<NotificationOutbox> meta = outboxes.getWithMetadata(name);
+
+        NotificationOutbox outbox;
+        boolean pushed;
+        if (meta == null) {
+            List<PendingNotification> pending = new ArrayList<>();
+            pending.add(toPending(0, transition, task));
+            outbox = NotificationOutbox.builder()
+                    .taskName(name)
+                    .owner(instance)
+                    .leaseUntil(now + config.leaseDuration().toMillis())
+                    .nextSequence(1)
+                    .pending(pending)
+                    .build();
+            pushed = outboxes.putIfAbsent(name, outbox) == null;
+        } else {
+            NotificationOutbox current = meta.getValue();
+            List<PendingNotification> pending = new ArrayList<>(current.getPending());
+            pending.add(toPending(current.getNextSequence(), transition, task));
+            var builder = current.toBuilder()
+                    .nextSequence(current.getNextSequence() + 1)
+                    .pending(pending);
+            if (current.isLeaseExpired(now)) {
+                // owner is gone
+                builder.owner(instance).leaseUntil(now + config.leaseDuration().toMillis());
+            }
+            outbox = builder.build();
+            pushed = outboxes.replaceWithVersion(name, outbox, meta.getVersion());
+        }
+
+        if (!pushed) {
+            log.error("OUTBOX {}: Concurrent update detected. Transaction will fail.", name);
+            throw new ConcurrentUpdateException("Notification outbox of Task " + name
+                    + " was remotely updated during the transaction");
+        }
+
+        if (instance.equals(outbox.getOwner())) {
+            tsr.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {}
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        wake(name);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes all outboxes.
+     */
+    @Transactional(MANDATORY)
+    public void clear() {
+        outboxes.clear();
+        ready.clear();
+        delayed.clear();
+    }
+
+    private static PendingNotification toPending(long sequence, Transition transition, Task task) {
+        return PendingNotification.builder()
+                .sequence(sequence)
+                .transition(transition)
+                .task(NotifyCallerJob.bestEffortCopy(task))
+                .attempts(0)
+                .notBefore(0)
+                .build();
+    }
+
+    private void wake(String name) {
+        ready.add(name);
+        dispatch();
+    }
+
+    private void wakeLater(String name, long delay) {
+        long due = System.currentTimeMillis() + delay;
+        Long pending = delayed.get(name);
+        if (pending != null && pending <= due) {
+            // an earlier wake-up is already scheduled
+            return;
+        }
+        delayed.put(name, due);
+
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            delayed.remove(name, due);
+            wake(name);
+        });
+    }
+
+    private void dispatch() {
+        for (String name : ready) {
+            if (!workers.tryAcquire()) {
+                // all workers are busy, a finishing worker dispatches again
+                return;
+            }
+            if (!draining.add(name)) {
+                workers.release();
+                continue;
+            }
+            ready.remove(name);
+
+            executor.execute(() -> {
+                try {
+                    drain(name);
+                } catch (RuntimeException e) {
+                    log.error("OUTBOX {}: Unexpected error while delivering notifications.", name, e);
+                    wakeLater(name, config.minDelay().toMillis());
+                } finally {
+                    draining.remove(name);
+                    workers.release();
+                    if (!ready.isEmpty()) {
+                        dispatch();
+                    }
+                }
+            });
+        }
+    }
+
+    private void drain(String name) {
+        int delivered = 0;
+        while (delivered < config.batchSize()) {
+            long now = System.currentTimeMillis();
+            MetadataValue<NotificationOutbox> meta = outboxes.getWithMetadata(name);
+            if (meta == null) {
+                return;
+            }
+
+            NotificationOutbox outbox = meta.getValue();
+            if (!outbox.isLeasedBy(instance, now) && !outbox.isLeaseExpired(now)) {
+                log.debug("OUTBOX {}: Delivered by {}.", name, outbox.getOwner());
+                return;
+            }
+
+            if (outbox.getPending().isEmpty()) {
+                if (write(name, null, meta.getVersion())) {
+                    return;
+                }
+                continue;
+            }
+
+            PendingNotification head = outbox.getPending().get(0);
+            if (head.getNotBefore() > now) {
+                wakeLater(name, head.getNotBefore() - now);
+                return;
+            }
+
+            long leaseMillis = config.leaseDuration().toMillis();
+            if (!instance.equals(outbox.getOwner()) || outbox.getLeaseUntil() - now < leaseMillis / 2) {
+                // take over or renew the lease before delivering
+                NotificationOutbox leased = outbox.toBuilder().owner(instance).leaseUntil(now + leaseMillis).build();
+                if (!write(name, leased, meta.getVersion())) {
+                    continue;
+                }
+                if (!instance.equals(outbox.getOwner())) {
+                    log.info("OUTBOX {}: Took over notifications from {}.", name, outbox.getOwner());
+                }
+                continue;
+            }
+
+            Ack ack = deliver(name, head);
+            int attempts = head.getAttempts() + 1;
+            if (ack == Ack.RETRY && attempts < config.maxAttempts()) {
+                long delay = backoff(attempts);
+                log.warn("OUTBOX {}: Delivery of {} notification failed (attempt {}/{}). Retrying in {}ms.",
+                        name,
+                        head.getTransition(),
+                        attempts,
+                        config.maxAttempts(),
+                        delay);
+                replaceHead(name, head, head.toBuilder().attempts(attempts).notBefore(now + delay).build());
+                continue;
+            }
+
+            if (!replaceHead(name, head, null)) {
+                // the lease was lost during the delivery and the new owner finished the notification
+                log.warn("OUTBOX {}: {} notification was already finished by another instance.",
+                        name,
+                        head.getTransition());
+                continue;
+            }
+            delivered++;
+
+            boolean success = ack == Ack.ACCEPTED;
+            if (!success) {
+                log.error("OUTBOX {}: Delivery of {} notification failed after {} attempts.",
+                        name,
+                        head.getTransition(),
+                        attempts);
+            }
+            controller.afterNotification(head.getTask(), head.getTransition(), success).run();
+        }
+
+        // let other outboxes go first
+        ready.add(name);
+    }
+
+    /**
+     * Delivers the notification. The lease of the outbox is renewed while the delivery is in flight, so that no other
+     * instance takes over and delivers the notification again.
+     *
+     * @param name name of the Task
+     * @param head the first notification
+     * @return result of the delivery
+     */
+    private Ack deliver(String name, PendingNotification head) {
+        Duration renewal = config.leaseDuration().dividedBy(2);
+        Cancellable renewing = Multi.createFrom().ticks().startingAfter(renewal).every(renewal)
+                .onOverflow().drop()
+                .subscribe().with(
+                        tick -> renewLease(name),
+                        e -> log.warn("OUTBOX {}: Renewal of the lease stopped.", name, e));
+        try {
+            return client.deliver(head.getTransition(), head.getTask());
+        } finally {
+            renewing.cancel();
+        }
+    }
+
+    private void renewLease(String name) {
+        while (true) {
+            long now = System.currentTimeMillis();
+            MetadataValue<NotificationOutbox> meta = outboxes.getWithMetadata(name);
+            if (meta == null || !meta.getValue().isLeasedBy(instance, now)) {
+                return;
+            }
+
+            NotificationOutbox renewed = meta.getValue().toBuilder()
+                    .leaseUntil(now + config.leaseDuration().toMillis())
+                    .build();
+            if (write(name, renewed, meta.getVersion())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the first notification of the outbox if it was not delivered in the meantime.
+     *
+     * @param name name of the Task
+     * @param head the first notification
+     * @param replacement new state of the notification; null removes the notification
+     * @return true if this call replaced the notification, false if it was already removed by someone else
+     */
+    private boolean replaceHead(String name, PendingNotification head, PendingNotification replacement) {
+        while (true) {
+            MetadataValue<NotificationOutbox> meta = outboxes.getWithMetadata(name);
+            if (meta == null
+                    || meta.getValue().getPending().isEmpty()
+                    || meta.getValue().getPending().get(0).getSequence() != head.getSequence()) {
+                return false;
+            }
+
+            NotificationOutbox outbox = meta.getValue();
+            List<PendingNotification> pending = new ArrayList<>(outbox.getPending());
+            NotificationOutbox updated;
+            if (replacement == null) {
+                pending.remove(0);
+                updated = pending.isEmpty() ? null : outbox.toBuilder().pending(pending).build();
+            } else {
+                pending.set(0, replacement);
+                // keep the lease while waiting for the backoff
+                long leaseUntil = Math.max(outbox.getLeaseUntil(),
+                        replacement.getNotBefore() + config.leaseDuration().toMillis());
+                updated = outbox.toBuilder().pending(pending).leaseUntil(leaseUntil).build();
+            }
+
+            if (write(name, updated, meta.getVersion())) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Writes the outbox if it was not modified since it was read.
+     *
+     * @param name name of the Task
+     * @param outbox new outbox; null removes the outbox
+     * @param version version of the outbox that was read
+     * @return true if the outbox was written
+     */
+    private boolean write(String name, NotificationOutbox outbox, long version) {
+        try {
+            return QuarkusTransaction.requiringNew().call(() -> outbox == null
+                    ? outboxes.removeWithVersion(name, version)
+                    : outboxes.replaceWithVersion(name, outbox, version));
+        } catch (RuntimeException e) {
+            log.debug("OUTBOX {}: Concurrent update of the outbox.", name, e);
+            return false;
+        }
+    }
+
+    private long backoff(int attempts) {
+        long delay = config.minDelay().toMillis() << Math.min(attempts - 1, 30);
+        return Math.min(delay, config.maxDelay().toMillis());
+    }
+
+    /**
+     * Wakes up delivery of outboxes of this instance and of outboxes without a live owner.
+     */
+    private void scanAll() {
+        try {
+            long now = System.currentTimeMillis();
+            try (var entries = outboxes.entrySet().stream()) {
+                entries.filter(entry -> entry.getValue().isLeasedBy(instance, now)
+                                || entry.getValue().isLeaseExpired(now))
+                        .forEach(entry -> ready.add(entry.getKey()));
+            }
+            dispatch();
+        } catch (RuntimeException e) {
+            log.error("OUTBOX: Scan of notification outboxes failed.", e);
+        }
+    }
+}
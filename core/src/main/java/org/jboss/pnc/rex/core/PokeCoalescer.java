@@ -0,0 +1,157 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.rex.core.api.QueueManager;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.PokeConfig;
+import org.jboss.pnc.rex.core.delegates.WithRetries;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges poke requests of this instance so that bursts of installs and finishing Tasks do not result in a poke
+ * transaction per request (each re-reading all counters and competing on the same running counter versions).
+ *
+ * The first request schedules a poke after a short window. Requests arriving in the window, or while the poke is
+ * running, are merged and result in at most one follow-up poke. The poke considers only queues of the merged requests
+ * unless some request asked for all queues, together with other queues of their hierarchy (space freed in one of them
+ * is shared by all). Queues dispatched by another instance are forwarded to it, see {@link QueueDispatcher}.
+ */
+@Slf4j
+@ApplicationScoped
+public class PokeCoalescer {
+
+    private final QueueManager manager;
+
+    private final ManagedExecutor executor;
+
+    private final PokeConfig config;
+
+    private final Object lock = new Object();
+
+    /**
+     * Queues requested since the last poke was started. DEFAULT queue is represented by null.
+     */
+    private final Set<String> pendingQueues = new HashSet<>();
+
+    private boolean pendingAll = false;
+
+    private boolean pending = false;
+
+    /**
+     * A poke is either waiting for its window to pass or running.
+     */
+    private boolean active = false;
+
+    private final QueueDispatcher dispatcher;
+
+    public PokeCoalescer(@WithRetries QueueManager manager,
+                         ManagedExecutor executor,
+                         ApplicationConfig config,
+                         QueueDispatcher dispatcher) {
+        this.manager = manager;
+        this.executor = executor;
+        this.config = config.options().poke();
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Requests a poke of the queues. The poke happens asynchronously.
+     *
+     * @param queues queues to poke; if null, all queues are poked
+     */
+    public void request(@Nullable Set<String> queues) {
+        if (!config.coalesce()) {
+            executor.execute(() -> poke(queues));
+            return;
+        }
+
+        synchronized (lock) {
+            pending = true;
+            if (queues == null) {
+                pendingAll = true;
+                pendingQueues.clear();
+            } else if (!pendingAll) {
+                pendingQueues.addAll(queues);
+            }
+
+            if (active) {
+                // merged into the scheduled or follow-up poke
+                return;
+            }
+            active = true;
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        long window = config.window().toMillis();
+        Executor delayed = window > 0
+                ? CompletableFuture.delayedExecutor(window, TimeUnit.MILLISECONDS, executor)
+                : executor;
+        delayed.execute(this::drain);
+    }
+
+    private void drain() {
+        Set<String> queues;
+        synchronized (lock) {
+            queues = pendingAll ? null : new HashSet<>(pendingQueues);
+            pendingQueues.clear();
+            pendingAll = false;
+            pending = false;
+        }
+
+        try {
+            poke(queues);
+        } finally {
+            boolean followUp;
+            synchronized (lock) {
+                followUp = pending;
+                active = followUp;
+            }
+            if (followUp) {
+                schedule();
+            }
+        }
+    }
+
+    private void poke(@Nullable Set<String> queues) {
+        try {
+            if (queues != null) {
+                queues = manager.getQueueTree().relativesOf(queues);
+            }
+            // queues dispatched by other instances are forwarded to them
+            Set<String> local = dispatcher.dispatchLocally(queues);
+            if (local != null && local.isEmpty()) {
+                return;
+            }
+            manager.poke(local);
+        } catch (RuntimeException e) {
+            log.error("QUEUE: Poke failed.", e);
+        }
+    }
+}
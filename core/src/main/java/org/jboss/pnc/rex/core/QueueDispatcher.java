@@ -0,0 +1,375 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.infinispan.client.Remote;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.Shutdown;
+import io.quarkus.runtime.Startup;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryCreated;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryModified;
+import org.infinispan.client.hotrod.annotation.ClientListener;
+import org.infinispan.client.hotrod.event.ClientCacheEntryCreatedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryModifiedEvent;
+import org.jboss.pnc.rex.common.enums.ResourceType;
+import org.jboss.pnc.rex.core.api.QueueManager;
+import org.jboss.pnc.rex.core.api.ResourceHolder;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.DispatcherConfig;
+import org.jboss.pnc.rex.core.delegates.WithRetries;
+import org.jboss.pnc.rex.model.NodeResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static jakarta.transaction.Transactional.TxType.MANDATORY;
+
+/**
+ * Per-queue dispatcher leadership. Only the instance holding the lease of a queue pokes that queue, other instances
+ * forward their poke requests to it. This way concurrent pokes of a queue do not compete on the versioned running
+ * counter across the cluster.
+ *
+ * Three kinds of entries are kept in 'rex-signals':
+ *  - lease: held by the dispatching instance, renewed periodically and stored with a lifespan so that a lease of a
+ *    crashed instance expires and gets acquired by another instance.
+ *  - poke: written by a non-dispatching instance; the lease holder reacts to the event by poking the queue.
+ *  - handover: a regular failover signal broadcast by {@link FailoverInitiator} on shutdown. The instance that takes it
+ *    over takes the lease over as well.
+ *
+ * Leases and pokes are live records and are ignored by {@link FailoverInitiator}.
+ */
+@ApplicationScoped
+public class QueueDispatcher implements ResourceHolder {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueDispatcher.class);
+
+    public static final String LEASE_PREFIX = "dispatcher-lease";
+
+    public static final String POKE_PREFIX = "dispatcher-poke";
+
+    public static final String HANDOVER_PREFIX = "dispatcher-handover";
+
+    private static final String DEFAULT_QUEUE_NAMING = "DEFAULT";
+
+    private final RemoteCache<String, NodeResource> signal;
+
+    private final DispatcherConfig config;
+
+    private final String instance;
+
+    private final QueueManager queueManager;
+
+    private final PokeCoalescer coalescer;
+
+    private final TransactionSynchronizationRegistry tsr;
+
+    /**
+     * Leases held by this instance. Keyed by lease key, the value is the local deadline of the lease.
+     */
+    private final Map<String, Instant> held = new ConcurrentHashMap<>();
+
+    private Cancellable renewal;
+
+    public QueueDispatcher(@Remote("rex-signals") RemoteCache<String, NodeResource> signal,
+                           ApplicationConfig appConfig,
+                           @WithRetries QueueManager queueManager,
+                           PokeCoalescer coalescer,
+                           TransactionSynchronizationRegistry tsr) {
+        this.signal = signal;
+        this.config = appConfig.options().dispatcher();
+        this.instance = appConfig.name();
+        this.queueManager = queueManager;
+        this.coalescer = coalescer;
+        this.tsr = tsr;
+    }
+
+    @Startup(ObserverMethod.DEFAULT_PRIORITY + 20) // after FailoverInitiator took available resources
+    void start() {
+        if (!config.enabled()) {
+            return;
+        }
+
+        signal.addClientListener(this.new PokeSignalListener());
+        renewal = Multi.createFrom().ticks().every(config.renewInterval())
+                .onOverflow().drop()
+                .subscribe().with(
+                        tick -> renewAll(),
+                        e -> log.error("DISPATCHER: Lease renewal stopped.", e));
+        renewAll();
+    }
+
+    @Shutdown
+    void stop() {
+        if (renewal != null) {
+            renewal.cancel();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.enabled();
+    }
+
+    /**
+     * Resolves which of the queues this instance dispatches. Poke requests of the remaining queues are forwarded to
+     * their dispatchers.
+     *
+     * @param queues requested queues; if null, all queues are requested
+     * @return queues to be poked locally; null if all queues were requested and all are dispatched locally
+     */
+    public Set<String> dispatchLocally(@Nullable Set<String> queues) {
+        if (!config.enabled()) {
+            return queues;
+        }
+
+        Set<String> requested = queues == null ? queueManager.getQueueNames() : queues;
+        Set<String> local = new HashSet<>();
+        for (String queue : requested) {
+            if (holdsLease(queue) || tryAcquire(queue)) {
+                local.add(queue);
+            } else {
+                forward(queue);
+            }
+        }
+
+        return queues == null && local.size() == requested.size() ? null : local;
+    }
+
+    /**
+     * Whether this instance currently dispatches the queue.
+     */
+    public boolean holdsLease(@Nullable String queue) {
+        Instant deadline = held.get(key(LEASE_PREFIX, queue));
+        return deadline != null && Instant.now().isBefore(deadline);
+    }
+
+    private boolean tryAcquire(@Nullable String queue) {
+        String leaseKey = key(LEASE_PREFIX, queue);
+        Instant deadline = Instant.now().plus(config.leaseDuration());
+        try {
+            boolean acquired = QuarkusTransaction.requiringNew().call(() -> {
+                MetadataValue<NodeResource> meta = signal.getWithMetadata(leaseKey);
+                if (meta == null) {
+                    return signal.putIfAbsent(leaseKey, lease(leaseKey), leaseMillis(), TimeUnit.MILLISECONDS) == null;
+                }
+                if (!instance.equals(meta.getValue().getOwnerNode())) {
+                    return false;
+                }
+                return signal.replaceWithVersion(leaseKey, lease(leaseKey), meta.getVersion(),
+                        leaseMillis(), TimeUnit.MILLISECONDS, 0, TimeUnit.MILLISECONDS);
+            });
+            if (acquired) {
+                if (held.put(leaseKey, deadline) == null) {
+                    log.info("DISPATCHER: Acquired lease of queue '{}'.", naming(queue));
+                }
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.debug("DISPATCHER: Could not acquire lease of queue '{}'. Another instance won.", naming(queue), e);
+        }
+
+        if (held.remove(leaseKey) != null) {
+            log.warn("DISPATCHER: Lost lease of queue '{}'.", naming(queue));
+        }
+        return false;
+    }
+
+    private void forward(@Nullable String queue) {
+        String pokeKey = key(POKE_PREFIX, queue);
+        try {
+            QuarkusTransaction.requiringNew().run(() -> signal.put(pokeKey,
+                    NodeResource.builder()
+                            .ownerNode(instance)
+                            .resourceId(pokeKey)
+                            .resourceType(ResourceType.QUEUE_DISPATCHER)
+                            .build(),
+                    leaseMillis(),
+                    TimeUnit.MILLISECONDS));
+            log.debug("DISPATCHER: Forwarded poke of queue '{}'.", naming(queue));
+        } catch (RuntimeException e) {
+            log.warn("DISPATCHER: Could not forward poke of queue '{}'.", naming(queue), e);
+        }
+    }
+
+    /**
+     * Renews held leases and acquires leases of queues without a dispatcher (f.e. after a crash of the previous
+     * holder). Newly acquired queues are poked.
+     */
+    private void renewAll() {
+        try {
+            Set<String> queues = new HashSet<>(queueManager.getQueueNames());
+            held.keySet().forEach(leaseKey -> queues.add(queueOf(LEASE_PREFIX, leaseKey)));
+
+            for (String queue : queues) {
+                boolean before = holdsLease(queue);
+                if (tryAcquire(queue) && !before) {
+                    coalescer.request(Collections.singleton(queue));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("DISPATCHER: Lease renewal failed.", e);
+        }
+    }
+
+    @Override
+    public List<NodeResource> getLocalResources() {
+        return held.keySet().stream()
+                .map(leaseKey -> handover(instance, leaseKey))
+                .toList();
+    }
+
+    @Override
+    public List<NodeResource> getOwnedResources(String instanceName) {
+        List<NodeResource> resources = new ArrayList<>();
+        try (var entries = signal.entrySet().stream()) {
+            entries.filter(entry -> entry.getKey().startsWith(LEASE_PREFIX))
+                    .filter(entry -> instanceName.equals(entry.getValue().getOwnerNode()))
+                    .forEach(entry -> resources.add(handover(instanceName, entry.getKey())));
+        }
+        return resources;
+    }
+
+    @Override
+    @Transactional(MANDATORY)
+    public void registerResourceLocally(NodeResource resource) {
+        if (!resource.getResourceType().equals(this.getResourceType())) {
+            // skip irrelevant resources
+            return;
+        }
+        String queue = queueOf(HANDOVER_PREFIX, resource.getResourceId());
+        String leaseKey = key(LEASE_PREFIX, queue);
+
+        MetadataValue<NodeResource> meta = signal.getWithMetadata(leaseKey);
+        if (meta != null && !resource.getOwnerNode().equals(meta.getValue().getOwnerNode())) {
+            log.info("DISPATCHER: Lease of queue '{}' was already acquired by {}.", naming(queue), meta.getValue().getOwnerNode());
+            return;
+        }
+
+        if (meta == null) {
+            signal.put(leaseKey, lease(leaseKey), leaseMillis(), TimeUnit.MILLISECONDS);
+        } else if (!signal.replaceWithVersion(leaseKey, lease(leaseKey), meta.getVersion(),
+                leaseMillis(), TimeUnit.MILLISECONDS, 0, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Lease of queue " + naming(queue) + " was modified concurrently");
+        }
+
+        Instant deadline = Instant.now().plus(config.leaseDuration());
+        tsr.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    held.put(leaseKey, deadline);
+                    log.info("DISPATCHER: Took over lease of queue '{}' from {}.", naming(queue), resource.getOwnerNode());
+                    coalescer.request(Collections.singleton(queue));
+                }
+            }
+        });
+    }
+
+    @Override
+    public ResourceType getResourceType() {
+        return ResourceType.QUEUE_DISPATCHER;
+    }
+
+    @Override
+    public boolean isLiveRecord(String key) {
+        return key.startsWith(LEASE_PREFIX) || key.startsWith(POKE_PREFIX);
+    }
+
+    @ClientListener
+    public class PokeSignalListener {
+
+        @ClientCacheEntryCreated
+        public void onCreated(ClientCacheEntryCreatedEvent<String> event) {
+            onPokeSignal(event.getKey());
+        }
+
+        @ClientCacheEntryModified
+        public void onModified(ClientCacheEntryModifiedEvent<String> event) {
+            onPokeSignal(event.getKey());
+        }
+
+        private void onPokeSignal(String key) {
+            if (!key.startsWith(POKE_PREFIX)) {
+                return;
+            }
+            String queue = queueOf(POKE_PREFIX, key);
+            if (holdsLease(queue)) {
+                log.debug("DISPATCHER: Received forwarded poke of queue '{}'.", naming(queue));
+                coalescer.request(Collections.singleton(queue));
+            }
+        }
+    }
+
+    private NodeResource lease(String leaseKey) {
+        return NodeResource.builder()
+                .ownerNode(instance)
+                .resourceId(leaseKey)
+                .resourceType(ResourceType.QUEUE_DISPATCHER)
+                .build();
+    }
+
+    private static NodeResource handover(String owner, String leaseKey) {
+        return NodeResource.builder()
+                .ownerNode(owner)
+                .resourceId(HANDOVER_PREFIX + leaseKey.substring(LEASE_PREFIX.length()))
+                .resourceType(ResourceType.QUEUE_DISPATCHER)
+                .build();
+    }
+
+    private long leaseMillis() {
+        return config.leaseDuration().toMillis();
+    }
+
+    /**
+     * DEFAULT queue is stored under the bare prefix, named queues under 'prefix:name'.
+     */
+    private static String key(String prefix, @Nullable String queue) {
+        return queue == null ? prefix : prefix + ':' + queue;
+    }
+
+    private static String queueOf(String prefix, String key) {
+        String rest = key.substring(prefix.length());
+        return rest.isEmpty() ? null : rest.substring(1);
+    }
+
+    private static String naming(@Nullable String queue) {
+        return queue == null ? DEFAULT_QUEUE_NAMING : queue;
+    }
+}
@@ -17,23 +17,41 @@
  */
 package org.jboss.pnc.rex.core;
 
+import io.quarkus.infinispan.client.Remote;
 import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
+import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.VersionedValue;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.exceptions.BadRequestException;
+import org.jboss.pnc.rex.common.exceptions.QueueMissingException;
 import org.jboss.pnc.rex.core.api.QueueManager;
 import org.jboss.pnc.rex.core.api.TaskController;
 import org.jboss.pnc.rex.core.api.TaskRegistry;
+import org.jboss.pnc.rex.core.common.Constants;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.DispatcherConfig.FairShare;
 import org.jboss.pnc.rex.core.counter.Counter;
 import org.jboss.pnc.rex.core.counter.MaxConcurrent;
 import org.jboss.pnc.rex.core.counter.Running;
 import org.jboss.pnc.rex.core.delegates.FaultToleranceDecorator;
+import org.jboss.pnc.rex.core.model.QueueTree;
+import org.jboss.pnc.rex.core.model.StartRate;
+import org.jboss.pnc.rex.core.utils.DeficitRoundRobin;
+import org.jboss.pnc.rex.model.QueueNode;
 import org.jboss.pnc.rex.model.Task;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.*;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
 
 import static jakarta.transaction.Transactional.TxType.MANDATORY;
@@ -44,33 +62,83 @@ import static java.util.stream.Collectors.groupingBy;
 public class QueueManagerImpl implements QueueManager {
 
     private static final String DEFAULT_QUEUE_NAMING = "DEFAULT";
+
+    /**
+     * Maximal number of ENQUEUED Tasks fetched per free slot when Tasks of unavailable hosts are skipped.
+     */
+    private static final long MAX_OVER_FETCH = 16;
     private final Counter max;
     private final Counter running;
     private final TaskRegistry container;
     private final TaskController controller;
     private final FaultToleranceDecorator ft;
+    private final PokeCoalescer coalescer;
+    private final FairShare fairShare;
+    private final RemoteCache<String, QueueNode> hierarchy;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final StartRateLimiter rateLimiter;
+    private final GenericVertxHttpClient httpClient;
+
+    private final TransactionSynchronizationRegistry tsr;
+
+    /**
+     * Fair-share state of each queue. Only the instance dispatching a queue uses it, so it is kept locally and starts
+     * afresh after the queue is handed over. A poke works on a copy which replaces the state only after the poke
+     * commits, so a rolled back (and retried) poke doesn't charge flows for Tasks it didn't start.
+     */
+    private final Map<String, DeficitRoundRobin<String>> rounds = new HashMap<>();
 
     public QueueManagerImpl(@MaxConcurrent Counter max,
                             @Running Counter running,
                             TaskRegistry container,
                             TaskController controller,
-                            FaultToleranceDecorator ft) {
+                            FaultToleranceDecorator ft,
+                            PokeCoalescer coalescer,
+                            ApplicationConfig appConfig,
+                            @Remote("rex-queues") RemoteCache<String, QueueNode> hierarchy,
+                            AdaptiveConcurrencyLimiter limiter,
+                            StartRateLimiter rateLimiter,
+                            GenericVertxHttpClient httpClient,
+                            TransactionSynchronizationRegistry tsr) {
         this.max = max;
         this.running = running;
         this.container = container;
         this.controller = controller;
         this.ft = ft;
+        this.coalescer = coalescer;
+        this.fairShare = appConfig.options().dispatcher().fairShare();
+        this.hierarchy = hierarchy;
+        this.limiter = limiter;
+        this.rateLimiter = rateLimiter;
+        this.httpClient = httpClient;
+        this.tsr = tsr;
     }
 
     @Override
     @Transactional
     public void poke() {
-        log.info("QUEUE: Poking Task queues");
-        Map<String, Long> maxEntries = max.entries();
+        poke(null);
+    }
+
+    @Override
+    @Transactional
+    public void poke(@Nullable Set<String> queues) {
+        if (queues == null) {
+            log.info("QUEUE: Poking Task queues");
+        } else {
+            log.info("QUEUE: Poking Task queues {}", queues.stream()
+                    .map(queue -> queue == null ? DEFAULT_QUEUE_NAMING : queue)
+                    .collect(Collectors.toList()));
+        }
+        // adaptive queues are limited by their effective maximum
+        Map<String, Long> maxEntries = limiter.effectiveMaximums(max.entries());
         Map<String, Long> runningEntries = running.entries();
 
         Set<String> consideredQueues = new HashSet<>();
         for (var queue : maxEntries.keySet()) {
+            if (queues != null && !queues.contains(queue)) {
+                continue;
+            }
             Long maxValue = maxEntries.get(queue);
             Long runningValue = runningEntries.get(queue);
 
@@ -84,13 +152,45 @@ public class QueueManagerImpl implements QueueManager {
             }
         }
 
+        QueueTree tree = getQueueTree();
+        // running values updated by this poke, for limits of parent queues
+        Map<String, Long> runningNow = new HashMap<>(runningEntries);
+        Set<String> fencedParents = new HashSet<>();
         for (var queue : consideredQueues) {
             Long maxValue = maxEntries.get(queue);
             VersionedValue<Long> runningMetadata = running.getMetadataValue(queue);
             Long runningValue = runningMetadata.getValue();
+            runningNow.put(queue, runningValue);
 
             long freeSpace = maxValue - runningValue;
-            List<Task> randomEnqueuedTasks = container.getEnqueuedTasksByQueueName(queue, freeSpace);
+            long allowance = tree.allowance(queue, maxEntries, runningNow);
+            if (allowance < freeSpace) {
+                log.debug("QUEUE '{}': Free space limited by parent queues {} to {}.",
+                        queue == null ? DEFAULT_QUEUE_NAMING : queue,
+                        tree.ancestorsOf(queue),
+                        allowance);
+                freeSpace = allowance;
+            }
+            if (freeSpace <= 0) {
+                continue;
+            }
+
+            StartRateLimiter.Permit permit = rateLimiter.permit(queue, freeSpace);
+            if (permit != null && permit.getGranted() < freeSpace) {
+                log.debug("QUEUE '{}': Free space limited by start rate to {}.",
+                        queue == null ? DEFAULT_QUEUE_NAMING : queue,
+                        permit.getGranted());
+                freeSpace = permit.getGranted();
+                if (freeSpace <= 0) {
+                    // tasks left behind are started once a token is refilled
+                    if (container.getTaskCount(queue, State.ENQUEUED) > 0) {
+                        rateLimiter.repokeWhenRefilled(permit, 0);
+                    }
+                    continue;
+                }
+            }
+
+            List<Task> randomEnqueuedTasks = selectTasks(queue, freeSpace);
             if (randomEnqueuedTasks.isEmpty()) {
                 continue;
             }
@@ -114,6 +214,21 @@ public class QueueManagerImpl implements QueueManager {
                 log.error("QUEUE '{}': Concurrent modification detected.", queue == null ? DEFAULT_QUEUE_NAMING : queue, e);
                 throw e;
             }
+            runningNow.put(queue, runningValue + randomEnqueuedTasks.size());
+
+            if (permit != null) {
+                rateLimiter.consume(permit, randomEnqueuedTasks.size());
+                if (randomEnqueuedTasks.size() == permit.getGranted()
+                        && container.getTaskCount(queue, State.ENQUEUED) > randomEnqueuedTasks.size()) {
+                    rateLimiter.repokeWhenRefilled(permit, randomEnqueuedTasks.size());
+                }
+            }
+
+            for (String parent : tree.ancestorsOf(queue)) {
+                if (fencedParents.add(parent)) {
+                    fenceParent(parent);
+                }
+            }
         }
     }
 
@@ -136,8 +251,13 @@ public class QueueManagerImpl implements QueueManager {
 
     @Override
     public void setMaximumConcurrency(@Nullable String name, Long amount) {
-        // we have to separate these 2 steps into distinct transactions because Counter#entries() doesnt return updated
-        // max Counter values in #poke()
+        long guaranteed = name == null ? 0 : getQueueTree().guaranteedBy(name);
+        if (amount < guaranteed) {
+            throw new BadRequestException("Queue " + name + " guarantees " + guaranteed
+                    + " running tasks to its children, maximum concurrency must not be lower.");
+        }
+        // the poke has to happen in a distinct transaction because Counter#entries() doesnt return updated max Counter
+        // values in #poke()
         ft.withTolerance(() -> QuarkusTransaction.requiringNew().run(() -> {
             VersionedValue<Long> maxMetadata = max.getMetadataValue(name);
             if (maxMetadata == null) {
@@ -145,10 +265,11 @@ public class QueueManagerImpl implements QueueManager {
             } else {
                 max.replaceValue(name, maxMetadata, amount);
             }
+            limiter.reset(name, amount);
 
         }));
 
-        ft.withTolerance(() -> QuarkusTransaction.requiringNew().run(this::poke));
+        coalescer.request(Collections.singleton(name));
     }
 
     @Override
@@ -157,16 +278,114 @@ public class QueueManagerImpl implements QueueManager {
         return meta == null ? null : meta.getValue();
     }
 
+    @Override
+    public Long getEffectiveConcurrency(@Nullable String name) {
+        return limiter.getEffectiveMaximum(name);
+    }
+
     @Override
     public Long getRunningCounter(@Nullable String name) {
         VersionedValue<Long> meta = running.getMetadataValue(name);
         return meta == null ? null : meta.getValue();
     }
 
+    @Override
+    public Set<String> getQueueNames() {
+        return max.entries().keySet();
+    }
+
+    @Override
+    public void setParent(@Nullable String name, String parent, long minShare) {
+        if (parent == null || parent.isBlank()) {
+            throw new BadRequestException("Parent queue name must not be blank.");
+        }
+        if (parent.equals(name)) {
+            throw new BadRequestException("Queue " + parent + " can't be its own parent.");
+        }
+        if (minShare < 0) {
+            throw new BadRequestException("Minimal share must not be negative.");
+        }
+        if (getMaximumConcurrency(name) == null) {
+            throw new QueueMissingException("Queue with name " + name + " not found.", name);
+        }
+        if (getMaximumConcurrency(parent) == null) {
+            throw new QueueMissingException("Queue with name " + parent + " not found.", parent);
+        }
+        QueueTree tree = getQueueTree();
+        if (tree.ancestorsOf(parent).contains(name)) {
+            throw new BadRequestException("Queue " + parent + " is a descendant of queue "
+                    + (name == null ? DEFAULT_QUEUE_NAMING : name) + ".");
+        }
+        // the current share of the queue is replaced if it is a child already
+        long guaranteed = tree.guaranteedBy(parent)
+                - (parent.equals(tree.parentOf(name)) ? tree.minShareOf(name) : 0)
+                + minShare;
+        if (guaranteed > getMaximumConcurrency(parent)) {
+            throw new BadRequestException("Minimal shares of children of queue " + parent + " would sum up to "
+                    + guaranteed + " which exceeds its maximum concurrency.");
+        }
+
+        QueueNode node = QueueNode.builder().name(name).parent(parent).minShare(minShare).build();
+        ft.withTolerance(() -> QuarkusTransaction.requiringNew().run(() -> hierarchy.put(resolveNodeKey(name), node)));
+
+        coalescer.request(Collections.singleton(name));
+    }
+
+    @Override
+    public void removeParent(@Nullable String name) {
+        String parent = getQueueTree().parentOf(name);
+        if (parent == null) {
+            return;
+        }
+
+        ft.withTolerance(() -> QuarkusTransaction.requiringNew().run(() -> hierarchy.remove(resolveNodeKey(name))));
+
+        // siblings may get the released guaranteed share; the queue itself is no longer bounded
+        coalescer.request(new HashSet<>(Arrays.asList(name, parent)));
+    }
+
+    @Override
+    public void setStartRate(@Nullable String name, long perSecond, long burst) {
+        if (perSecond < 1) {
+            throw new BadRequestException("Start rate must be at least 1 task per second.");
+        }
+        if (perSecond > StartRateLimiter.MAX_PER_SECOND) {
+            throw new BadRequestException("Start rate must be at most " + StartRateLimiter.MAX_PER_SECOND + " tasks per second.");
+        }
+        if (burst < 1) {
+            throw new BadRequestException("Burst must be at least 1 task.");
+        }
+        if (getMaximumConcurrency(name) == null) {
+            throw new QueueMissingException("Queue with name " + name + " not found.", name);
+        }
+
+        ft.withTolerance(() -> QuarkusTransaction.requiringNew().run(() -> rateLimiter.setStartRate(name, perSecond, burst)));
+
+        coalescer.request(Collections.singleton(name));
+    }
+
+    @Override
+    public void removeStartRate(@Nullable String name) {
+        ft.withTolerance(() -> QuarkusTransaction.requiringNew().run(() -> rateLimiter.removeStartRate(name)));
+
+        coalescer.request(Collections.singleton(name));
+    }
+
+    @Override
+    public StartRate getStartRate(@Nullable String name) {
+        return rateLimiter.getStartRate(name);
+    }
+
+    @Override
+    public QueueTree getQueueTree() {
+        return new QueueTree(new ArrayList<>(hierarchy.values()));
+    }
+
     @Override
     @Transactional(MANDATORY)
     public void synchronizeRunningCounter() {
-        Map<String, List<Task>> tasksByQueue = container.getTasks(false, false, true, false, false, null)
+        // the local state index may miss Tasks which would make the repaired counter too low
+        Map<String, List<Task>> tasksByQueue = container.queryTasks(false, false, true, false, false, null)
                 .stream()
                 .collect(groupingBy(Task::getQueue));
 
@@ -191,6 +410,166 @@ public class QueueManagerImpl implements QueueManager {
         }
     }
 
+    /**
+     * Selects ENQUEUED Tasks to start. Tasks whose remote host is not available (open circuit or in-flight limit
+     * reached) are skipped during the selection, so that they neither take slots from Tasks of healthy hosts nor are
+     * charged to their correlation in the fair share. They stay ENQUEUED and the queue is poked again once the host
+     * can accept Tasks.
+     */
+    private List<Task> selectTasks(@Nullable String queue, long freeSpace) {
+        HostAdmission admission = new HostAdmission(queue);
+        if (!fairShare.enabled()) {
+            return fetchAdmitted(freeSpace, limit -> container.getEnqueuedTasksByQueueName(queue, limit), admission);
+        }
+
+        Map<String, Long> backlog = container.getEnqueuedCountsByCorrelation(queue);
+        if (backlog.size() <= 1) {
+            // nothing to share
+            return fetchAdmitted(freeSpace, limit -> container.getEnqueuedTasksByQueueName(queue, limit), admission);
+        }
+
+        DeficitRoundRobin<String> base;
+        synchronized (rounds) {
+            base = rounds.computeIfAbsent(queue, q -> new DeficitRoundRobin<>(this::weightOf));
+        }
+        DeficitRoundRobin<String> round = base.copy();
+        applyOnCommit(queue, base, round);
+
+        List<Task> tasks = new ArrayList<>();
+        Map<String, Long> allotment = round.allot(backlog, freeSpace, (correlationID, slots) -> {
+            List<Task> admitted = fetchAdmitted(slots,
+                    limit -> container.getEnqueuedTasksByQueueAndCorrelation(queue, correlationID, limit),
+                    admission);
+            tasks.addAll(admitted);
+            return admitted.size();
+        });
+        log.debug("QUEUE '{}': Fair share of {} free slot(s) among correlations: {}",
+                queue == null ? DEFAULT_QUEUE_NAMING : queue,
+                freeSpace,
+                allotment);
+        return tasks;
+    }
+
+    /**
+     * Replaces the fair-share state of the queue once the transaction commits. The state is replaced only if no other
+     * poke replaced it in the meantime.
+     */
+    private void applyOnCommit(@Nullable String queue, DeficitRoundRobin<String> base, DeficitRoundRobin<String> round) {
+        Runnable apply = () -> {
+            synchronized (rounds) {
+                if (rounds.get(queue) == base) {
+                    rounds.put(queue, round);
+                }
+            }
+        };
+        if (tsr.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            apply.run();
+            return;
+        }
+        tsr.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    apply.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetches up to 'wanted' admitted Tasks in the order of the fetch function. If Tasks get held back, more Tasks are
+     * fetched (the limit doubles up to {@link #MAX_OVER_FETCH} times the wanted amount) to fill the slots.
+     */
+    private static List<Task> fetchAdmitted(long wanted, LongFunction<List<Task>> fetch, HostAdmission admission) {
+        List<Task> admitted = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        long limit = wanted;
+        while (true) {
+            List<Task> candidates = fetch.apply(limit);
+            for (Task task : candidates) {
+                if (admitted.size() == wanted) {
+                    return admitted;
+                }
+                if (seen.add(task.getName()) && admission.admit(task)) {
+                    admitted.add(task);
+                }
+            }
+            if (admitted.size() == wanted || candidates.size() < limit || limit >= wanted * MAX_OVER_FETCH) {
+                return admitted;
+            }
+            limit = Math.min(limit * 2, wanted * MAX_OVER_FETCH);
+        }
+    }
+
+    /**
+     * Admission of Tasks of a single poke of a queue by availability of their remote host.
+     */
+    private class HostAdmission {
+
+        private final String queue;
+
+        /**
+         * Tasks admitted in this poke per host, they are not in-flight yet.
+         */
+        private final Map<HostConnectionPool, Integer> picked = new HashMap<>();
+
+        private HostAdmission(@Nullable String queue) {
+            this.queue = queue;
+        }
+
+        private boolean admit(Task task) {
+            HostConnectionPool pool;
+            try {
+                pool = httpClient.getPool(new URI(task.getRemoteStart().getUrl()));
+            } catch (URISyntaxException | RuntimeException e) {
+                // invalid URLs fail on start as before
+                return true;
+            }
+
+            int pending = picked.getOrDefault(pool, 0);
+            if (pool.getBreaker().admits(pending)) {
+                picked.put(pool, pending + 1);
+                return true;
+            }
+
+            log.debug("QUEUE '{}': Host {} is not available ({}). Task {} stays ENQUEUED.",
+                    queue == null ? DEFAULT_QUEUE_NAMING : queue,
+                    pool.getHost(),
+                    pool.getBreaker().getState(),
+                    task.getName());
+            pool.whenAvailable(queue == null ? "" : queue, () -> coalescer.request(Collections.singleton(queue)));
+            return false;
+        }
+    }
+
+    private int weightOf(@Nullable String correlationID) {
+        if (correlationID == null) {
+            return fairShare.defaultWeight();
+        }
+        return fairShare.weights().getOrDefault(correlationID, fairShare.defaultWeight());
+    }
+
+    /**
+     * Re-writes the maximum counter of a parent queue with an increased version. Concurrent pokes of queues in the same
+     * hierarchy (f.e. dispatched by other instances) then conflict and are retried with up-to-date running counters
+     * instead of breaching the limit of the parent together.
+     */
+    private void fenceParent(String parent) {
+        VersionedValue<Long> maxMetadata = max.getMetadataValue(parent);
+        if (maxMetadata != null && !max.replaceValue(parent, maxMetadata, maxMetadata.getValue())) {
+            RuntimeException e = new ConcurrentModificationException("Maximum counter of parent queue was modified concurrently.");
+            log.error("QUEUE '{}': Concurrent modification detected.", parent, e);
+            throw e;
+        }
+    }
+
+    private static String resolveNodeKey(@Nullable String name) {
+        return name == null ? Constants.QUEUE_NODE_KEY : Constants.QUEUE_NODE_KEY + Constants.NAME_SEPARATOR + name;
+    }
+
     private void initializeNamedQueue(String name, Long amount) {
         max.initialize(name, amount);
         running.initialize(name, 0L);
@@ -50,6 +50,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
@@ -80,11 +81,15 @@ public class RemoteEntityClient {
 
     private final String baseUrl;
 
+    private final AdaptiveConcurrencyLimiter limiter;
+
     public RemoteEntityClient(GenericVertxHttpClient client,
                               @WithTransactions TaskController controller,
                               TaskRegistry taskRegistry,
                               ObjectMapper mapper,
-                              ApplicationConfig config) {
+                              ApplicationConfig config,
+                              AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
         this.controller = controller;
         this.taskRegistry = taskRegistry;
         this.client = client;
@@ -204,12 +209,26 @@ public class RemoteEntityClient {
                 .mdc(getOptionalMDCAndOTELValues(task))
                 .build();
 
+        // responses to start requests drive adaptive concurrency of the queue; the response consumer is retried if
+        // handling fails, the sample has to be recorded only once
+        long sentAt = System.nanoTime();
+        AtomicBoolean sampled = new AtomicBoolean();
         client.makeRequest(uri,
                 requestDefinition.getMethod(),
                 requestDefinition.getHeaders(),
                 request,
-                response -> handleResponse(response, task, false),
-                throwable -> handleConnectionFailure(throwable, task, false));
+                response -> {
+                    if (sampled.compareAndSet(false, true)) {
+                        limiter.onResponse(task.getQueue(), response.statusCode(), Duration.ofNanos(System.nanoTime() - sentAt));
+                    }
+                    handleResponse(response, task, false);
+                },
+                throwable -> {
+                    if (sampled.compareAndSet(false, true)) {
+                        limiter.onConnectionFailure(task.getQueue());
+                    }
+                    return handleConnectionFailure(throwable, task, false);
+                });
     }
 
     private HeartbeatConfig getHeartbeatConfig(Task task) {
@@ -0,0 +1,220 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.infinispan.client.Remote;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.VersionedValue;
+import org.jboss.pnc.rex.core.common.Constants;
+import org.jboss.pnc.rex.core.model.StartRate;
+
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many Tasks of a queue can start per second, independently of its concurrency.
+ *
+ * The limit is a token bucket shared by the cluster. It is stored in the 'rex-counter' cache in its GCRA form, so the
+ * whole state of the bucket is a single value, the theoretical arrival time (TAT): the time by which all granted
+ * tokens would have been refilled. A start is permitted if TAT minus the burst tolerance is not in the future. Updates
+ * of TAT are versioned, so concurrent pokes of the queue conflict like on running counters.
+ */
+@Slf4j
+@ApplicationScoped
+public class StartRateLimiter {
+
+    private static final String DEFAULT_QUEUE_NAMING = "DEFAULT";
+
+    private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+
+    /**
+     * Highest rate the bucket can represent; tokens are refilled at least a microsecond apart.
+     */
+    public static final long MAX_PER_SECOND = MICROS_PER_SECOND;
+
+    private final RemoteCache<String, Long> counters;
+
+    private final PokeCoalescer coalescer;
+
+    private final ManagedExecutor executor;
+
+    /**
+     * Due times (epoch millis) of scheduled re-pokes. DEFAULT queue is keyed by an empty string (named queues can't
+     * be blank).
+     */
+    private final Map<String, Long> repokes = new ConcurrentHashMap<>();
+
+    public StartRateLimiter(@Remote("rex-counter") RemoteCache<String, Long> counters,
+                            PokeCoalescer coalescer,
+                            ManagedExecutor executor) {
+        this.counters = counters;
+        this.coalescer = coalescer;
+        this.executor = executor;
+    }
+
+    @Nullable
+    public StartRate getStartRate(@Nullable String queue) {
+        Long perSecond = counters.get(resolveKey(Constants.START_RATE_KEY, queue));
+        if (perSecond == null) {
+            return null;
+        }
+        Long burst = counters.get(resolveKey(Constants.START_BURST_KEY, queue));
+        return new StartRate(perSecond, burst == null ? perSecond : burst);
+    }
+
+    public void setStartRate(@Nullable String queue, long perSecond, long burst) {
+        counters.put(resolveKey(Constants.START_RATE_KEY, queue), perSecond);
+        counters.put(resolveKey(Constants.START_BURST_KEY, queue), burst);
+        counters.putIfAbsent(resolveKey(Constants.START_TAT_KEY, queue), 0L);
+    }
+
+    public void removeStartRate(@Nullable String queue) {
+        counters.remove(resolveKey(Constants.START_RATE_KEY, queue));
+        counters.remove(resolveKey(Constants.START_BURST_KEY, queue));
+        counters.remove(resolveKey(Constants.START_TAT_KEY, queue));
+    }
+
+    /**
+     * Computes how many of the wanted Tasks can start now.
+     *
+     * @param queue the queue
+     * @param wanted amount of Tasks that would start without the limit
+     * @return the permit or null if the queue is not rate limited
+     */
+    @Nullable
+    public Permit permit(@Nullable String queue, long wanted) {
+        StartRate rate = getStartRate(queue);
+        if (rate == null) {
+            return null;
+        }
+
+        // stored rates are validated, the floor only guards against values written around the validation
+        long interval = Math.max(1, MICROS_PER_SECOND / Math.max(1, rate.getPerSecond()));
+        long tolerance = interval * (Math.max(1, rate.getBurst()) - 1);
+        long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+        VersionedValue<Long> stored = counters.getWithMetadata(resolveKey(Constants.START_TAT_KEY, queue));
+        long tat = Math.max(stored == null ? now : stored.getValue(), now);
+        long granted = now + tolerance >= tat ? Math.min(wanted, (now + tolerance - tat) / interval + 1) : 0;
+
+        return new Permit(queue, granted, interval, tolerance, tat, now, stored);
+    }
+
+    /**
+     * Takes tokens of started Tasks from the bucket.
+     *
+     * @param permit permit the Tasks were started with
+     * @param started amount of started Tasks
+     * @throws ConcurrentModificationException if the bucket was modified concurrently
+     */
+    public void consume(Permit permit, long started) {
+        if (started == 0) {
+            return;
+        }
+
+        String key = resolveKey(Constants.START_TAT_KEY, permit.getQueue());
+        long tat = permit.getTat() + started * permit.getInterval();
+        if (permit.getStored() == null) {
+            counters.put(key, tat);
+        } else if (!counters.replaceWithVersion(key, tat, permit.getStored().getVersion())) {
+            RuntimeException e = new ConcurrentModificationException("Start-rate bucket was modified concurrently.");
+            log.error("QUEUE '{}': Concurrent modification detected.", queueName(permit.getQueue()), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Schedules a poke of the queue for the time the next token is refilled after the Tasks were started.
+     *
+     * @param permit permit the Tasks were started with
+     * @param started amount of started Tasks
+     */
+    public void repokeWhenRefilled(Permit permit, long started) {
+        long tat = permit.getTat() + started * permit.getInterval();
+        long delay = Math.max(1, TimeUnit.MICROSECONDS.toMillis(tat - permit.getTolerance() - permit.getNow()));
+        long due = System.currentTimeMillis() + delay;
+
+        String key = permit.getQueue() == null ? "" : permit.getQueue();
+        Long pending = repokes.get(key);
+        if (pending != null && pending <= due) {
+            // an earlier re-poke is already scheduled
+            return;
+        }
+        repokes.put(key, due);
+
+        log.debug("QUEUE '{}': Start rate reached. Poking again in {}ms.", queueName(permit.getQueue()), delay);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            repokes.remove(key, due);
+            coalescer.request(Collections.singleton(permit.getQueue()));
+        });
+    }
+
+    private static String resolveKey(String prefix, @Nullable String queue) {
+        if (queue == null) {
+            return prefix;
+        } else if (queue.isBlank()) {
+            throw new IllegalArgumentException("Counter key must not be blank");
+        }
+        return prefix + Constants.NAME_SEPARATOR + queue;
+    }
+
+    private static String queueName(@Nullable String queue) {
+        return queue == null ? DEFAULT_QUEUE_NAMING : queue;
+    }
+
+    /**
+     * Tokens available to a single poke of a queue.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Permit {
+
+        private final String queue;
+
+        /**
+         * Amount of Tasks that can start now.
+         */
+        private final long granted;
+
+        /**
+         * Micros between two tokens.
+         */
+        private final long interval;
+
+        /**
+         * Micros the TAT can be ahead of time (burst - 1 tokens).
+         */
+        private final long tolerance;
+
+        private final long tat;
+
+        private final long now;
+
+        private final VersionedValue<Long> stored;
+    }
+}
@@ -30,7 +30,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.infinispan.client.hotrod.VersionedValue;
-import org.infinispan.commons.api.query.Query;
 import org.jboss.pnc.rex.common.enums.State;
 import org.jboss.pnc.rex.common.exceptions.BadRequestException;
 import org.jboss.pnc.rex.common.exceptions.CircularDependencyException;
@@ -43,13 +42,19 @@ import org.jboss.pnc.rex.common.exceptions.TaskMissingException;
 import org.jboss.pnc.rex.common.enums.Mode;
 import org.jboss.pnc.rex.core.api.TaskTarget;
 import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.NearCacheConfig;
+import org.jboss.pnc.rex.core.infinispan.NearCache;
+import org.jboss.pnc.rex.core.infinispan.TaskQueries;
 import org.jboss.pnc.rex.core.jobs.ControllerJob;
 import org.jboss.pnc.rex.core.jobs.PokeQueueJob;
 import org.jboss.pnc.rex.core.mapper.InitialTaskMapper;
+import org.jboss.pnc.rex.core.mapper.MiniTaskMapper;
 import org.jboss.pnc.rex.core.model.Edge;
 import org.jboss.pnc.rex.core.model.InitialTask;
 import org.jboss.pnc.rex.core.model.TaskGraph;
+import org.jboss.pnc.rex.core.utils.CriticalPath;
 import org.jboss.pnc.rex.model.Configuration;
+import org.jboss.pnc.rex.model.Request;
 import org.jboss.pnc.rex.model.ServerResponse;
 import org.jboss.pnc.rex.model.Task;
 
@@ -58,12 +63,15 @@ import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.TransactionManager;
 import jakarta.transaction.Transactional;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -81,6 +89,14 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
 
     private final RemoteCache<String, Task> tasks;
 
+    private final NearCache<String, Task> nearTasks;
+
+    private final TaskStateIndex stateIndex;
+
+    private final CorrelationTracker correlations;
+
+    private final TaskQueries queries;
+
     private final RemoteCache<String, String> constraints;
 
     private final TaskController controller;
@@ -89,25 +105,64 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
 
     private final Event<ControllerJob> jobEvent;
 
+    private final ChangeSequencer sequencer;
+
     @Inject
     public TaskContainerImpl(ApplicationConfig appConfig,
                              TaskController controller,
                              InitialTaskMapper initialMapper,
                              @Remote("rex-constraints") RemoteCache<String, String> constraints,
                              @Remote("rex-tasks") RemoteCache<String, Task> tasks,
-                             Event<ControllerJob> jobEvent) {
+                             TaskStateIndex stateIndex,
+                             CorrelationTracker correlations,
+                             Event<ControllerJob> jobEvent,
+                             ChangeSequencer sequencer) {
         this.appConfig = appConfig;
         this.controller = controller;
         this.initialMapper = initialMapper;
         this.jobEvent = jobEvent;
         this.constraints = constraints;
         this.tasks = tasks;
+        this.stateIndex = stateIndex;
+        this.correlations = correlations;
+        this.sequencer = sequencer;
+        this.queries = new TaskQueries(tasks);
+
+        NearCacheConfig nearCacheConfig = appConfig.options().nearCache();
+        this.nearTasks = new NearCache<>(tasks, nearCacheConfig.enabled(), nearCacheConfig.tasksMaxEntries());
     }
 
     public Task getTask(String task) {
         return tasks.get(task);
     }
 
+    @Override
+    public Task getCachedTask(String task) {
+        return nearTasks.get(task);
+    }
+
+    /**
+     * Propagates a Task write done in the current transaction to node-local near-cache and state index. Has to be
+     * called on every write so that subsequent reads on this instance observe the change without waiting for the
+     * server event.
+     *
+     * @param task the saved task
+     */
+    public void propagateUpdate(Task task) {
+        nearTasks.invalidateOnCompletion(task.getName());
+        stateIndex.updateOnCommit(task);
+    }
+
+    /**
+     * Same as {@link #propagateUpdate(Task)} but for a removed Task.
+     *
+     * @param task the task name
+     */
+    public void propagateRemoval(String task) {
+        nearTasks.invalidateOnCompletion(task);
+        stateIndex.removeOnCommit(task);
+    }
+
     public Task getRequiredTask(String task) throws TaskMissingException {
         Task s = getCache().get(task);
         if (s == null) {
@@ -125,6 +180,8 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
     public void removeAllTasks() {
         tasks.clear();
         constraints.clear();
+        nearTasks.invalidateAll();
+        stateIndex.clearOnCommit();
     }
 
     public TransactionManager getTransactionManager() {
@@ -143,6 +200,7 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
         return appConfig.name();
     }
 
+    @Override
     public VersionedValue<Task> getWithMetadata(String name) {
         return tasks.getWithMetadata(name);
     }
@@ -161,7 +219,42 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
         if (!waiting && !running && !finished && !queued && !rollingback)
             return Collections.emptyList();
 
-        List<State> states = new ArrayList<>();
+        Set<State> states = toStates(waiting, queued, running, finished, rollingback);
+
+        if (stateIndex.isReady()) {
+            // the index is eventually consistent, re-validate fetched Tasks
+            return tasks.getAll(stateIndex.getNames(states, queueFilter)).values().stream()
+                    .filter(task -> states.contains(task.getState()))
+                    .filter(task -> queueFilter == null || queueFilter.isEmpty() || queueFilter.contains(task.getQueue()))
+                    .collect(Collectors.toList());
+        }
+
+        return queries.byStates(states, queueFilter).execute().list();
+    }
+
+    @Override
+    public List<Task> queryTasks(boolean waiting, boolean queued, boolean running, boolean finished, boolean rollingback, List<String> queueFilter) {
+        if (!waiting && !running && !finished && !queued && !rollingback)
+            return Collections.emptyList();
+
+        return queries.byStates(toStates(waiting, queued, running, finished, rollingback), queueFilter).execute().list();
+    }
+
+    @Override
+    public List<Task> getTasksChangedSince(long changedSince, boolean waiting, boolean queued, boolean running, boolean finished, boolean rollingback, List<String> queueFilter, int limit) {
+        Set<State> states = !waiting && !running && !finished && !queued && !rollingback
+                ? null
+                : toStates(waiting, queued, running, finished, rollingback);
+
+        // changes above the safe cursor may still be preceded by changes that are not visible yet
+        return queries.changedSince(changedSince, sequencer.safeCursor(), states, queueFilter)
+                .maxResults(limit)
+                .execute()
+                .list();
+    }
+
+    private static Set<State> toStates(boolean waiting, boolean queued, boolean running, boolean finished, boolean rollingback) {
+        Set<State> states = EnumSet.noneOf(State.class);
         if (waiting) {
             states.addAll(EnumSet.allOf(State.class).stream()
                     .filter(state -> state.isIdle() || state.isQueued())
@@ -190,25 +283,7 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
                     .filter(State::isRollback)
                     .collect(Collectors.toSet()));
         }
-
-        // reduce to 'NEW','WAITING'.... format
-        String filter = states.stream()
-                .map(state -> "'" + state.toString() + "'")
-                .reduce((first, second) -> first + ',' + second)
-                .get();
-
-        String queueClause = "";
-        if (queueFilter != null && !queueFilter.isEmpty()) {
-            queueClause += " AND (";
-            queueClause += queueFilter.stream()
-                    .map(queue -> queue == null ? "queue IS NULL" : "queue = '" + queue + "'")
-                    .collect(Collectors.joining(" OR "));
-            queueClause += ")";
-        }
-
-        Query<Task> query = tasks.query("FROM rex_model.Task WHERE state IN (" + filter + ")" + queueClause);
-
-        return query.execute().list();
+        return states;
     }
 
     public Map<String, Object> getTaskResults(Task task) {
@@ -237,33 +312,87 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
 
     @Override
     public List<Task> getEnqueuedTasks(long limit) {
-        Query<Task> query = tasks.query("FROM rex_model.Task WHERE state = '" + State.ENQUEUED + "'");
-        return query.maxResults((int) limit).list();
+        return queries.enqueued().maxResults((int) limit).list();
     }
 
     @Override
     public List<Task> getEnqueuedTasksByQueueName(String queue, long limit) {
-        Query<Task> query;
-        if (queue == null) {
-            query = tasks.query("FROM rex_model.Task WHERE state = '" + State.ENQUEUED + "' AND queue IS NULL");
-        } else {
-            query = tasks.query("FROM rex_model.Task WHERE state = '" + State.ENQUEUED + "' AND queue = :queueName");
-            query.setParameter("queueName", queue);
+        // sorted by the server-side index; the local state index may lag behind enqueues done by other instances
+        return queries.byStateAndQueueInDispatchOrder(State.ENQUEUED, queue, appConfig.options().dispatcher().criticalPath()).maxResults((int) limit).list();
+    }
+
+    @Override
+    public List<Task> getEnqueuedTasksByQueueAndCorrelation(String queue, String correlationID, long limit) {
+        return queries.byStateQueueAndCorrelationInDispatchOrder(State.ENQUEUED, queue, correlationID, appConfig.options().dispatcher().criticalPath())
+                .maxResults((int) limit)
+                .list();
+    }
+
+    @Override
+    public Map<String, Long> getEnqueuedCountsByCorrelation(String queue) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : queries.backlogByCorrelation(State.ENQUEUED, queue).execute().list()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
         }
-        return query.maxResults((int) limit).list();
+        return counts;
     }
 
     @Override
     public List<Task> getTasksByCorrelationID(String correlationID) {
-        Query<Task> taskQuery = tasks.query("FROM rex_model.Task WHERE correlationID = :correlationID");
-        taskQuery.setParameter("correlationID", correlationID);
-        return taskQuery.execute().list();
+        return queries.byCorrelationID(correlationID).execute().list();
+    }
+
+    @Override
+    public long getTaskCount(String queue, State state) {
+        if (stateIndex.isReady()) {
+            return stateIndex.count(queue, state);
+        }
+
+        return queries.byStateAndQueue(state, queue).maxResults(1).execute().count().value();
+    }
+
+    @Override
+    public Map<String, Map<State, Long>> getTaskCounts() {
+        if (stateIndex.isReady()) {
+            return stateIndex.counts();
+        }
+
+        Map<String, Map<State, Long>> counts = new HashMap<>();
+        for (Object[] row : queries.countByQueueAndState().execute().list()) {
+            State state = row[1] instanceof State s ? s : State.valueOf(row[1].toString());
+            counts.computeIfAbsent((String) row[0], q -> new EnumMap<>(State.class)).put(state, ((Number) row[2]).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Instant> getOldestEnqueuedTimes() {
+        Map<String, Instant> oldest = new HashMap<>();
+        if (stateIndex.isReady()) {
+            for (String queue : stateIndex.counts().keySet()) {
+                stateIndex.oldest(queue, State.ENQUEUED)
+                        .ifPresent(view -> oldest.put(queue, Instant.ofEpochMilli(view.getStateChangedAt())));
+            }
+            return oldest;
+        }
+
+        for (Object[] row : queries.oldestByQueue(State.ENQUEUED).execute().list()) {
+            oldest.put((String) row[0], Instant.ofEpochMilli(((Number) row[1]).longValue()));
+        }
+        return oldest;
     }
 
     @Override
     public List<Task> getMarkedTasksWithoutDependants() {
-        Query<Task> taskQuery = tasks.query("FROM rex_model.Task WHERE disposable = true AND dependants IS NULL");
-        return taskQuery.execute().list();
+        if (stateIndex.isReady()) {
+            // the index is eventually consistent, re-validate fetched Tasks
+            return tasks.getAll(stateIndex.getCleanerCandidates()).values().stream()
+                    .filter(Task::isDisposable)
+                    .filter(task -> task.getDependants() == null || task.getDependants().isEmpty())
+                    .collect(Collectors.toList());
+        }
+
+        return queries.disposableWithoutDependants().execute().list();
     }
 
     private void hasCycle(Set<String> taskIds) throws CircularDependencyException {
@@ -345,6 +474,8 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
         // add simple new tasks to cache that have no dependencies nor dependants
         addTasksWithoutEdgesToCache(taskCache, vertices);
 
+        computeCriticalPaths(taskCache);
+
         Set<Task> newTasks = storeTheTasks(taskCache, vertices);
 
         hasCycle(taskCache.keySet());
@@ -352,6 +483,8 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
         Graph<Task> graphRepresentation = getGraphRepresentation(taskCache.keySet(), taskCache);
         validateMilestoneTasks(newTasks, graphRepresentation);
 
+        registerCorrelations(newTasks, taskGraph.getCorrelationNotifications());
+
         // start the tasks
         newTasks.forEach(task -> {
             if (task.getControllerMode() == Mode.ACTIVE)
@@ -360,10 +493,61 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
 
         // poke the queue to start new ENQUEUED tasks if there is room (NOTE: queue is poked after current transaction
         // succeeds)
-        jobEvent.fire(new PokeQueueJob());
+        Set<String> queues = new HashSet<>();
+        newTasks.forEach(task -> queues.add(task.getQueue()));
+        jobEvent.fire(new PokeQueueJob(queues));
         return newTasks;
     }
 
+    /**
+     * Adds new Tasks to the progress of their correlations, so that the graph-level notification is sent once they are
+     * all finished.
+     */
+    private void registerCorrelations(Set<Task> newTasks, Request correlationNotifications) {
+        Map<String, List<String>> added = newTasks.stream()
+                .filter(task -> task.getCorrelationID() != null)
+                .collect(Collectors.groupingBy(Task::getCorrelationID,
+                        Collectors.mapping(Task::getName, Collectors.toList())));
+
+        if (correlationNotifications != null && added.isEmpty()) {
+            throw new BadRequestException("Correlation notifications require a correlationID.");
+        }
+
+        Set<String> installed = newTasks.stream().map(Task::getName).collect(Collectors.toSet());
+        added.forEach((correlationID, names) -> correlations.register(correlationID,
+                correlationNotifications,
+                names,
+                () -> findUnfinished(correlationID, installed)));
+    }
+
+    /**
+     * Finds unfinished Tasks of the correlation that were installed before. Tasks of the current install are skipped
+     * whether the query already sees them or not.
+     */
+    private List<String> findUnfinished(String correlationID, Set<String> installed) {
+        return queries.unfinishedByCorrelationID(correlationID)
+                .execute()
+                .list()
+                .stream()
+                .map(row -> (String) row[0])
+                .filter(name -> !installed.contains(name))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Updates length of the longest chain of dependants of Tasks in the install. Existing Tasks that gained dependants
+     * are updated as well; their own dependencies outside the install are not.
+     */
+    private void computeCriticalPaths(Map<String, Task> taskCache) {
+        Map<String, Integer> depths = CriticalPath.downstreamDepth(taskCache.keySet(),
+                name -> taskCache.get(name).getDependants(),
+                name -> {
+                    Task dependant = getTask(name);
+                    return dependant == null ? 1 : dependant.getCriticalPath();
+                });
+        depths.forEach((name, depth) -> taskCache.get(name).setCriticalPath(depth));
+    }
+
     private void validateMilestoneTasks(Set<Task> newTasks, Graph<Task> graphRepresentation) {
         for (var newTask : newTasks) {
             String milestoneName = newTask.getMilestoneTask();
@@ -453,6 +637,33 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
         return getGraphRepresentation(taskIds, new HashMap<>());
     }
 
+    @Override
+    public Map<String, Task> getConnectedTasks(String task, Integer depth) throws TaskMissingException {
+        Map<String, Task> connected = new LinkedHashMap<>();
+        connected.put(task, getRequiredTask(task));
+
+        Set<String> frontier = Set.of(task);
+        for (int level = 0; (depth == null || level < depth) && !frontier.isEmpty(); level++) {
+            Set<String> next = new HashSet<>();
+            for (String name : frontier) {
+                Task current = connected.get(name);
+                Stream.concat(current.getDependencies().stream(), current.getDependants().stream())
+                        .filter(neighbour -> !connected.containsKey(neighbour))
+                        .forEach(next::add);
+            }
+            if (next.isEmpty()) {
+                break;
+            }
+
+            // Tasks cleaned up in the meantime are skipped
+            Map<String, Task> loaded = tasks.getAll(next);
+            log.trace("GRAPH {}: level {} loaded {} of {} tasks", task, level + 1, loaded.size(), next.size());
+            connected.putAll(loaded);
+            frontier = loaded.keySet();
+        }
+        return connected;
+    }
+
     private void assertValidConfiguration(Collection<InitialTask> values) throws BadRequestException {
         for (InitialTask task : values) {
             if (task.getConfiguration() == null) {
@@ -465,6 +676,14 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
                     && task.getCallerNotifications() == null) {
                 throw new BadRequestException("Task " + task.getName() + " is configured to delay for notifications but notification definition is null.");
             }
+            if (config.isDelayDependantsForFinalNotification()
+                    && !config.shouldNotify(State.SUCCESSFUL)) {
+                throw new BadRequestException("Task " + task.getName() + " is configured to delay for notifications but notification filter excludes SUCCESSFUL state.");
+            }
+            if (config.getNotificationFields() != null
+                    && !MiniTaskMapper.FIELDS.keySet().containsAll(config.getNotificationFields())) {
+                throw new BadRequestException("Task " + task.getName() + " has unknown notification fields. Allowed fields are " + MiniTaskMapper.FIELDS.keySet() + ".");
+            }
 
             if (config.isHeartbeatEnable()) {
                 if (config.getHeartbeatInterval() == null) {
@@ -494,6 +713,7 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
         for (Map.Entry<String, Task> entry : taskCache.entrySet()) {
             Task task = entry.getValue();
             if (isNewTask(entry.getKey(), vertices)) {
+                task.setChangeSequence(sequencer.next(task.getChangeSequence()));
                 Task previousValue = getCache().withFlags(Flag.FORCE_RETURN_VALUE).putIfAbsent(task.getName(), task);
                 if (previousValue != null) {
                     throw new TaskConflictException(
@@ -501,17 +721,20 @@ public class TaskContainerImpl implements TaskContainer, TaskTarget {
                 }
 
                 handleOptionalConstraint(task);
+                propagateUpdate(task);
 
                 // return only new tasks
                 toReturn.add(task);
             } else {
                 // we have to get the previous version
                 VersionedValue<Task> versioned = getWithMetadata(entry.getKey());
+                versioned.getValue().setChangeSequence(sequencer.next(versioned.getValue().getChangeSequence()));
                 boolean success = getCache().replaceWithVersion(entry.getKey(), versioned.getValue(), versioned.getVersion());
                 if (!success) {
                     throw new ConcurrentUpdateException(
                             "Task " + versioned.getValue() + " was remotely updated during the transaction");
                 }
+                propagateUpdate(versioned.getValue());
             }
         }
         return toReturn;
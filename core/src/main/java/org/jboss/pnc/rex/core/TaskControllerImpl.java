@@ -47,7 +47,9 @@ import org.jboss.pnc.rex.core.jobs.HeartbeatVerifierClusterJob;
 import org.jboss.pnc.rex.core.jobs.InvokeStartJob;
 import org.jboss.pnc.rex.core.jobs.InvokeStopJob;
 import org.jboss.pnc.rex.core.jobs.MarkForCleaningJob;
+import org.jboss.pnc.rex.core.jobs.NotificationResultJob;
 import org.jboss.pnc.rex.core.jobs.NotifyCallerJob;
+import org.jboss.pnc.rex.core.jobs.NotifyCorrelationJob;
 import org.jboss.pnc.rex.core.jobs.PokeCleanJob;
 import org.jboss.pnc.rex.core.jobs.PokeQueueJob;
 import org.jboss.pnc.rex.core.jobs.TimeoutCancelClusterJob;
@@ -59,6 +61,7 @@ import org.jboss.pnc.rex.core.jobs.rollback.InvokeRollbackJob;
 import org.jboss.pnc.rex.core.jobs.rollback.ResetFromMilestoneJob;
 import org.jboss.pnc.rex.core.jobs.rollback.RollbackFromMilestoneJob;
 import org.jboss.pnc.rex.core.jobs.rollback.RollbackTriggeredJob;
+import org.jboss.pnc.rex.model.CorrelationProgress;
 import org.jboss.pnc.rex.model.HeartbeatMetadata;
 import org.jboss.pnc.rex.model.RollbackMetadata;
 import org.jboss.pnc.rex.model.ServerResponse;
@@ -93,22 +96,35 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
 
     private final FaultToleranceDecorator ft;
 
+    private final NotificationOutboxDispatcher outbox;
+
+    private final CorrelationTracker correlations;
+
+    private final ChangeSequencer sequencer;
 
     public TaskControllerImpl(TaskContainerImpl container,
                               Event<ControllerJob> scheduleJob,
                               TaskConfiguration config,
-                              FaultToleranceDecorator ftDecorator) {
+                              FaultToleranceDecorator ftDecorator,
+                              NotificationOutboxDispatcher outbox,
+                              CorrelationTracker correlations,
+                              ChangeSequencer sequencer) {
         this.container = container;
         this.scheduleJob = scheduleJob;
         this.config = config;
         this.ft = ftDecorator;
+        this.outbox = outbox;
+        this.correlations = correlations;
+        this.sequencer = sequencer;
     }
 
     private List<ControllerJob> transition(Task task) {
         Transition transition = getTransition(task);
         if (transition != null) {
             log.info("TRANSITION {}: {}", task.getName(), transition);
-            task.getTimestamps().add(new TransitionTime(transition, Instant.now()));
+            Instant now = Instant.now();
+            task.getTimestamps().add(new TransitionTime(transition, now));
+            task.setStateChangedAt(now.toEpochMilli());
         }
 
         List<ControllerJob> tasks = new ArrayList<>();
@@ -223,7 +239,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
             tasks.addAll(switch (transition.getBefore().getGroup()) {
                 case IDLE, FINAL, ROLLBACK_TODO, ROLLBACK -> List.of();
                 case QUEUED -> List.of();
-                case RUNNING -> List.of(new DecreaseCounterJob(task), new PokeQueueJob());
+                case RUNNING -> List.of(new DecreaseCounterJob(task), new PokeQueueJob(task.getQueue()));
             });
 
             // add common tasks on transitioning into a specific StateGroup
@@ -241,20 +257,43 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
                     yield jobs;
                 }
             });
+
+            // notify the caller of the correlation once its last Task is finished
+            CorrelationProgress finished = correlations.onTransition(task, transition);
+            if (finished != null) {
+                tasks.add(new NotifyCorrelationJob(task, finished));
+            }
         }
 
         task.setState(transition.getAfter());
 
-        // notify the caller about a transition
-        tasks.add(addNotificationRequestToTransition(task, transition));
+        // notify the caller about a transition (unless filtered out by the caller)
+        if (isNotified(task, transition)) {
+            if (outbox.isEnabled() && task.getCallerNotifications() != null) {
+                // delivered after the commit, jobs following the notification run after the delivery
+                outbox.append(task, transition);
+            } else {
+                tasks.add(addNotificationRequestToTransition(task, transition, new NotifyCallerJob(transition, task)));
+            }
+        }
 
         log.info("SCHEDULE {}: {}", task.getName(), tasks);
         return tasks;
     }
 
-    private ControllerJob addNotificationRequestToTransition(Task task, Transition transition) {
-        var notifyJob = new NotifyCallerJob(transition, task);
+    /**
+     * Creates jobs following a notification that was delivered from the outbox.
+     *
+     * @param task snapshot of the Task at the time of the transition
+     * @param transition the transition the caller was notified about
+     * @param delivered whether the caller accepted the notification
+     * @return job to run
+     */
+    public ControllerJob afterNotification(Task task, Transition transition, boolean delivered) {
+        return addNotificationRequestToTransition(task, transition, new NotificationResultJob(task, delivered));
+    }
 
+    private ControllerJob addNotificationRequestToTransition(Task task, Transition transition, ControllerJob notifyJob) {
         // only final transitions require additional operations (jobs)
         if (!transition.getAfter().isFinal()) {
             return notifyJob;
@@ -288,7 +327,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
         return treeJobBuilder.build();
     }
 
-    private void addDependantPostNotifyJobs(Task task, TreeJob.TreeJobBuilder treeJobBuilder, NotifyCallerJob notifyJob) {
+    private void addDependantPostNotifyJobs(Task task, TreeJob.TreeJobBuilder treeJobBuilder, ControllerJob notifyJob) {
         var successJob = withTransactionAndTolerance(new DependencySucceededJob(task));
         treeJobBuilder.triggerAfterSuccess(notifyJob, successJob);
         treeJobBuilder.triggerAfter(successJob, new PokeQueueJob());
@@ -537,7 +576,19 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
     private static boolean shouldWaitWithSuccessJob(Task task, Transition transition) {
         return task.getConfiguration() != null
                 && task.getConfiguration().isDelayDependantsForFinalNotification()
-                && transition.getAfter() == State.SUCCESSFUL;
+                && transition.getAfter() == State.SUCCESSFUL
+                && isNotified(task, transition);
+    }
+
+    private static boolean isNotified(Task task, Transition transition) {
+        return task.getConfiguration() == null || task.getConfiguration().shouldNotify(transition.getAfter());
+    }
+
+    /**
+     * Final notification is sent only if the caller wants notifications and does not filter out the final state.
+     */
+    private static boolean hasFinalNotification(Task task, Transition transition) {
+        return task.getCallerNotifications() != null && isNotified(task, transition);
     }
 
     private static boolean shouldWait(Task task) {
@@ -557,7 +608,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
     }
 
     private boolean shouldDeleteImmediately(Task task, Transition transition) {
-        return shouldDelete(task, transition) && task.getCallerNotifications() == null;
+        return shouldDelete(task, transition) && !hasFinalNotification(task, transition);
     }
 
     private boolean shouldDelete(Task task, Transition transition) {
@@ -565,7 +616,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
     }
 
     private boolean shouldMarkAfterNotification(Task task, Transition transition) {
-        return shouldMark(task, transition) && task.getCallerNotifications() != null;
+        return shouldMark(task, transition) && hasFinalNotification(task, transition);
     }
 
     private boolean shouldMark(Task task, Transition transition) {
@@ -577,7 +628,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
      * NOTIFICATION completes.
      */
     private boolean shouldMarkImmediately(Task task, Transition transition) {
-        return config.shouldClean() && transition.getAfter().isFinal() && task.getCallerNotifications() == null;
+        return config.shouldClean() && transition.getAfter().isFinal() && !hasFinalNotification(task, transition);
     }
 
     private void handle(VersionedValue<Task> taskMetadata, Task task) {
@@ -596,6 +647,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
     }
 
     private void saveChanges(VersionedValue<Task> taskMetadata, Task task) {
+        task.setChangeSequence(sequencer.next(task.getChangeSequence()));
         log.trace("SAVE {}: Saving task into ISPN. (ISPN-VERSION: {}) BODY: {}",
                 task.getName(),
                 taskMetadata.getVersion(),
@@ -606,6 +658,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
             log.error("SAVE {}: Concurrent update detected. Transaction will fail.", task.getName());
             throw new ConcurrentUpdateException("Task " + task.getName() + " was remotely updated during the transaction");
         }
+        container.propagateUpdate(task);
     }
 
     private void doExecute(List<ControllerJob> jobs) {
@@ -645,7 +698,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
 
         // #3 HANDLE
         if (pokeQueue) {
-            handle(taskMetadata, task, new ControllerJob[]{new PokeQueueJob()});
+            handle(taskMetadata, task, new ControllerJob[]{new PokeQueueJob(task.getQueue())});
         } else {
             handle(taskMetadata, task);
         }
@@ -1013,6 +1066,7 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
             log.error("DELETE {}: Concurrent update detected. Transaction will fail.", task.getName());
             throw new ConcurrentUpdateException("Task " + task.getName() + " was remotely updated during the transaction");
         }
+        container.propagateRemoval(name);
 
         handleOptionalConstraint(task);
 
@@ -1159,7 +1213,11 @@ public class TaskControllerImpl implements TaskController, DependentMessenger, D
                 task.getMilestoneTask(),
                 task.getRemoteRollback(),
                 rollbackMeta,
-                heartbeatMeta
+                heartbeatMeta,
+                task.getStateChangedAt(),
+                task.getPriority(),
+                task.getCriticalPath(),
+                task.getChangeSequence()
         );
     }
 
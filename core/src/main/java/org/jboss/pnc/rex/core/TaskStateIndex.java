@@ -0,0 +1,418 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.quarkus.infinispan.client.Remote;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.Value;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.commons.api.query.ContinuousQueryListener;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.model.TaskView;
+import org.jboss.pnc.rex.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node-local materialized view of Task states. It answers listing, queue-depth and cleaner-candidate lookups without
+ * running indexed queries on Infinispan.
+ *
+ * The view is fed by two continuous queries on 'rex-tasks'. The filtering and projection is done on the server so only
+ * the projected fields are shipped to the client. Writes done by this instance are additionally applied right after
+ * their transaction completes so that the instance observes its own changes immediately.
+ *
+ * The view is eventually consistent. Consumers have to re-validate the returned Tasks before acting on them.
+ *
+ * State changes applied to the view are published as transition events.
+ */
+@ApplicationScoped
+public class TaskStateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStateIndex.class);
+
+    private static final String VIEW_QUERY =
+            "SELECT name, state, queue, correlationID, disposable, stateChangedAt FROM rex_model.Task";
+
+    private static final String CLEANER_QUERY =
+            "SELECT name FROM rex_model.Task WHERE disposable = true AND dependants IS NULL";
+
+    private final RemoteCache<String, Task> tasks;
+
+    private final ApplicationConfig appConfig;
+
+    private final TransactionSynchronizationRegistry tsr;
+
+    private final TransitionEventHub events;
+
+    private final Map<String, TaskView> views = new ConcurrentHashMap<>();
+
+    private static final Comparator<TaskView> BY_STATE_AGE = Comparator.comparingLong(TaskView::getStateChangedAt)
+            .thenComparing(TaskView::getName);
+
+    /**
+     * Tasks in a (queue, state) bucket ordered from the longest in the state. Separate counters are kept because
+     * size() of a concurrent skip-list is not constant-time.
+     */
+    private final Map<Bucket, NavigableSet<TaskView>> buckets = new ConcurrentHashMap<>();
+
+    private final Map<Bucket, LongAdder> bucketCounts = new ConcurrentHashMap<>();
+
+    private final Map<State, LongAdder> stateCounts = new EnumMap<>(State.class);
+
+    private final Set<String> cleanerCandidates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Change sequences of correlations. Correlations are striped by their hash so that the memory stays bounded; a
+     * change of a correlation also advances the correlations sharing its stripe. The epoch distinguishes sequences of
+     * different instances and restarts.
+     */
+    private final AtomicLongArray correlationSequences = new AtomicLongArray(1024);
+
+    private final long epoch = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+
+    private volatile boolean ready = false;
+
+    public TaskStateIndex(@Remote("rex-tasks") RemoteCache<String, Task> tasks,
+                          ApplicationConfig appConfig,
+                          TransactionSynchronizationRegistry tsr,
+                          TransitionEventHub events) {
+        this.tasks = tasks;
+        this.appConfig = appConfig;
+        this.tsr = tsr;
+        this.events = events;
+        for (State state : State.values()) {
+            stateCounts.put(state, new LongAdder());
+        }
+    }
+
+    /**
+     * Registers continuous queries. The current state of the cache is delivered during registration.
+     */
+    @Startup(ObserverMethod.DEFAULT_PRIORITY)
+    void registerListeners() {
+        if (!appConfig.options().localStateIndex()) {
+            log.info("Local Task state index is disabled. State lookups will be served by indexed queries.");
+            return;
+        }
+
+        try {
+            var continuousQuery = tasks.continuousQuery();
+            continuousQuery.addContinuousQueryListener(VIEW_QUERY, new ViewListener());
+            continuousQuery.addContinuousQueryListener(CLEANER_QUERY, new CleanerListener());
+            ready = true;
+            log.info("Local Task state index initialized with {} Tasks.", views.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not register continuous queries for local Task state index. State lookups will be served by indexed queries.", e);
+        }
+    }
+
+    /**
+     * @return true if the index is populated and can serve lookups
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns names of Tasks in any of the states that belong to one of the queues.
+     *
+     * @param states     states to include
+     * @param queueFilter queues to include (null element is the default queue); null or empty means all queues
+     * @return set of task names
+     */
+    public Set<String> getNames(Collection<State> states, @Nullable Collection<String> queueFilter) {
+        Set<String> names = new HashSet<>();
+        for (Map.Entry<Bucket, NavigableSet<TaskView>> bucket : buckets.entrySet()) {
+            if (!states.contains(bucket.getKey().getState())) {
+                continue;
+            }
+            if (queueFilter != null && !queueFilter.isEmpty() && !queueFilter.contains(bucket.getKey().getQueue())) {
+                continue;
+            }
+            bucket.getValue().forEach(view -> names.add(view.getName()));
+        }
+        return names;
+    }
+
+    /**
+     * @return names of Tasks that are disposable and have no dependants
+     */
+    public Set<String> getCleanerCandidates() {
+        return Set.copyOf(cleanerCandidates);
+    }
+
+    /**
+     * @param state the state
+     * @return number of Tasks in a state across all queues
+     */
+    public long count(State state) {
+        return stateCounts.get(state).sum();
+    }
+
+    /**
+     * @param queue the queue (null is the default queue)
+     * @param state the state
+     * @return number of Tasks in a state in a queue
+     */
+    public long count(@Nullable String queue, State state) {
+        LongAdder counter = bucketCounts.get(new Bucket(queue, state));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Returns number of Tasks for every queue and state. Queues are keyed by their name (null is the default queue).
+     * Only non-zero counts are included.
+     *
+     * @return map of queue to state counts
+     */
+    public Map<String, Map<State, Long>> counts() {
+        Map<String, Map<State, Long>> counts = new HashMap<>();
+        bucketCounts.forEach((bucket, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                counts.computeIfAbsent(bucket.getQueue(), q -> new EnumMap<>(State.class)).put(bucket.getState(), count);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Returns the version of the correlation as seen by this instance. The version changes whenever any Task of the
+     * correlation is added, updated or removed.
+     *
+     * @param correlationID the correlation ID
+     * @return the version or empty if the index is not ready
+     */
+    public Optional<String> correlationVersion(String correlationID) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(Long.toHexString(epoch) + "-" + correlationSequences.get(stripe(correlationID)));
+    }
+
+    /**
+     * Returns the Task that has been in a state for the longest time in a queue.
+     *
+     * @param queue the queue (null is the default queue)
+     * @param state the state
+     * @return the oldest Task or empty
+     */
+    public Optional<TaskView> oldest(@Nullable String queue, State state) {
+        NavigableSet<TaskView> bucket = buckets.get(new Bucket(queue, state));
+        if (bucket == null) {
+            return Optional.empty();
+        }
+        // iterator instead of first() to avoid NoSuchElementException on concurrent removal
+        return bucket.stream().findFirst();
+    }
+
+    /**
+     * Applies the saved Task to the view once the current transaction successfully commits.
+     *
+     * @param task the saved task
+     */
+    public void updateOnCommit(Task task) {
+        if (!ready) {
+            return;
+        }
+
+        TaskView view = new TaskView(task.getName(),
+                task.getState(),
+                task.getQueue(),
+                task.getCorrelationID(),
+                task.isDisposable(),
+                task.getStateChangedAt());
+        boolean cleanable = task.isDisposable() && (task.getDependants() == null || task.getDependants().isEmpty());
+        onCommit(() -> {
+            apply(task.getName(), view);
+            if (cleanable) {
+                cleanerCandidates.add(task.getName());
+            } else {
+                cleanerCandidates.remove(task.getName());
+            }
+        });
+    }
+
+    /**
+     * Removes the Task from the view once the current transaction successfully commits.
+     *
+     * @param name the task name
+     */
+    public void removeOnCommit(String name) {
+        if (!ready) {
+            return;
+        }
+
+        onCommit(() -> {
+            apply(name, null);
+            cleanerCandidates.remove(name);
+        });
+    }
+
+    /**
+     * Empties the view once the current transaction successfully commits. Cache clear does not emit events.
+     */
+    public void clearOnCommit() {
+        if (!ready) {
+            return;
+        }
+
+        onCommit(() -> {
+            views.keySet().forEach(name -> apply(name, null));
+            cleanerCandidates.clear();
+        });
+    }
+
+    private void onCommit(Runnable action) {
+        if (tsr.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+
+        tsr.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private void apply(String name, @Nullable TaskView next) {
+        AtomicReference<TaskView> replaced = new AtomicReference<>();
+        views.compute(name, (key, previous) -> {
+            if (previous != null) {
+                Bucket bucket = new Bucket(previous.getQueue(), previous.getState());
+                if (buckets.get(bucket).remove(previous)) {
+                    bucketCounts.get(bucket).decrement();
+                }
+                stateCounts.get(previous.getState()).decrement();
+            }
+            if (next != null) {
+                Bucket bucket = new Bucket(next.getQueue(), next.getState());
+                if (buckets.computeIfAbsent(bucket, k -> new ConcurrentSkipListSet<>(BY_STATE_AGE)).add(next)) {
+                    bucketCounts.computeIfAbsent(bucket, k -> new LongAdder()).increment();
+                }
+                stateCounts.get(next.getState()).increment();
+            }
+            replaced.set(previous);
+            advanceCorrelation(previous);
+            advanceCorrelation(next);
+            return next;
+        });
+
+        // published outside the map lock; subscribers and waiters must not run inside compute
+        TaskView previous = replaced.get();
+        if (previous != null && next != null) {
+            events.publish(previous, next);
+        }
+    }
+
+    private void advanceCorrelation(@Nullable TaskView view) {
+        if (view != null && view.getCorrelationID() != null) {
+            correlationSequences.incrementAndGet(stripe(view.getCorrelationID()));
+        }
+    }
+
+    private int stripe(String correlationID) {
+        return Math.floorMod(correlationID.hashCode(), correlationSequences.length());
+    }
+
+    private static TaskView toView(Object[] projection) {
+        return new TaskView((String) projection[0],
+                toState(projection[1]),
+                (String) projection[2],
+                (String) projection[3],
+                projection[4] != null && (Boolean) projection[4],
+                projection[5] == null ? 0L : ((Number) projection[5]).longValue());
+    }
+
+    private static State toState(Object value) {
+        if (value instanceof State state) {
+            return state;
+        }
+        if (value instanceof Number number) {
+            return State.values()[number.intValue()];
+        }
+        return State.valueOf(value.toString());
+    }
+
+    @Value
+    private static class Bucket {
+        String queue;
+        State state;
+    }
+
+    private class ViewListener implements ContinuousQueryListener<String, Object[]> {
+
+        @Override
+        public void resultJoining(String key, Object[] value) {
+            apply(key, toView(value));
+        }
+
+        @Override
+        public void resultUpdated(String key, Object[] value) {
+            apply(key, toView(value));
+        }
+
+        @Override
+        public void resultLeaving(String key) {
+            apply(key, null);
+        }
+    }
+
+    private class CleanerListener implements ContinuousQueryListener<String, Object[]> {
+
+        @Override
+        public void resultJoining(String key, Object[] value) {
+            cleanerCandidates.add(key);
+        }
+
+        @Override
+        public void resultLeaving(String key) {
+            cleanerCandidates.remove(key);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.annotation.Nullable;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.common.exceptions.BadRequestException;
+import org.jboss.pnc.rex.core.config.ApplicationConfig;
+import org.jboss.pnc.rex.core.config.EventsConfig;
+import org.jboss.pnc.rex.core.model.TaskView;
+import org.jboss.pnc.rex.core.model.TransitionEvent;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes State changes of Tasks to subscribers of the transition event stream and wakes requests waiting for Tasks
+ * to finish.
+ *
+ * Changes are fed by the local Task state index, so the instance observes transitions of the whole cluster. Every event
+ * gets a sequence number local to the instance. The id of an event combines the sequence with an epoch of the instance,
+ * so that an id issued by another instance (or before a restart) is recognized and refused. The latest events are kept
+ * so that a subscriber can resume the stream after the last event it received.
+ *
+ * Events are numbered and kept under a short lock. They are handed to subscribers and waiters afterward by a single
+ * draining thread at a time, which keeps the order of sequence numbers.
+ */
+@ApplicationScoped
+public class TransitionEventHub {
+
+    private static final Map<State, Map<State, Transition>> TRANSITIONS = new EnumMap<>(State.class);
+
+    static {
+        for (Transition transition : Transition.values()) {
+            TRANSITIONS.computeIfAbsent(transition.getBefore(), state -> new EnumMap<>(State.class))
+                    .putIfAbsent(transition.getAfter(), transition);
+        }
+    }
+
+    private final EventsConfig config;
+
+    private final FinalStateWaiters waiters;
+
+    private final Deque<TransitionEvent> history = new ArrayDeque<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Queue<TransitionEvent> undelivered = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger draining = new AtomicInteger();
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE));
+
+    private long sequence = 0;
+
+    public TransitionEventHub(ApplicationConfig config, FinalStateWaiters waiters) {
+        this.config = config.options().events();
+        this.waiters = waiters;
+    }
+
+    /**
+     * Publishes the change if the State of the Task changed. Late updates that would move the Task back to an older
+     * State are not published.
+     *
+     * @param previous previous view of the Task
+     * @param next current view of the Task
+     */
+    public void publish(TaskView previous, TaskView next) {
+        if (previous.getState() == next.getState() || next.getStateChangedAt() < previous.getStateChangedAt()) {
+            return;
+        }
+
+        Transition transition = TRANSITIONS.getOrDefault(previous.getState(), Map.of()).get(next.getState());
+        TransitionEvent event;
+        synchronized (history) {
+            event = new TransitionEvent(++sequence,
+                    epoch + "-" + sequence,
+                    next.getName(),
+                    next.getCorrelationID(),
+                    previous.getState(),
+                    next.getState(),
+                    transition,
+                    Instant.ofEpochMilli(next.getStateChangedAt()));
+            history.addLast(event);
+            while (history.size() > config.historySize()) {
+                history.removeFirst();
+            }
+            undelivered.add(event);
+        }
+        drain();
+    }
+
+    /**
+     * Delivers undelivered events. Only one thread delivers at a time; others leave their events to it.
+     */
+    private void drain() {
+        if (draining.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            TransitionEvent event;
+            while ((event = undelivered.poll()) != null) {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offer(event);
+                }
+                waiters.onTransition(event);
+            }
+        } while (draining.decrementAndGet() != 0);
+    }
+
+    /**
+     * Returns stream of transition events. Events newer than 'since' that are still kept are replayed first. A gap in
+     * sequence numbers tells the subscriber that some events are no longer kept.
+     *
+     * The stream fails if the subscriber falls behind by more than the subscriber buffer. The subscriber is expected to
+     * resume the stream from the last event it processed.
+     *
+     * @param correlationID only events of Tasks with this correlationID; null means all Tasks
+     * @param since id of the last received event; null means only new events
+     * @return stream of events
+     * @throws BadRequestException if the id was not issued by this instance since its start
+     */
+    public Multi<TransitionEvent> stream(@Nullable String correlationID, @Nullable String since) {
+        long resumeAfter = since == null ? -1 : sequenceOf(since);
+        return Multi.createFrom().<TransitionEvent>emitter(emitter -> {
+                    List<TransitionEvent> replay = new ArrayList<>();
+                    Subscriber subscriber;
+                    synchronized (history) {
+                        if (resumeAfter >= 0) {
+                            history.stream()
+                                    .filter(event -> event.getSequence() > resumeAfter)
+                                    .forEach(replay::add);
+                        }
+                        subscriber = new Subscriber(correlationID, emitter, sequence);
+                        subscribers.add(subscriber);
+                    }
+                    emitter.onTermination(() -> subscribers.remove(subscriber));
+                    subscriber.replay(replay);
+                }, BackPressureStrategy.ERROR)
+                .onOverflow().buffer(config.subscriberBufferSize());
+    }
+
+    private long sequenceOf(String eventID) {
+        int separator = eventID.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(eventID.substring(0, separator))) {
+            throw new BadRequestException("Event " + eventID + " was not issued by this instance since its start. "
+                    + "Subscribe without it to receive new events.");
+        }
+        try {
+            return Long.parseLong(eventID.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Event id " + eventID + " does not end with a sequence number.");
+        }
+    }
+
+    /**
+     * Live events are held back until the replayed events are emitted. Events already covered by the replay are
+     * skipped.
+     */
+    private static class Subscriber {
+
+        private final String correlationID;
+
+        private final MultiEmitter<? super TransitionEvent> emitter;
+
+        private long replayedUpTo;
+
+        private List<TransitionEvent> heldBack = new ArrayList<>();
+
+        private Subscriber(String correlationID, MultiEmitter<? super TransitionEvent> emitter, long replayedUpTo) {
+            this.correlationID = correlationID;
+            this.emitter = emitter;
+            this.replayedUpTo = replayedUpTo;
+        }
+
+        private synchronized void offer(TransitionEvent event) {
+            if (event.getSequence() <= replayedUpTo) {
+                return;
+            }
+            if (heldBack != null) {
+                heldBack.add(event);
+            } else {
+                emit(event);
+            }
+        }
+
+        private synchronized void replay(List<TransitionEvent> events) {
+            events.forEach(this::emit);
+            heldBack.forEach(this::emit);
+            heldBack = null;
+        }
+
+        private void emit(TransitionEvent event) {
+            if (correlationID == null || Objects.equals(correlationID, event.getCorrelationID())) {
+                emitter.emit(event);
+            }
+        }
+    }
+}
@@ -48,6 +48,15 @@ public interface ClusteredJobManager {
      */
     boolean isOwned(String id);
 
+    /**
+     * Same as {@link #isOwned(String)} but the reference is read from a node-local near-cache. Suitable for periodic
+     * checks outside of transactions.
+     *
+     * @param id job id
+     * @return true if local instance (most likely) owns the job
+     */
+    boolean isOwnedCached(String id);
+
     /**
      * The method returns true if the job reference exists in the registry.
      *
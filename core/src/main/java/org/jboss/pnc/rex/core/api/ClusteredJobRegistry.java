@@ -69,6 +69,15 @@ public interface ClusteredJobRegistry {
      */
     ClusteredJobReference getById(String id);
 
+    /**
+     * Returns concrete reference specified by unique ID from a node-local near-cache. The reference can be slightly
+     * outdated. Use only for read-only checks.
+     *
+     * @param id reference id
+     * @return reference
+     */
+    ClusteredJobReference getCachedById(String id);
+
     /**
      * Persists the supplied reference to the registry. The reference has to have the 'owner' set to the local instance.
      *
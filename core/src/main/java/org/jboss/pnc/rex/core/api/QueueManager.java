@@ -20,6 +20,10 @@ package org.jboss.pnc.rex.core.api;
 import jakarta.annotation.Nullable;
 import org.jboss.pnc.rex.common.enums.State;
 import org.jboss.pnc.rex.common.enums.StateGroup;
+import org.jboss.pnc.rex.core.model.QueueTree;
+import org.jboss.pnc.rex.core.model.StartRate;
+
+import java.util.Set;
 
 /**
  * Interface for interacting with internal queue. Each queue has 2 counters. Maximum counter which limits maximum amount
@@ -28,6 +32,9 @@ import org.jboss.pnc.rex.common.enums.StateGroup;
  * If the amount of running Tasks is higher than the maximum amount, Tasks that are able to start are left in the queue
  * (in the ENQUEUED state).
  *
+ * A queue can have a parent queue. The maximum counter of the parent then bounds the combined running Tasks of the
+ * parent and all its descendants, see {@link QueueTree}.
+ *
  * @author Jan Michalov {@literal <jmichalo@redhat.com>}
  */
 public interface QueueManager {
@@ -38,6 +45,14 @@ public interface QueueManager {
      */
     void poke();
 
+    /**
+     * Same as {@link #poke()} but only the specified queues are considered. DEFAULT queue is represented by null
+     * element.
+     *
+     * @param queues queues to poke; if null, all queues are poked
+     */
+    void poke(@Nullable Set<String> queues);
+
     /**
      * Decrease amount of running counter by one. The method is invoked when a Task transitions from
      * {@link StateGroup#RUNNING} state into {@link StateGroup#FINAL}.
@@ -47,7 +62,7 @@ public interface QueueManager {
     /**
      * The method changes the maximum amount of concurrently running Tasks. If the amount is lower than the number of
      * currently running Tasks, the mentioned Tasks are unaffected but no new Tasks are scheduled. The queue is poked
-     * after (and potentially starting {@link State#ENQUEUED} Tasks).
+     * asynchronously after (and potentially starting {@link State#ENQUEUED} Tasks).
      *
      * @param amount new amount of maximum concurrent running Tasks
      */
@@ -60,6 +75,14 @@ public interface QueueManager {
      */
     Long getMaximumConcurrency(@Nullable String name);
 
+    /**
+     * Returns the maximum amount of concurrently running Tasks currently in effect. It is lower than the maximum
+     * counter if the queue is in adaptive mode and the remote entity is degraded.
+     *
+     * @return effective maximum or null if the queue doesn't exist
+     */
+    Long getEffectiveConcurrency(@Nullable String name);
+
     /**
      * Returns current number in the running counter. This value should reflect amount of running Tasks.
      *
@@ -67,6 +90,62 @@ public interface QueueManager {
      */
     Long getRunningCounter(@Nullable String name);
 
+    /**
+     * Returns names of all initialized queues. The DEFAULT queue is represented by null.
+     *
+     * @return queue names
+     */
+    Set<String> getQueueNames();
+
+    /**
+     * Places the queue under a parent queue. Both queues have to exist and the parent must not be the DEFAULT queue
+     * nor a descendant of the queue. Queues of the hierarchy are poked asynchronously after.
+     *
+     * @param name the queue (null is the default queue)
+     * @param parent the parent queue
+     * @param minShare amount of running Tasks guaranteed to the queue within the parent
+     */
+    void setParent(@Nullable String name, String parent, long minShare);
+
+    /**
+     * Detaches the queue from its parent. Does nothing if the queue has no parent.
+     *
+     * @param name the queue (null is the default queue)
+     */
+    void removeParent(@Nullable String name);
+
+    /**
+     * Limits how many Tasks of the queue can start per second. Up to 'burst' Tasks can start at once after the queue
+     * was quiet. The queue is poked asynchronously after.
+     *
+     * @param name the queue (null is the default queue)
+     * @param perSecond amount of Tasks started per second
+     * @param burst maximal amount of Tasks started at once
+     */
+    void setStartRate(@Nullable String name, long perSecond, long burst);
+
+    /**
+     * Removes the start-rate limit of the queue. The queue is poked asynchronously after.
+     *
+     * @param name the queue (null is the default queue)
+     */
+    void removeStartRate(@Nullable String name);
+
+    /**
+     * Returns the start-rate limit of the queue.
+     *
+     * @param name the queue (null is the default queue)
+     * @return the limit or null if the queue is not rate limited
+     */
+    StartRate getStartRate(@Nullable String name);
+
+    /**
+     * Returns current queue hierarchy.
+     *
+     * @return the hierarchy
+     */
+    QueueTree getQueueTree();
+
     /**
      * The method queries running tasks and synchronizes running counters in all queues in case it is different.
      */
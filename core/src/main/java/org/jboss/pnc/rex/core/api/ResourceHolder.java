@@ -60,4 +60,15 @@ public interface ResourceHolder {
      * @return resource type
      */
     ResourceType getResourceType();
+
+    /**
+     * Whether an entry in 'rex-signals' is a live record kept by the holder itself (f.e. a lease) rather than a failover
+     * signal. Such entries are never taken over by {@link FailoverInitiator}.
+     *
+     * @param key key of the entry in 'rex-signals'
+     * @return true if the entry is not a failover signal
+     */
+    default boolean isLiveRecord(String key) {
+        return false;
+    }
 }
@@ -18,9 +18,12 @@
 package org.jboss.pnc.rex.core.api;
 
 import com.google.common.graph.Graph;
+import org.infinispan.client.hotrod.VersionedValue;
+import org.jboss.pnc.rex.common.enums.State;
 import org.jboss.pnc.rex.common.exceptions.TaskMissingException;
 import org.jboss.pnc.rex.model.Task;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +43,24 @@ public interface TaskRegistry {
      */
     Task getTask(String task);
 
+    /**
+     * Returns the Task for a unique ServiceName from a node-local near-cache. The returned Task can be slightly
+     * outdated. Use only for read-only checks and never as a base for an update.
+     *
+     * @param task the serviceName of the service
+     * @return the task or null if doesn't exist
+     */
+    Task getCachedTask(String task);
+
+    /**
+     * Returns the Task together with the version of its cache entry, read from the remote cache (the near-cache is
+     * bypassed). The version changes with every update of the Task.
+     *
+     * @param task the task name
+     * @return the task with its version or null if the task doesn't exist
+     */
+    VersionedValue<Task> getWithMetadata(String task);
+
     /**
      * Returns the Task for a unique ServiceName. Throws an exception if not found.
      *
@@ -64,8 +85,45 @@ public interface TaskRegistry {
      */
     List<Task> getTasks(boolean waiting, boolean queued, boolean running, boolean finished, boolean rollingback, List<String> queueFilter);
 
+    /**
+     * Same as {@link #getTasks(boolean, boolean, boolean, boolean, boolean, List)} but always served by an indexed
+     * query on the cache and never by the eventually consistent local state index. Use it where a missed Task would
+     * corrupt state derived from the result (e.g. repair of counters).
+     *
+     * @return list of filtered services
+     */
+    List<Task> queryTasks(boolean waiting, boolean queued, boolean running, boolean finished, boolean rollingback, List<String> queueFilter);
+
+    /**
+     * Returns Tasks changed after the change sequence filtered by parameters, oldest change first. If no state
+     * parameter is set, Tasks in any state are returned. Only changes up to the safe cursor of ChangeSequencer are
+     * returned, so no change with a lower sequence than a returned one becomes visible later.
+     *
+     * @param changedSince change sequence of the last observed change
+     * @param waiting     is in StateGroup.IDLE state
+     * @param queued      is in StateGroup.QUEUED state
+     * @param running     is in StateGroup.RUNNING state
+     * @param finished    is in StateGroup.FINAL state
+     * @param rollingback is in process of rollback
+     * @param queueFilter is in particular queue
+     * @param limit       maximal number of returned tasks
+     * @return list of changed tasks ordered by change sequence
+     */
+    List<Task> getTasksChangedSince(long changedSince, boolean waiting, boolean queued, boolean running, boolean finished, boolean rollingback, List<String> queueFilter, int limit);
+
     Graph<Task> getTaskGraph(Set<String> taskContext);
 
+    /**
+     * Returns Tasks connected to the Task through dependencies and dependants in either direction. Tasks are loaded in
+     * batches, one per level of distance from the Task.
+     *
+     * @param task the task name
+     * @param depth maximal distance from the Task (null for the whole connected graph)
+     * @return tasks keyed by name ordered by distance from the Task
+     * @throws TaskMissingException the task was not found
+     */
+    Map<String, Task> getConnectedTasks(String task, Integer depth) throws TaskMissingException;
+
     /**
      * Get the task results of the direct dependencies of the task, irrespective of the task configuration to allow
      * or deny it
@@ -77,10 +135,62 @@ public interface TaskRegistry {
 
     List<Task> getEnqueuedTasks(long limit);
 
+    /**
+     * Returns ENQUEUED Tasks of a queue in dispatch order. Tasks with higher priority come first, Tasks with equal
+     * priority are ordered from the longest enqueued.
+     *
+     * @param queue the queue (null is the default queue)
+     * @param limit maximum number of Tasks
+     * @return ordered ENQUEUED tasks
+     */
     List<Task> getEnqueuedTasksByQueueName(String queue, long limit);
 
+    /**
+     * Returns ENQUEUED Tasks of a queue with the correlation ID in dispatch order.
+     *
+     * @param queue the queue (null is the default queue)
+     * @param correlationID the correlation ID (null for Tasks without one)
+     * @param limit maximum number of Tasks
+     * @return ordered ENQUEUED tasks
+     */
+    List<Task> getEnqueuedTasksByQueueAndCorrelation(String queue, String correlationID, long limit);
+
+    /**
+     * Returns number of ENQUEUED Tasks of a queue for every correlation ID. Tasks without a correlation ID are keyed by
+     * null.
+     *
+     * @param queue the queue (null is the default queue)
+     * @return map of correlation ID to number of ENQUEUED Tasks
+     */
+    Map<String, Long> getEnqueuedCountsByCorrelation(String queue);
+
     List<Task> getTasksByCorrelationID(String correlationID);
 
+    /**
+     * Returns number of Tasks in a particular state and queue. Served from the local state index if available.
+     *
+     * @param queue the queue name (null for default queue)
+     * @param state the state
+     * @return number of tasks
+     */
+    long getTaskCount(String queue, State state);
+
+    /**
+     * Returns number of Tasks for every queue and state. The DEFAULT queue is keyed by null. Served from the local state
+     * index if available.
+     *
+     * @return map of queue to state counts
+     */
+    Map<String, Map<State, Long>> getTaskCounts();
+
+    /**
+     * Returns the time the oldest Task in {@link State#ENQUEUED} state was enqueued for every queue that has such
+     * Task. The DEFAULT queue is keyed by null. Served from the local state index if available.
+     *
+     * @return map of queue to time of the oldest enqueue
+     */
+    Map<String, Instant> getOldestEnqueuedTimes();
+
     /**
      * Return tasks that are marked disposable and do not have dependants. These tasks are suitable for immediate
      * deletion.
@@ -29,8 +29,38 @@ public class Constants {
      */
     public static final String RUNNING_COUNTER_KEY = "RUNNING";
 
+    /**
+     * This is a prefix key for Effective maximum counter of adaptive queues.
+     */
+    public static final String EFFECTIVE_MAX_COUNTER_KEY = "EFFECTIVE_MAX";
+
+    /**
+     * This is a prefix key for start-rate limit (tokens per second) of a queue.
+     */
+    public static final String START_RATE_KEY = "START_RATE";
+
+    /**
+     * This is a prefix key for start-rate burst (bucket capacity) of a queue.
+     */
+    public static final String START_BURST_KEY = "START_BURST";
+
+    /**
+     * This is a prefix key for the state of start-rate token bucket of a queue.
+     */
+    public static final String START_TAT_KEY = "START_TAT";
+
     /**
      * Separates prefix key and name in Counter.class implementations.
      */
     public static final String NAME_SEPARATOR = "-";
+
+    /**
+     * This is a prefix key for queue hierarchy entries.
+     */
+    public static final String QUEUE_NODE_KEY = "QUEUE";
+
+    /**
+     * This is a prefix key for the lowest change sequence an instance may still make visible.
+     */
+    public static final String CHANGE_FLOOR_KEY = "CHANGE_FLOOR";
 }
@@ -0,0 +1,100 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Configuration of adaptive (AIMD) concurrency of queues. The effective maximum of an adaptive queue moves between
+ * {@link #minConcurrency()} and the maximum set through the queue API based on how the remote entity responds to start
+ * requests. Healthy responses increase the effective maximum additively, overload responses (5xx, 425, 429),
+ * connection failures and slow responses decrease it multiplicatively.
+ */
+@ConfigMapping(prefix = "scheduler.options.adaptive-concurrency") //CDI
+public interface AdaptiveConcurrencyConfig {
+
+    /**
+     * Enables adaptive concurrency.
+     *
+     * @return if adaptive concurrency is enabled
+     */
+    @WithDefault("false")
+    boolean enabled();
+
+    /**
+     * Queues in the adaptive mode. DEFAULT queue is named 'DEFAULT'. If not set, all queues are adaptive.
+     *
+     * @return names of adaptive queues
+     */
+    Optional<Set<String>> queues();
+
+    /**
+     * Lower bound of the effective maximum.
+     *
+     * @return minimal effective maximum
+     */
+    @WithDefault("1")
+    int minConcurrency();
+
+    /**
+     * Increase of the effective maximum after as many healthy responses as is the current effective maximum.
+     *
+     * @return additive increase
+     */
+    @WithDefault("1")
+    int increase();
+
+    /**
+     * Factor the effective maximum is multiplied with on an unhealthy response.
+     *
+     * @return multiplicative decrease
+     */
+    @WithDefault("0.5")
+    double decreaseFactor();
+
+    /**
+     * Start requests taking longer are considered unhealthy.
+     *
+     * @return latency threshold
+     */
+    @WithDefault("10s")
+    Duration latencyThreshold();
+
+    /**
+     * Minimal time between two decreases. Unhealthy responses to requests sent before the last decrease should not
+     * decrease the maximum again.
+     *
+     * @return decrease cooldown
+     */
+    @WithDefault("5s")
+    Duration decreaseCooldown();
+
+    /**
+     * How long responses are evaluated against the in-memory maximum and effective maximum of a queue before they are
+     * re-read from the cache. Bounds how late changes done by other instances are noticed.
+     *
+     * @return refresh interval of the inputs
+     */
+    @WithDefault("5s")
+    Duration refreshInterval();
+}
@@ -66,6 +66,64 @@ public interface ApplicationConfig {
          */
         HttpConfiguration httpConfiguration();
 
+        /**
+         * Configuration of node-local caches for read-mostly lookups.
+         *
+         * @return near-cache configuration
+         */
+        NearCacheConfig nearCache();
+
+        /**
+         * Configuration of coalescing of queue pokes.
+         *
+         * @return poke configuration
+         */
+        PokeConfig poke();
+
+        /**
+         * Configuration of per-queue dispatcher leases.
+         *
+         * @return dispatcher configuration
+         */
+        DispatcherConfig dispatcher();
+
+        /**
+         * Configuration of adaptive concurrency of queues.
+         *
+         * @return adaptive concurrency configuration
+         */
+        AdaptiveConcurrencyConfig adaptiveConcurrency();
+
+        /**
+         * Configuration of notifications sent to callers.
+         *
+         * @return notification configuration
+         */
+        NotificationConfig notifications();
+
+        /**
+         * Configuration of the stream of Task transition events.
+         *
+         * @return events configuration
+         */
+        EventsConfig events();
+
+        /**
+         * Configuration of change sequences of Tasks.
+         *
+         * @return change sequence configuration
+         */
+        ChangeSequenceConfig changeSequence();
+
+        /**
+         * Keep node-local materialized view of Task states fed by continuous queries. Listing, queue-depth and
+         * cleaner lookups are then served from memory instead of indexed queries.
+         *
+         * @return if local state index is enabled
+         */
+        @WithDefault("true")
+        boolean localStateIndex();
+
         @ConfigMapping(prefix = "scheduler.options.task-configuration") //CDI
         interface TaskConfiguration {
 
@@ -0,0 +1,55 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of change sequences stamped on Tasks. Sequences come from a cluster-wide counter; every instance
+ * reserves a block of them at a time.
+ */
+public interface ChangeSequenceConfig {
+
+    /**
+     * Number of sequences reserved by an instance at once.
+     *
+     * @return block size
+     */
+    @WithDefault("1000")
+    int blockSize();
+
+    /**
+     * Time after which an instance stops using its block and reserves a new one. The instance also republishes its
+     * floor (the lowest sequence it may still make visible) at this interval.
+     *
+     * @return block lifetime
+     */
+    @WithDefault("1s")
+    Duration blockLifetime();
+
+    /**
+     * Lifespan of a published floor. The floor of an instance that stopped republishing it (e.g. crashed) holds the
+     * safe cursor back for at most this time.
+     *
+     * @return floor lifespan
+     */
+    @WithDefault("30s")
+    Duration floorLifespan();
+}
@@ -0,0 +1,181 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Client profile of a remote host. Each host (host:port) gets its own connection pool configured by the profile.
+ */
+public interface ConnectionPoolConfig {
+
+    /**
+     * Maximum amount of HTTP/1.x connections to the host.
+     *
+     * @return pool size
+     */
+    @WithDefault("20")
+    int maxPoolSize();
+
+    /**
+     * Maximum amount of requests waiting for a connection. Requests over the limit fail immediately.
+     *
+     * Value of -1 means unbounded queue.
+     *
+     * @return wait queue size
+     */
+    @WithDefault("-1")
+    int maxWaitQueueSize();
+
+    /**
+     * Use HTTP/2 (ALPN with TLS, h2c upgrade otherwise). Falls back to HTTP/1.1 if the host does not support it.
+     *
+     * @return boolean
+     */
+    @WithDefault("false")
+    boolean http2();
+
+    /**
+     * Maximum amount of HTTP/2 connections to the host.
+     *
+     * @return pool size
+     */
+    @WithDefault("1")
+    int http2MaxPoolSize();
+
+    /**
+     * Maximum amount of concurrent streams on a single HTTP/2 connection.
+     *
+     * Value of -1 means the limit advertised by the host.
+     *
+     * @return multiplexing limit
+     */
+    @WithDefault("-1")
+    int http2MultiplexingLimit();
+
+    /**
+     * Keep connections open between requests.
+     *
+     * @return boolean
+     */
+    @WithDefault("true")
+    boolean keepAlive();
+
+    /**
+     * Time after which an unused connection is closed.
+     *
+     * @return keep-alive timeout
+     */
+    @WithDefault("60s")
+    Duration keepAliveTimeout();
+
+    /**
+     * Time to establish a connection.
+     *
+     * @return connect timeout
+     */
+    @WithDefault("60s")
+    Duration connectTimeout();
+
+    /**
+     * Send HTTP/1.1 requests without waiting for previous responses on the connection.
+     *
+     * @return boolean
+     */
+    @WithDefault("false")
+    boolean pipelining();
+
+    /**
+     * Maximum amount of pipelined requests on a single connection.
+     *
+     * @return pipelining limit
+     */
+    @WithDefault("10")
+    int pipeliningLimit();
+
+    /**
+     * Disable Nagle's algorithm (TCP_NODELAY).
+     *
+     * @return boolean
+     */
+    @WithDefault("true")
+    boolean tcpNoDelay();
+
+    /**
+     * Send TCP keep-alive probes (SO_KEEPALIVE).
+     *
+     * @return boolean
+     */
+    @WithDefault("false")
+    boolean tcpKeepAlive();
+
+    /**
+     * Maximum amount of Tasks being started on the host at once. Further ENQUEUED Tasks of the host stay ENQUEUED
+     * until a start request to the host finishes.
+     *
+     * Value of -1 means no limit.
+     *
+     * @return in-flight limit
+     */
+    @WithDefault("-1")
+    int maxInFlight();
+
+    /**
+     * Circuit breaker of the host.
+     *
+     * @return circuit breaker configuration
+     */
+    CircuitBreaker circuitBreaker();
+
+    interface CircuitBreaker {
+
+        /**
+         * Stop dispatching Tasks to the host after consecutive failed requests.
+         *
+         * @return boolean
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Consecutive failed requests (unreachable host or 5xx response) that open the circuit.
+         *
+         * @return failure threshold
+         */
+        @WithDefault("5")
+        int failureThreshold();
+
+        /**
+         * Time the circuit stays open before probe requests are let through.
+         *
+         * @return open duration
+         */
+        @WithDefault("30s")
+        Duration openDuration();
+
+        /**
+         * Amount of concurrent probe requests while the circuit is half-open.
+         *
+         * @return probe count
+         */
+        @WithDefault("1")
+        int halfOpenProbes();
+    }
+}
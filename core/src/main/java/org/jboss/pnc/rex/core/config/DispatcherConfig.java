@@ -0,0 +1,102 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration of queue dispatcher leadership. Each queue is dispatched (poked) by a single instance holding a lease
+ * in 'rex-signals'. Other instances forward their poke requests to the holder.
+ */
+@ConfigMapping(prefix = "scheduler.options.dispatcher") //CDI
+public interface DispatcherConfig {
+
+    /**
+     * Enables dispatcher leases. If false, every instance pokes every queue on its own.
+     *
+     * @return if dispatcher leases are used
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Lifespan of a lease. A lease that is not renewed in time (f.e. the holder crashed) expires and is acquired by
+     * another instance.
+     *
+     * @return lease lifespan
+     */
+    @WithDefault("30s")
+    Duration leaseDuration();
+
+    /**
+     * How often leases are renewed and unowned queues acquired. Has to be considerably shorter than the lease duration.
+     *
+     * @return renew interval
+     */
+    @WithDefault("10s")
+    Duration renewInterval();
+
+    /**
+     * Prefer Tasks on the critical path of their graph. ENQUEUED Tasks of the same priority are dequeued by the length
+     * of their longest chain of dependants first and only then by the time they were enqueued.
+     *
+     * @return if critical-path scheduling is enabled
+     */
+    @WithDefault("false")
+    boolean criticalPath();
+
+    /**
+     * Fair sharing of a queue among correlation IDs.
+     *
+     * @return fair-share configuration
+     */
+    FairShare fairShare();
+
+    interface FairShare {
+
+        /**
+         * Distributes free slots of a queue among correlation IDs (deficit round-robin) instead of taking the
+         * ENQUEUED Tasks strictly in dispatch order. A large graph then can't hold back Tasks of smaller graphs
+         * submitted to the same queue. Dispatch order still applies among Tasks of a single correlation ID.
+         *
+         * @return if fair sharing is enabled
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Weight of a correlation ID without an explicit weight. Tasks without a correlation ID share a single flow.
+         *
+         * @return default weight
+         */
+        @WithDefault("1")
+        int defaultWeight();
+
+        /**
+         * Explicit weights of correlation IDs. A correlation ID with weight 3 is given three slots for every slot of
+         * a correlation ID with weight 1.
+         *
+         * @return weights keyed by correlation ID
+         */
+        Map<String, Integer> weights();
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of node-local near-caches used by read-mostly lookups (REST reads, ClusteredJob checks). The caches
+ * are invalidated by Infinispan server events. Transactional code paths never read from them.
+ */
+@ConfigMapping(prefix = "scheduler.options.near-cache") //CDI
+public interface NearCacheConfig {
+
+    /**
+     * Enables near-caching. If false, all reads go to Infinispan.
+     *
+     * @return if near-cache is enabled
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Maximum number of Tasks kept in memory of a single instance.
+     *
+     * @return max entries for 'rex-tasks'
+     */
+    @WithDefault("10000")
+    long tasksMaxEntries();
+
+    /**
+     * Maximum number of ClusteredJobReferences kept in memory of a single instance.
+     *
+     * @return max entries for 'rex-cluster-jobs'
+     */
+    @WithDefault("2000")
+    long clusterJobsMaxEntries();
+}
@@ -0,0 +1,169 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of notifications sent to the callers of Tasks.
+ */
+public interface NotificationConfig {
+
+    /**
+     * Configuration of batched delivery of notifications.
+     *
+     * @return batching configuration
+     */
+    Batching batching();
+
+    /**
+     * Configuration of the durable notification outbox.
+     *
+     * @return outbox configuration
+     */
+    Outbox outbox();
+
+    /**
+     * Maximal number of characters of a notification request or a caller response written into the log. Longer ones
+     * are truncated. Negative value means no limit.
+     *
+     * @return maximal logged length
+     */
+    @WithDefault("1024")
+    int logMaxLength();
+
+    /**
+     * Notifications bound for the same endpoint (same url, method and headers) are buffered and POSTed together as a
+     * JSON array of notification requests.
+     *
+     * The endpoint acknowledges each notification separately by responding with a JSON array of status codes in the
+     * order of the requests (2xx accepted, 3xx/4xx rejected, 5xx sent again on its own). A 2xx response without a
+     * body accepts every notification of the batch. Any other response applies to every notification of the batch.
+     */
+    interface Batching {
+
+        /**
+         * Enables batched delivery. Endpoints of callers have to accept arrays of notifications.
+         *
+         * @return if notifications are batched
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Time the first notification of a batch waits for other notifications to join it.
+         *
+         * @return batching window
+         */
+        @WithDefault("50ms")
+        Duration window();
+
+        /**
+         * Maximal number of notifications in a batch. A full batch is sent immediately.
+         *
+         * @return maximal batch size
+         */
+        @WithDefault("50")
+        int maxSize();
+
+        /**
+         * Maximal time a notification waits for the acknowledgment of its batch. After that the notification is sent on
+         * its own and left out of further attempts of the batch. The caller may still receive it twice if an attempt
+         * already in flight gets through.
+         *
+         * @return acknowledgment timeout
+         */
+        @WithDefault("10s")
+        Duration ackTimeout();
+    }
+
+    /**
+     * Notifications are written into the 'rex-notifications' cache in the same transaction as the transition and are
+     * delivered by dedicated workers afterward. Notifications of a Task are delivered one by one in the order of the
+     * transitions. An outbox is leased by a single instance; outboxes of a crashed instance are taken over after their
+     * lease expires.
+     */
+    interface Outbox {
+
+        /**
+         * Enables the outbox. If false, notifications are sent right after the transaction of the transition.
+         *
+         * @return if outbox is used
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Maximal number of outboxes delivered concurrently by the instance.
+         *
+         * @return number of delivery workers
+         */
+        @WithDefault("10")
+        int concurrency();
+
+        /**
+         * Maximal number of notifications a worker delivers from an outbox before it lets other outboxes go first.
+         *
+         * @return notifications delivered per lease of a worker
+         */
+        @WithDefault("20")
+        int batchSize();
+
+        /**
+         * Number of delivery attempts after which a notification counts as failed.
+         *
+         * @return maximal attempts
+         */
+        @WithDefault("10")
+        int maxAttempts();
+
+        /**
+         * Delay after the first failed attempt. The delay doubles with every further attempt.
+         *
+         * @return minimal delay between attempts
+         */
+        @WithDefault("1s")
+        Duration minDelay();
+
+        /**
+         * Upper bound of the delay between attempts.
+         *
+         * @return maximal delay between attempts
+         */
+        @WithDefault("5m")
+        Duration maxDelay();
+
+        /**
+         * Time an instance keeps the exclusive right to deliver an outbox without renewing it.
+         *
+         * @return lease duration
+         */
+        @WithDefault("1m")
+        Duration leaseDuration();
+
+        /**
+         * How often outboxes without a live owner are looked for.
+         *
+         * @return scan interval
+         */
+        @WithDefault("30s")
+        Duration scanInterval();
+    }
+}
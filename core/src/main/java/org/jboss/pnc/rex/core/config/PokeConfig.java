@@ -0,0 +1,48 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of queue pokes. Poke requests of a single instance are coalesced: requests arriving within a short
+ * window, or while a poke is already running, are merged into one follow-up poke of the affected queues.
+ */
+@ConfigMapping(prefix = "scheduler.options.poke") //CDI
+public interface PokeConfig {
+
+    /**
+     * Enables coalescing. If false, every poke request runs its own poke.
+     *
+     * @return if pokes are coalesced
+     */
+    @WithDefault("true")
+    boolean coalesce();
+
+    /**
+     * Time the first poke request waits for other requests to be merged with. Zero runs the poke as soon as possible
+     * while still merging requests that arrive while a poke is running.
+     *
+     * @return debounce window
+     */
+    @WithDefault("20ms")
+    Duration window();
+}
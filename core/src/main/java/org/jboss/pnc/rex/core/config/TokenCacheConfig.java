@@ -0,0 +1,45 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.config;
+
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Caching of the Authorization header of outbound requests.
+ */
+public interface TokenCacheConfig {
+
+    /**
+     * Maximal lifetime of a cached header. Headers whose token has no readable expiry (f.e. LDAP credentials or opaque
+     * tokens) live this long.
+     *
+     * @return header lifetime
+     */
+    @WithDefault("5m")
+    Duration ttl();
+
+    /**
+     * How long before the expiry the header is refreshed in the background.
+     *
+     * @return refresh lead time
+     */
+    @WithDefault("30s")
+    Duration refreshAhead();
+}
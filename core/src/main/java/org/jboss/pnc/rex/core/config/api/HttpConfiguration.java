@@ -19,10 +19,13 @@ package org.jboss.pnc.rex.core.config.api;
 
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
+import org.jboss.pnc.rex.core.config.ConnectionPoolConfig;
 import org.jboss.pnc.rex.core.config.StatusCodeRetryPolicy;
+import org.jboss.pnc.rex.core.config.TokenCacheConfig;
 import org.jboss.pnc.rex.core.config.RequestRetryPolicy;
 
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Configuration for internal HTTP client requests from Rex.
@@ -62,4 +65,26 @@ public interface HttpConfiguration {
      */
     StatusCodeRetryPolicy statusCodeRetryPolicy();
 
+    /**
+     * Client profile of hosts without their own profile.
+     *
+     * @return default client profile
+     */
+    ConnectionPoolConfig pool();
+
+    /**
+     * Client profiles of specific hosts. Keys are either 'host:port' or 'host' (matches any port). Unset values of a
+     * profile take the defaults, not the values of the 'pool' profile.
+     *
+     * @return client profiles by host
+     */
+    Map<String, ConnectionPoolConfig> hosts();
+
+    /**
+     * Caching of the Authorization header sent with requests.
+     *
+     * @return token cache configuration
+     */
+    TokenCacheConfig tokenCache();
+
 }
@@ -20,9 +20,13 @@ package org.jboss.pnc.rex.core.delegates;
 import io.quarkus.arc.Unremovable;
 import io.smallrye.faulttolerance.api.ApplyGuard;
 import org.jboss.pnc.rex.core.api.QueueManager;
+import org.jboss.pnc.rex.core.model.QueueTree;
+import org.jboss.pnc.rex.core.model.StartRate;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.Set;
+
 @WithRetries
 @Unremovable
 @ApplicationScoped
@@ -40,6 +44,12 @@ public class TolerantQueueManager implements QueueManager {
         delegate.poke();
     }
 
+    @Override
+    @ApplyGuard("internal-retry")
+    public void poke(Set<String> queues) {
+        delegate.poke(queues);
+    }
+
     @Override
     @ApplyGuard("internal-retry")
     public void decreaseRunningCounter(String name) {
@@ -57,6 +67,12 @@ public class TolerantQueueManager implements QueueManager {
         return delegate.getMaximumConcurrency(name);
     }
 
+    @Override
+    @ApplyGuard("internal-retry")
+    public Long getEffectiveConcurrency(String name) {
+        return delegate.getEffectiveConcurrency(name);
+    }
+
     @Override
     @ApplyGuard("internal-retry")
     public void synchronizeRunningCounter() {
@@ -68,4 +84,42 @@ public class TolerantQueueManager implements QueueManager {
     public Long getRunningCounter(String name) {
         return delegate.getRunningCounter(name);
     }
+
+    @Override
+    @ApplyGuard("internal-retry")
+    public Set<String> getQueueNames() {
+        return delegate.getQueueNames();
+    }
+
+    @Override
+    public void setParent(String name, String parent, long minShare) {
+        delegate.setParent(name, parent, minShare);
+    }
+
+    @Override
+    public void removeParent(String name) {
+        delegate.removeParent(name);
+    }
+
+    @Override
+    public void setStartRate(String name, long perSecond, long burst) {
+        delegate.setStartRate(name, perSecond, burst);
+    }
+
+    @Override
+    public void removeStartRate(String name) {
+        delegate.removeStartRate(name);
+    }
+
+    @Override
+    @ApplyGuard("internal-retry")
+    public StartRate getStartRate(String name) {
+        return delegate.getStartRate(name);
+    }
+
+    @Override
+    @ApplyGuard("internal-retry")
+    public QueueTree getQueueTree() {
+        return delegate.getQueueTree();
+    }
 }
@@ -0,0 +1,226 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.infinispan;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.transaction.RollbackException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryCreated;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryExpired;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryModified;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryRemoved;
+import org.infinispan.client.hotrod.annotation.ClientCacheFailover;
+import org.infinispan.client.hotrod.annotation.ClientListener;
+import org.infinispan.client.hotrod.event.ClientCacheEntryCreatedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryExpiredEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryModifiedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryRemovedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheFailoverEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Node-local, size-bounded read-through cache in front of a {@link RemoteCache}.
+ *
+ * Entries are invalidated by server-side events (modification, removal, expiration) and, for writes done by this
+ * instance, right after the local transaction completes. Reads are therefore eventually consistent with the cluster.
+ *
+ * The cache is meant for polling readers that only inspect an entity. It never takes part in a transaction and MUST
+ * NOT be used to obtain a value that is subsequently updated; those code paths use versioned reads directly on the
+ * {@link RemoteCache}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class NearCache<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCache.class);
+
+    private static final int STRIPES = 64;
+
+    private final RemoteCache<K, V> remote;
+
+    private final Cache<K, V> local;
+
+    private final boolean enabled;
+
+    /**
+     * Invalidation counters striped by key hash. A loaded value is kept only if no invalidation of its stripe happened
+     * during the remote read, otherwise a concurrent modification could be shadowed by the older value.
+     */
+    private final AtomicLongArray epochs = new AtomicLongArray(STRIPES);
+
+    public NearCache(RemoteCache<K, V> remote, boolean enabled, long maxEntries) {
+        this.remote = remote;
+        this.enabled = enabled && maxEntries > 0;
+        this.local = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .build();
+
+        if (this.enabled) {
+            remote.addClientListener(this.new InvalidationListener());
+            log.info("Near-cache for '{}' enabled with maximum of {} entries.", remote.getName(), maxEntries);
+        }
+    }
+
+    /**
+     * Returns the value from local memory or loads it from the remote cache.
+     *
+     * @param key the key
+     * @return the value or null if it doesn't exist
+     */
+    public V get(K key) {
+        if (!enabled) {
+            return remote.get(key);
+        }
+
+        V cached = local.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int stripe = stripe(key);
+        long epoch = epochs.get(stripe);
+        V loaded = remote.get(key);
+        if (loaded != null && epochs.get(stripe) == epoch) {
+            local.put(key, loaded);
+
+            // invalidation could have slipped in between the check and the put
+            if (epochs.get(stripe) != epoch) {
+                local.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the key from local memory immediately.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        if (!enabled) {
+            return;
+        }
+
+        epochs.incrementAndGet(stripe(key));
+        local.invalidate(key);
+    }
+
+    /**
+     * Drops the key from local memory once the current transaction completes. This gives read-your-writes guarantee
+     * for the local instance without waiting for the server event. Invalidates immediately if there is no
+     * transaction.
+     *
+     * @param key the key
+     */
+    public void invalidateOnCompletion(K key) {
+        if (!enabled) {
+            return;
+        }
+
+        invalidate(key);
+        TransactionManager tm = remote.getTransactionManager();
+        if (tm == null) {
+            return;
+        }
+        try {
+            Transaction transaction = tm.getTransaction();
+            if (transaction != null && transaction.getStatus() == Status.STATUS_ACTIVE) {
+                transaction.registerSynchronization(new Synchronization() {
+                    @Override
+                    public void beforeCompletion() {}
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        invalidate(key);
+                    }
+                });
+            }
+        } catch (SystemException | RollbackException e) {
+            log.warn("Could not register near-cache invalidation for key {}. Relying on server event.", key, e);
+        }
+    }
+
+    /**
+     * Drops all entries from local memory. Has to be called on cache clear because the server does not emit events for
+     * it.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+
+        for (int i = 0; i < STRIPES; i++) {
+            epochs.incrementAndGet(i);
+        }
+        local.invalidateAll();
+    }
+
+    public long size() {
+        return local.size();
+    }
+
+    private int stripe(K key) {
+        return (key.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    @ClientListener
+    public class InvalidationListener {
+
+        /**
+         * Cache clear does not emit removal events so a re-created key can still be present locally.
+         */
+        @ClientCacheEntryCreated
+        public void onCreated(ClientCacheEntryCreatedEvent<K> event) {
+            invalidate(event.getKey());
+        }
+
+        @ClientCacheEntryModified
+        public void onModified(ClientCacheEntryModifiedEvent<K> event) {
+            invalidate(event.getKey());
+        }
+
+        @ClientCacheEntryRemoved
+        public void onRemoved(ClientCacheEntryRemovedEvent<K> event) {
+            invalidate(event.getKey());
+        }
+
+        @ClientCacheEntryExpired
+        public void onExpired(ClientCacheEntryExpiredEvent<K> event) {
+            invalidate(event.getKey());
+        }
+
+        /**
+         * Events could have been missed while the listener was moving to another server.
+         */
+        @ClientCacheFailover
+        public void onFailover(ClientCacheFailoverEvent event) {
+            log.debug("Listener failover on '{}'. Clearing near-cache.", remote.getName());
+            invalidateAll();
+        }
+    }
+}
@@ -22,7 +22,10 @@ import io.quarkus.runtime.Startup;
 import jakarta.enterprise.inject.spi.ObserverMethod;
 import org.infinispan.client.hotrod.RemoteCache;
 import org.jboss.pnc.rex.model.ClusteredJobReference;
+import org.jboss.pnc.rex.model.CorrelationProgress;
 import org.jboss.pnc.rex.model.NodeResource;
+import org.jboss.pnc.rex.model.NotificationOutbox;
+import org.jboss.pnc.rex.model.QueueNode;
 import org.jboss.pnc.rex.model.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,16 +48,28 @@ public class StartCachesOnStartup {
 
     private final RemoteCache<String, NodeResource> signal;
 
+    private final RemoteCache<String, QueueNode> queues;
+
+    private final RemoteCache<String, NotificationOutbox> notifications;
+
+    private final RemoteCache<String, CorrelationProgress> correlations;
+
     public StartCachesOnStartup(@Remote("rex-tasks") RemoteCache<String, Task> tasks,
                                 @Remote("rex-constraints") RemoteCache<String, String> constraints,
                                 @Remote("rex-counter") RemoteCache<String, Long> counters,
                                 @Remote("rex-cluster-jobs") RemoteCache<String, ClusteredJobReference> clusterJobs,
-                                @Remote("rex-signals") RemoteCache<String, NodeResource> signal) {
+                                @Remote("rex-signals") RemoteCache<String, NodeResource> signal,
+                                @Remote("rex-queues") RemoteCache<String, QueueNode> queues,
+                                @Remote("rex-notifications") RemoteCache<String, NotificationOutbox> notifications,
+                                @Remote("rex-correlations") RemoteCache<String, CorrelationProgress> correlations) {
         this.tasks = tasks;
         this.constraints = constraints;
         this.counters = counters;
         this.clusterJobs = clusterJobs;
         this.signal = signal;
+        this.queues = queues;
+        this.notifications = notifications;
+        this.correlations = correlations;
     }
 
     @Startup(ObserverMethod.DEFAULT_PRIORITY - 1)
@@ -66,6 +81,9 @@ public class StartCachesOnStartup {
             counters.get("ASD");
             clusterJobs.get("ASD");
             signal.get("ASD");
+            queues.get("ASD");
+            notifications.get("ASD");
+            correlations.get("ASD");
         } catch (Exception e) {
             throw new IllegalStateException("Cannot get caches", e);
         }
@@ -0,0 +1,355 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.infinispan;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.commons.api.query.Query;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Catalog of Ickle queries over the Task cache.
+ *
+ * Every query is a constant, parameterized string. Values are never concatenated into the query, so the server parses
+ * each distinct query once and reuses the cached plan for all subsequent executions, and no value (e.g. a queue name
+ * containing a quote) can alter the query itself.
+ *
+ * Ickle has no collection-valued parameters, therefore IN clauses are rendered with one placeholder per element
+ * ({@code state IN (:state0, :state1)}). The rendered strings are cached by arity which keeps the set of distinct
+ * queries small and bounded.
+ *
+ * {@link Query} instances hold bound parameters and are not thread-safe; a new instance is created on every call. The
+ * instance is a thin client-side holder, the expensive part (parsing and planning) is what is shared.
+ */
+public class TaskQueries {
+
+    public static final String BY_STATE = "FROM rex_model.Task WHERE state = :state";
+
+    public static final String BY_STATE_AND_QUEUE = "FROM rex_model.Task WHERE state = :state AND queue = :queue";
+
+    public static final String BY_STATE_AND_DEFAULT_QUEUE = "FROM rex_model.Task WHERE state = :state AND queue IS NULL";
+
+    public static final String DISPATCH_ORDER_BY_QUEUE = "FROM rex_model.Task WHERE state = :state AND queue = :queue ORDER BY priority DESC, stateChangedAt ASC";
+
+    public static final String DISPATCH_ORDER_BY_DEFAULT_QUEUE = "FROM rex_model.Task WHERE state = :state AND queue IS NULL ORDER BY priority DESC, stateChangedAt ASC";
+
+    public static final String CRITICAL_PATH_ORDER_BY_QUEUE = "FROM rex_model.Task WHERE state = :state AND queue = :queue ORDER BY priority DESC, criticalPath DESC, stateChangedAt ASC";
+
+    public static final String CRITICAL_PATH_ORDER_BY_DEFAULT_QUEUE = "FROM rex_model.Task WHERE state = :state AND queue IS NULL ORDER BY priority DESC, criticalPath DESC, stateChangedAt ASC";
+
+    public static final String BACKLOG_BY_CORRELATION_IN_QUEUE = "SELECT correlationID, COUNT(name) FROM rex_model.Task WHERE state = :state AND queue = :queue GROUP BY correlationID";
+
+    public static final String BACKLOG_BY_CORRELATION_IN_DEFAULT_QUEUE = "SELECT correlationID, COUNT(name) FROM rex_model.Task WHERE state = :state AND queue IS NULL GROUP BY correlationID";
+
+    public static final String BY_CORRELATION_ID = "FROM rex_model.Task WHERE correlationID = :correlationID";
+
+    public static final String COUNT_BY_QUEUE_AND_STATE = "SELECT queue, state, COUNT(name) FROM rex_model.Task GROUP BY queue, state";
+
+    public static final String OLDEST_BY_QUEUE = "SELECT queue, MIN(stateChangedAt) FROM rex_model.Task WHERE state = :state GROUP BY queue";
+
+    public static final String DISPOSABLE_WITHOUT_DEPENDANTS = "FROM rex_model.Task WHERE disposable = true AND dependants IS NULL";
+
+    public static final String LATEST_CHANGE_SEQUENCE = "SELECT changeSequence FROM rex_model.Task ORDER BY changeSequence DESC";
+
+    private static final String STATE_PARAM = "state";
+
+    private static final String QUEUE_PARAM = "queue";
+
+    private static final String CORRELATION_PARAM = "correlationID";
+
+    private static final String CHANGE_SEQUENCE_PARAM = "changeSequence";
+
+    private static final String UP_TO_PARAM = "upTo";
+
+    private static final List<String> UNFINISHED_STATES = Arrays.stream(State.values())
+            .filter(state -> !state.isFinal())
+            .map(State::name)
+            .collect(Collectors.toList());
+
+    private static final String UNFINISHED_BY_CORRELATION_ID = "SELECT name FROM rex_model.Task WHERE correlationID = :correlationID AND state IN ("
+            + placeholders(STATE_PARAM, UNFINISHED_STATES.size()) + ")";
+
+    private final RemoteCache<String, Task> tasks;
+
+    /**
+     * Rendered 'state IN' queries keyed by amount of states, queues and whether DEFAULT queue is requested.
+     */
+    private final Map<String, String> rendered = new ConcurrentHashMap<>();
+
+    /**
+     * Rendered 'changeSequence >' queries keyed by amount of states, queues and whether DEFAULT queue is requested.
+     */
+    private final Map<String, String> renderedChangedSince = new ConcurrentHashMap<>();
+
+    /**
+     * Rendered dispatch order queries of a single correlation ID keyed by which of the values are null and ordering.
+     */
+    private final Map<String, String> renderedByCorrelation = new ConcurrentHashMap<>();
+
+    public TaskQueries(RemoteCache<String, Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Tasks in any of the states. If queues are specified, only Tasks from these queues are matched. DEFAULT queue is
+     * represented by null.
+     */
+    public Query<Task> byStates(Collection<State> states, Collection<String> queues) {
+        if (states.isEmpty()) {
+            throw new IllegalArgumentException("At least one state is required");
+        }
+
+        List<String> named = new ArrayList<>();
+        boolean defaultQueue = false;
+        if (queues != null) {
+            for (String queue : queues) {
+                if (queue == null) {
+                    defaultQueue = true;
+                } else {
+                    named.add(queue);
+                }
+            }
+        }
+
+        String queryString = renderByStates(states.size(), named.size(), defaultQueue);
+        Query<Task> query = tasks.query(queryString);
+        bindAll(query, STATE_PARAM, states.stream().map(State::name).collect(Collectors.toList()));
+        bindAll(query, QUEUE_PARAM, named);
+        return query;
+    }
+
+    /**
+     * Tasks in {@link State#ENQUEUED} state across all queues.
+     */
+    public Query<Task> enqueued() {
+        return byState(State.ENQUEUED);
+    }
+
+    /**
+     * Tasks in the state regardless of queue.
+     */
+    public Query<Task> byState(State state) {
+        Query<Task> query = tasks.query(BY_STATE);
+        query.setParameter(STATE_PARAM, state.name());
+        return query;
+    }
+
+    /**
+     * Tasks in the state within a single queue. DEFAULT queue is represented by null.
+     */
+    public Query<Task> byStateAndQueue(State state, String queue) {
+        Query<Task> query;
+        if (queue == null) {
+            query = tasks.query(BY_STATE_AND_DEFAULT_QUEUE);
+        } else {
+            query = tasks.query(BY_STATE_AND_QUEUE);
+            query.setParameter(QUEUE_PARAM, queue);
+        }
+        query.setParameter(STATE_PARAM, state.name());
+        return query;
+    }
+
+    /**
+     * Tasks in the state within a single queue in dispatch order: highest priority first, then (optionally) longest
+     * chain of dependants, then longest in the state. DEFAULT queue is represented by null.
+     */
+    public Query<Task> byStateAndQueueInDispatchOrder(State state, String queue, boolean criticalPath) {
+        Query<Task> query;
+        if (queue == null) {
+            query = tasks.query(criticalPath ? CRITICAL_PATH_ORDER_BY_DEFAULT_QUEUE : DISPATCH_ORDER_BY_DEFAULT_QUEUE);
+        } else {
+            query = tasks.query(criticalPath ? CRITICAL_PATH_ORDER_BY_QUEUE : DISPATCH_ORDER_BY_QUEUE);
+            query.setParameter(QUEUE_PARAM, queue);
+        }
+        query.setParameter(STATE_PARAM, state.name());
+        return query;
+    }
+
+    /**
+     * Tasks in the state within a single queue and correlation ID in dispatch order. DEFAULT queue and missing
+     * correlation ID are represented by null.
+     */
+    public Query<Task> byStateQueueAndCorrelationInDispatchOrder(State state,
+                                                                 String queue,
+                                                                 String correlationID,
+                                                                 boolean criticalPath) {
+        Query<Task> query = tasks.query(renderByCorrelation(queue == null, correlationID == null, criticalPath));
+        query.setParameter(STATE_PARAM, state.name());
+        if (queue != null) {
+            query.setParameter(QUEUE_PARAM, queue);
+        }
+        if (correlationID != null) {
+            query.setParameter(CORRELATION_PARAM, correlationID);
+        }
+        return query;
+    }
+
+    /**
+     * Rows of [correlationID, count] for Tasks in the state within a single queue. DEFAULT queue is represented by
+     * null.
+     */
+    public Query<Object[]> backlogByCorrelation(State state, String queue) {
+        Query<Object[]> query;
+        if (queue == null) {
+            query = tasks.query(BACKLOG_BY_CORRELATION_IN_DEFAULT_QUEUE);
+        } else {
+            query = tasks.query(BACKLOG_BY_CORRELATION_IN_QUEUE);
+            query.setParameter(QUEUE_PARAM, queue);
+        }
+        query.setParameter(STATE_PARAM, state.name());
+        return query;
+    }
+
+    /**
+     * Names of Tasks of the correlation that are not in a FINAL state.
+     */
+    public Query<Object[]> unfinishedByCorrelationID(String correlationID) {
+        Query<Object[]> query = tasks.query(UNFINISHED_BY_CORRELATION_ID);
+        query.setParameter(CORRELATION_PARAM, correlationID);
+        bindAll(query, STATE_PARAM, UNFINISHED_STATES);
+        return query;
+    }
+
+    public Query<Task> byCorrelationID(String correlationID) {
+        Query<Task> query = tasks.query(BY_CORRELATION_ID);
+        query.setParameter(CORRELATION_PARAM, correlationID);
+        return query;
+    }
+
+    /**
+     * Rows of [queue, state, count].
+     */
+    public Query<Object[]> countByQueueAndState() {
+        return tasks.query(COUNT_BY_QUEUE_AND_STATE);
+    }
+
+    /**
+     * Rows of [queue, min(stateChangedAt)] for Tasks in the state.
+     */
+    public Query<Object[]> oldestByQueue(State state) {
+        Query<Object[]> query = tasks.query(OLDEST_BY_QUEUE);
+        query.setParameter(STATE_PARAM, state.name());
+        return query;
+    }
+
+    /**
+     * Tasks changed after the sequence and not after upTo, oldest change first. If states are specified, only Tasks in these states are
+     * matched. If queues are specified, only Tasks from these queues are matched. DEFAULT queue is represented by null.
+     */
+    public Query<Task> changedSince(long changeSequence, long upTo, Collection<State> states, Collection<String> queues) {
+        List<String> named = new ArrayList<>();
+        boolean defaultQueue = false;
+        if (queues != null) {
+            for (String queue : queues) {
+                if (queue == null) {
+                    defaultQueue = true;
+                } else {
+                    named.add(queue);
+                }
+            }
+        }
+        int stateCount = states == null ? 0 : states.size();
+
+        Query<Task> query = tasks.query(renderChangedSince(stateCount, named.size(), defaultQueue));
+        query.setParameter(CHANGE_SEQUENCE_PARAM, changeSequence);
+        query.setParameter(UP_TO_PARAM, upTo);
+        if (states != null) {
+            bindAll(query, STATE_PARAM, states.stream().map(State::name).collect(Collectors.toList()));
+        }
+        bindAll(query, QUEUE_PARAM, named);
+        return query;
+    }
+
+    /**
+     * Highest change sequence stamped on a Task; 0 if there are no Tasks.
+     */
+    public long latestChangeSequence() {
+        Query<Object[]> query = tasks.query(LATEST_CHANGE_SEQUENCE);
+        List<Object[]> rows = query.maxResults(1).execute().list();
+        return rows.isEmpty() || rows.get(0)[0] == null ? 0 : ((Number) rows.get(0)[0]).longValue();
+    }
+
+    public Query<Task> disposableWithoutDependants() {
+        return tasks.query(DISPOSABLE_WITHOUT_DEPENDANTS);
+    }
+
+    private String renderByStates(int states, int queues, boolean defaultQueue) {
+        String key = states + ":" + queues + ":" + defaultQueue;
+        return rendered.computeIfAbsent(key, ignored -> {
+            StringBuilder query = new StringBuilder("FROM rex_model.Task WHERE state IN (")
+                    .append(placeholders(STATE_PARAM, states))
+                    .append(')');
+            appendQueues(query, queues, defaultQueue);
+            return query.toString();
+        });
+    }
+
+    private String renderChangedSince(int states, int queues, boolean defaultQueue) {
+        String key = states + ":" + queues + ":" + defaultQueue;
+        return renderedChangedSince.computeIfAbsent(key, ignored -> {
+            StringBuilder query = new StringBuilder("FROM rex_model.Task WHERE changeSequence > :changeSequence"
+                    + " AND changeSequence <= :upTo");
+            if (states > 0) {
+                query.append(" AND state IN (").append(placeholders(STATE_PARAM, states)).append(')');
+            }
+            appendQueues(query, queues, defaultQueue);
+            return query.append(" ORDER BY changeSequence ASC").toString();
+        });
+    }
+
+    private static void appendQueues(StringBuilder query, int queues, boolean defaultQueue) {
+        if (queues > 0 && defaultQueue) {
+            query.append(" AND (queue IN (").append(placeholders(QUEUE_PARAM, queues)).append(") OR queue IS NULL)");
+        } else if (queues > 0) {
+            query.append(" AND queue IN (").append(placeholders(QUEUE_PARAM, queues)).append(')');
+        } else if (defaultQueue) {
+            query.append(" AND queue IS NULL");
+        }
+    }
+
+    private String renderByCorrelation(boolean defaultQueue, boolean noCorrelation, boolean criticalPath) {
+        String key = defaultQueue + ":" + noCorrelation + ":" + criticalPath;
+        return renderedByCorrelation.computeIfAbsent(key, ignored -> "FROM rex_model.Task WHERE state = :state"
+                + (defaultQueue ? " AND queue IS NULL" : " AND queue = :queue")
+                + (noCorrelation ? " AND correlationID IS NULL" : " AND correlationID = :correlationID")
+                + (criticalPath
+                    ? " ORDER BY priority DESC, criticalPath DESC, stateChangedAt ASC"
+                    : " ORDER BY priority DESC, stateChangedAt ASC"));
+    }
+
+    private static String placeholders(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> ":" + prefix + i)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void bindAll(Query<?> query, String prefix, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter(prefix + i, values.get(i));
+        }
+    }
+}
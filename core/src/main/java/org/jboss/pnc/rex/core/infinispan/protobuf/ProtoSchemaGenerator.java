@@ -24,6 +24,7 @@ import org.infinispan.protostream.types.java.CommonTypes;
 import org.jboss.pnc.rex.common.enums.CJobOperation;
 import org.jboss.pnc.rex.common.enums.Method;
 import org.jboss.pnc.rex.common.enums.Mode;
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
 import org.jboss.pnc.rex.common.enums.Origin;
 import org.jboss.pnc.rex.common.enums.ResourceType;
 import org.jboss.pnc.rex.common.enums.ResponseFlag;
@@ -32,9 +33,13 @@ import org.jboss.pnc.rex.common.enums.StopFlag;
 import org.jboss.pnc.rex.common.enums.Transition;
 import org.jboss.pnc.rex.model.ClusteredJobReference;
 import org.jboss.pnc.rex.model.Configuration;
+import org.jboss.pnc.rex.model.CorrelationProgress;
 import org.jboss.pnc.rex.model.Header;
 import org.jboss.pnc.rex.model.HeartbeatMetadata;
 import org.jboss.pnc.rex.model.NodeResource;
+import org.jboss.pnc.rex.model.NotificationOutbox;
+import org.jboss.pnc.rex.model.PendingNotification;
+import org.jboss.pnc.rex.model.QueueNode;
 import org.jboss.pnc.rex.model.Request;
 import org.jboss.pnc.rex.model.RollbackMetadata;
 import org.jboss.pnc.rex.model.ServerResponse;
@@ -58,6 +63,7 @@ import org.jboss.pnc.rex.model.ispn.adapter.DurationAdapter;
                 Mode.class,
                 State.class,
                 StopFlag.class,
+                NotificationPayload.class,
                 Origin.class,
                 Request.class,
                 Configuration.class,
@@ -71,6 +77,10 @@ import org.jboss.pnc.rex.model.ispn.adapter.DurationAdapter;
                 RollbackMetadata.class,
                 HeartbeatMetadata.class,
                 ResponseFlag.class,
+                QueueNode.class,
+                NotificationOutbox.class,
+                PendingNotification.class,
+                CorrelationProgress.class,
                 },
         syntax = ProtoSyntax.PROTO3,
         allowNullFields = true
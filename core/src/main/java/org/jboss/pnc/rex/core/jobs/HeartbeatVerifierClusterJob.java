@@ -83,7 +83,7 @@ public class HeartbeatVerifierClusterJob extends ClusteredJob {
         }
 
         // Do not rely on the Task from Constructor because of possibly outdated data
-        Task refreshedTask = taskRegistry.getTask(context.getName());
+        Task refreshedTask = taskRegistry.getCachedTask(context.getName());
 
         if (refreshedTask == null) {
             return true;
@@ -119,8 +119,8 @@ public class HeartbeatVerifierClusterJob extends ClusteredJob {
     private void verify(Context context, CompletableFuture<Void> complete, Duration interval, int failureThreshold) {
         Instant timeCheck = context.get(START_TIME);
 
-        // preconditions
-        Task refreshedTask = taskRegistry.getTask(this.context.getName());
+        // preconditions (near-cached read, the Task is re-read from Infinispan before failing it)
+        Task refreshedTask = taskRegistry.getCachedTask(this.context.getName());
 
         if (refreshedTask == null) {
             complete.complete(null);
@@ -139,21 +139,24 @@ public class HeartbeatVerifierClusterJob extends ClusteredJob {
         }
 
         int failureCount = context.getOrElse(FAILURE_COUNT, () -> 0);
-        if (refreshedTask.getHeartbeatMeta() == null || refreshedTask.getHeartbeatMeta().getLastBeat() == null) {
+        if (isBeatLate(refreshedTask, timeCheck, interval)) {
             failureCount++;
         } else {
-            HeartbeatMetadata meta = refreshedTask.getHeartbeatMeta();
-            Instant lastBeat = meta.getLastBeat();
-
-            Duration diff = Duration.between(lastBeat, timeCheck);
-            if (diff.compareTo(interval.plus(config.processingTolerance())) > 0) {
-                failureCount++;
-            } else {
-                failureCount = 0;
-            }
+            failureCount = 0;
         }
 
         if (failureCount > failureThreshold) {
+            // the near-cache could have missed the latest beat, confirm with up-to-date data
+            Task freshTask = taskRegistry.getTask(refreshedTask.getName());
+            if (freshTask == null || freshTask.getState() != State.UP || !manager.isOwned(reference.getId())) {
+                complete.complete(null);
+                return;
+            }
+            if (!isBeatLate(freshTask, timeCheck, interval)) {
+                context.put(FAILURE_COUNT, 0);
+                return;
+            }
+
             log.info("HEARTBEAT {}: Threshold reached, failing Task.", refreshedTask.getName());
             taskController.fail(refreshedTask.getName(), null, Origin.REX_HEARTBEAT_TIMEOUT, false, Set.of());
             return;
@@ -162,6 +165,16 @@ public class HeartbeatVerifierClusterJob extends ClusteredJob {
         context.put(FAILURE_COUNT, failureCount);
     }
 
+    private boolean isBeatLate(Task task, Instant timeCheck, Duration interval) {
+        HeartbeatMetadata meta = task.getHeartbeatMeta();
+        if (meta == null || meta.getLastBeat() == null) {
+            return true;
+        }
+
+        Duration diff = Duration.between(meta.getLastBeat(), timeCheck);
+        return diff.compareTo(interval.plus(config.processingTolerance())) > 0;
+    }
+
     private void theTicker(Duration interval,
                                Duration initialDelay,
                                BiConsumer<Context, CompletableFuture<Void>> workAction) {
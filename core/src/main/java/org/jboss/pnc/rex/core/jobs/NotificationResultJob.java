@@ -0,0 +1,54 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.jobs;
+
+import jakarta.enterprise.event.TransactionPhase;
+import org.jboss.pnc.rex.model.Task;
+
+/**
+ * Stands in for {@link NotifyCallerJob} when the notification was delivered from the outbox. The job only reports the
+ * result of the finished delivery so that jobs following the notification can be chained after it.
+ */
+public class NotificationResultJob extends ControllerJob {
+
+    private static final TransactionPhase INVOCATION_PHASE = TransactionPhase.IN_PROGRESS;
+
+    private final boolean delivered;
+
+    public NotificationResultJob(Task context, boolean delivered) {
+        super(INVOCATION_PHASE, context, false);
+        this.delivered = delivered;
+    }
+
+    @Override
+    protected void beforeExecute() {}
+
+    @Override
+    protected void afterExecute() {}
+
+    @Override
+    public boolean execute() {
+        return delivered;
+    }
+
+    @Override
+    protected void onFailure() {}
+
+    @Override
+    protected void onException(Throwable e) {}
+}
@@ -46,7 +46,7 @@ public class NotifyCallerJob extends ControllerJob {
         this.client = CDI.current().select(CallerNotificationClient.class).get();
     }
 
-    private static Task bestEffortCopy(Task task) {
+    public static Task bestEffortCopy(Task task) {
         return task.toBuilder()
                 .timestamps(new TreeSet<>(task.getTimestamps()))
 //                .serverResponses(new ArrayList<>(task.getServerResponses()))
@@ -17,21 +17,50 @@
  */
 package org.jboss.pnc.rex.core.jobs;
 
-import org.jboss.pnc.rex.core.api.QueueManager;
-import org.jboss.pnc.rex.core.delegates.WithRetries;
+import org.jboss.pnc.rex.core.PokeCoalescer;
 
 import jakarta.enterprise.event.TransactionPhase;
 import jakarta.enterprise.inject.spi.CDI;
 
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Requests a poke of the queues after the transaction succeeds. The request is handed to {@link PokeCoalescer} which
+ * merges it with other requests of this instance, therefore the job itself is cheap and runs synchronously.
+ */
 public class PokeQueueJob extends ControllerJob {
 
     private static final TransactionPhase INVOCATION_PHASE = TransactionPhase.AFTER_SUCCESS;
 
-    private final QueueManager manager;
+    private final PokeCoalescer coalescer;
+
+    /**
+     * Queues to poke. Null means all queues.
+     */
+    private final Set<String> queues;
 
+    /**
+     * Pokes all queues.
+     */
     public PokeQueueJob() {
-        super(INVOCATION_PHASE, null, true);
-        this.manager = CDI.current().select(QueueManager.class, () -> WithRetries.class).get();
+        this((Set<String>) null);
+    }
+
+    /**
+     * Pokes only the queue. DEFAULT queue is represented by null.
+     */
+    public PokeQueueJob(String queue) {
+        this(Collections.singleton(queue));
+    }
+
+    /**
+     * Pokes only the queues. If null, all queues are poked.
+     */
+    public PokeQueueJob(Set<String> queues) {
+        super(INVOCATION_PHASE, null, false);
+        this.queues = queues;
+        this.coalescer = CDI.current().select(PokeCoalescer.class).get();
     }
 
     @Override
@@ -42,7 +71,7 @@ public class PokeQueueJob extends ControllerJob {
 
     @Override
     public boolean execute() {
-        manager.poke();
+        coalescer.request(queues);
         return true;
     }
 
@@ -78,8 +78,9 @@ public class TimeoutCancelClusterJob extends ClusteredJob {
             return true;
         }
 
-        // Do not rely on the Task from Constructor because of possibly outdated data
-        Task refreshedTask = taskRegistry.getTask(context.getName());
+        // Do not rely on the Task from Constructor because of possibly outdated data (the state is re-checked in
+        // #executeTimeout() with fresh data)
+        Task refreshedTask = taskRegistry.getCachedTask(context.getName());
 
         // Verify that the task is in correct state because the callback may have arrived, task was forcefully cancelled
         // by other means or some mistake happened.
@@ -84,7 +84,7 @@ public abstract class ClusteredJob extends ControllerJob {
 
         this.manager = CDI.current().select(ClusteredJobManager.class).get();
         this.config = CDI.current().select(ApplicationConfig.class).get();
-        this.context = CDI.current().select(TaskRegistry.class).get().getTask(reference.getTaskName()); // refresh context
+        this.context = CDI.current().select(TaskRegistry.class).get().getCachedTask(reference.getTaskName()); // refresh context
 
         validateReference(reference);
         this.reference = reference;
@@ -149,8 +149,13 @@ public abstract class ClusteredJob extends ControllerJob {
         return !avoidDelisting && manager.isOwned(reference.getId());
     }
 
+    /**
+     * Ownership check suitable for periodic verification. Reads through near-cache so polling does not load Infinispan.
+     *
+     * @return true if the local instance owns the job
+     */
     protected boolean isOwned() {
-        return QuarkusTransaction.joiningExisting().call(() -> manager.isOwned(reference.getId()));
+        return manager.isOwnedCached(reference.getId());
     }
 
     @Override
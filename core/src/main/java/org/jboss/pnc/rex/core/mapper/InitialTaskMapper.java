@@ -41,6 +41,7 @@ public interface InitialTaskMapper {
     @Mapping(target = "stoppedCause", ignore = true)
     // initial values
     @Mapping(target = "controllerMode", source = "controllerMode", defaultValue = "ACTIVE")
+    @Mapping(target = "priority", source = "priority", defaultValue = "0")
     @Mapping(target = "unfinishedDependencies", constant = "0")
     @Mapping(target = "stopFlag", constant = "NONE")
     @Mapping(target = "state", constant = "NEW")
@@ -49,6 +50,9 @@ public interface InitialTaskMapper {
     @Mapping(target = "timestamps", expression = "java( new TreeSet() )")
     @Mapping(target = "rollbackMeta", expression = "java( RollbackMetadata.init() )")
     @Mapping(target = "heartbeatMeta", expression = "java( HeartbeatMetadata.init() )")
+    @Mapping(target = "stateChangedAt", expression = "java( System.currentTimeMillis() )")
+    @Mapping(target = "criticalPath", constant = "1")
+    @Mapping(target = "changeSequence", constant = "0L")
     // Singular additions
     @Mapping(target = "serverResponse", ignore = true)
     @Mapping(target = "dependant", ignore = true)
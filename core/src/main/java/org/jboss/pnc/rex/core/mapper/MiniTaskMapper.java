@@ -17,17 +17,97 @@
  */
 package org.jboss.pnc.rex.core.mapper;
 
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
 import org.jboss.pnc.rex.facade.mapper.MapperCentralConfig;
 import org.jboss.pnc.rex.facade.mapper.TransitionTimeMapper;
+import org.jboss.pnc.rex.model.Configuration;
 import org.jboss.pnc.rex.model.Task;
 import org.jboss.pnc.rex.model.requests.MinimizedTask;
+import org.jboss.pnc.rex.model.requests.MinimizedTask.MinimizedTaskBuilder;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static java.util.Map.entry;
+
 @Mapper(config = MapperCentralConfig.class, uses = {TransitionTimeMapper.class})
 public interface MiniTaskMapper {
 
     @BeanMapping(ignoreUnmappedSourceProperties = {"unfinishedDependencies", "starting", "controllerMode", "disposable",
-            "rollbackMeta", "heartbeatMeta"})
+            "rollbackMeta", "heartbeatMeta", "stateChangedAt", "priority", "criticalPath", "changeSequence"})
     MinimizedTask minimize(Task task);
+
+    /**
+     * Copies fields of MinimizedTask by their name.
+     */
+    Map<String, BiConsumer<MinimizedTaskBuilder, MinimizedTask>> FIELDS = Map.ofEntries(
+            entry("name", (builder, task) -> builder.name(task.getName())),
+            entry("constraint", (builder, task) -> builder.constraint(task.getConstraint())),
+            entry("correlationID", (builder, task) -> builder.correlationID(task.getCorrelationID())),
+            entry("queue", (builder, task) -> builder.queue(task.getQueue())),
+            entry("milestoneTask", (builder, task) -> builder.milestoneTask(task.getMilestoneTask())),
+            entry("remoteStart", (builder, task) -> builder.remoteStart(task.getRemoteStart())),
+            entry("remoteCancel", (builder, task) -> builder.remoteCancel(task.getRemoteCancel())),
+            entry("remoteRollback", (builder, task) -> builder.remoteRollback(task.getRemoteRollback())),
+            entry("callerNotifications", (builder, task) -> builder.callerNotifications(task.getCallerNotifications())),
+            entry("state", (builder, task) -> builder.state(task.getState())),
+            entry("dependencies", (builder, task) -> builder.dependencies(task.getDependencies())),
+            entry("dependants", (builder, task) -> builder.dependants(task.getDependants())),
+            entry("serverResponses", (builder, task) -> builder.serverResponses(task.getServerResponses())),
+            entry("stopFlag", (builder, task) -> builder.stopFlag(task.getStopFlag())),
+            entry("stoppedCause", (builder, task) -> builder.stoppedCause(task.getStoppedCause())),
+            entry("configuration", (builder, task) -> builder.configuration(task.getConfiguration())),
+            entry("timestamps", (builder, task) -> builder.timestamps(task.getTimestamps())));
+
+    Set<String> MINIMAL_FIELDS = Set.of("name", "correlationID", "state", "stopFlag", "stoppedCause");
+
+    Set<String> STANDARD_FIELDS = Set.of("name", "constraint", "correlationID", "queue", "milestoneTask", "state",
+            "dependencies", "dependants", "serverResponses", "stopFlag", "stoppedCause", "timestamps");
+
+    /**
+     * Minimizes the Task and keeps only the fields selected by its notification configuration.
+     *
+     * @param task the Task
+     * @return the Task view for notifications
+     */
+    default MinimizedTask minimizeForNotification(Task task) {
+        MinimizedTask full = minimize(task);
+        Set<String> fields = notificationFields(task.getConfiguration());
+        if (full == null || fields == null) {
+            return full;
+        }
+
+        MinimizedTaskBuilder builder = MinimizedTask.builder().name(full.getName());
+        for (String field : fields) {
+            BiConsumer<MinimizedTaskBuilder, MinimizedTask> copy = FIELDS.get(field);
+            if (copy != null) {
+                copy.accept(builder, full);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Resolves fields to keep. Null means the whole Task view is sent.
+     */
+    private static Set<String> notificationFields(Configuration config) {
+        if (config == null) {
+            return null;
+        }
+        if (config.getNotificationFields() != null && !config.getNotificationFields().isEmpty()) {
+            return config.getNotificationFields();
+        }
+        NotificationPayload payload = config.getNotificationPayload();
+        if (payload == null) {
+            return null;
+        }
+        return switch (payload) {
+            case MINIMAL -> MINIMAL_FIELDS;
+            case STANDARD -> STANDARD_FIELDS;
+            case FULL -> null;
+        };
+    }
 }
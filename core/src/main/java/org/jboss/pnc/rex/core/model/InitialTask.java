@@ -39,6 +39,8 @@ public class InitialTask {
 
     private final String queue;
 
+    private final Integer priority;
+
     private final String milestoneTask;
 
     private final Request remoteStart;
@@ -0,0 +1,180 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.model;
+
+import jakarta.annotation.Nullable;
+import org.jboss.pnc.rex.model.QueueNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the queue hierarchy. DEFAULT queue is represented by null and can't be a parent.
+ *
+ * A parent bounds the combined running Tasks of itself and all its descendants (its usage) by its maximum concurrency.
+ * Each child may have a guaranteed minimum share within its parent. Unused guaranteed slots are reserved for their
+ * child and are not available to siblings, in return a child can always use its guaranteed slots even if the parent is
+ * full.
+ */
+public class QueueTree {
+
+    private final Map<String, QueueNode> nodes = new HashMap<>();
+
+    private final Map<String, Set<String>> children = new HashMap<>();
+
+    public QueueTree(Collection<QueueNode> nodes) {
+        for (QueueNode node : nodes) {
+            this.nodes.put(node.getName(), node);
+            children.computeIfAbsent(node.getParent(), parent -> new HashSet<>()).add(node.getName());
+        }
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public Collection<QueueNode> getNodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    @Nullable
+    public String parentOf(@Nullable String queue) {
+        QueueNode node = nodes.get(queue);
+        return node == null ? null : node.getParent();
+    }
+
+    public long minShareOf(@Nullable String queue) {
+        QueueNode node = nodes.get(queue);
+        return node == null ? 0 : node.getMinShare();
+    }
+
+    public Set<String> childrenOf(String queue) {
+        return children.getOrDefault(queue, Set.of());
+    }
+
+    /**
+     * @return sum of minimum shares guaranteed to children of the queue
+     */
+    public long guaranteedBy(String queue) {
+        long guaranteed = 0;
+        for (String child : childrenOf(queue)) {
+            guaranteed += minShareOf(child);
+        }
+        return guaranteed;
+    }
+
+    /**
+     * @return parent, grandparent and so on
+     */
+    public List<String> ancestorsOf(@Nullable String queue) {
+        List<String> ancestors = new ArrayList<>();
+        String parent = parentOf(queue);
+        while (parent != null && !ancestors.contains(parent)) {
+            ancestors.add(parent);
+            parent = parentOf(parent);
+        }
+        return ancestors;
+    }
+
+    /**
+     * Returns the queues together with all other queues of their hierarchies. A running Task finishing in one of them
+     * frees up space for all of them.
+     *
+     * @param queues the queues
+     * @return queues sharing a root with any of the queues, including the queues
+     */
+    public Set<String> relativesOf(Collection<String> queues) {
+        Set<String> relatives = new HashSet<>(queues);
+        if (isEmpty()) {
+            return relatives;
+        }
+
+        Set<String> roots = new HashSet<>();
+        for (String queue : queues) {
+            List<String> ancestors = ancestorsOf(queue);
+            roots.add(ancestors.isEmpty() ? queue : ancestors.get(ancestors.size() - 1));
+        }
+        Set<String> visited = new HashSet<>();
+        for (String root : roots) {
+            relatives.add(root);
+            collectDescendants(root, relatives, visited);
+        }
+        return relatives;
+    }
+
+    /**
+     * How many more Tasks can be started in the queue without breaching maximum concurrency of any of its ancestors.
+     * Limit of the queue itself is not considered.
+     *
+     * @param queue the queue
+     * @param max maximum concurrency of queues; ancestors without one are not limiting
+     * @param running running Tasks of queues
+     * @return free space permitted by the hierarchy, {@link Long#MAX_VALUE} if the queue has no parent
+     */
+    public long allowance(@Nullable String queue, Map<String, Long> max, Map<String, Long> running) {
+        long allowance = Long.MAX_VALUE;
+        String current = queue;
+        for (String parent : ancestorsOf(queue)) {
+            Long parentMax = max.get(parent);
+            if (parentMax != null) {
+                long reserved = 0;
+                for (String child : childrenOf(parent)) {
+                    reserved += reserve(child, running);
+                }
+                long shared = parentMax - usage(parent, running, new HashSet<>()) - reserved;
+                allowance = Math.min(allowance, reserve(current, running) + Math.max(0, shared));
+            }
+            current = parent;
+        }
+        return allowance;
+    }
+
+    /**
+     * Unused guaranteed slots of the queue.
+     */
+    private long reserve(String queue, Map<String, Long> running) {
+        return Math.max(0, minShareOf(queue) - usage(queue, running, new HashSet<>()));
+    }
+
+    private long usage(String queue, Map<String, Long> running, Set<String> visited) {
+        if (!visited.add(queue)) {
+            return 0;
+        }
+        long usage = running.getOrDefault(queue, 0L);
+        for (String child : childrenOf(queue)) {
+            usage += usage(child, running, visited);
+        }
+        return usage;
+    }
+
+    private void collectDescendants(String queue, Set<String> collected, Set<String> visited) {
+        if (!visited.add(queue)) {
+            return;
+        }
+        for (String child : childrenOf(queue)) {
+            collected.add(child);
+            collectDescendants(child, collected, visited);
+        }
+    }
+}
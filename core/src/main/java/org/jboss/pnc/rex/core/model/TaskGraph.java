@@ -22,6 +22,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Singular;
 import lombok.ToString;
+import org.jboss.pnc.rex.model.Request;
 
 import java.util.Map;
 import java.util.Set;
@@ -37,4 +38,9 @@ public class TaskGraph {
 
     @Singular
     private final Set<Edge> edges;
+
+    /**
+     * Notification sent once all Tasks of the correlation are finished.
+     */
+    private final Request correlationNotifications;
 }
@@ -0,0 +1,47 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.jboss.pnc.rex.common.enums.State;
+
+/**
+ * Minimal projection of a Task held in the local state index.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class TaskView {
+
+    private final String name;
+
+    private final State state;
+
+    private final String queue;
+
+    private final String correlationID;
+
+    private final boolean disposable;
+
+    /**
+     * Epoch millis of the last State change.
+     */
+    private final long stateChangedAt;
+}
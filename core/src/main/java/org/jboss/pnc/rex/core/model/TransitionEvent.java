@@ -0,0 +1,57 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.Transition;
+
+import java.time.Instant;
+
+/**
+ * Change of a Task's State observed by the instance.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class TransitionEvent {
+
+    private final long sequence;
+
+    /**
+     * Epoch of the instance and the sequence.
+     */
+    private final String id;
+
+    private final String taskName;
+
+    private final String correlationID;
+
+    private final State before;
+
+    private final State after;
+
+    /**
+     * Null if the change spans several transitions.
+     */
+    private final Transition transition;
+
+    private final Instant time;
+}
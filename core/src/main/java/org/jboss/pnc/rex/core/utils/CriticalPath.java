@@ -0,0 +1,100 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.utils;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Computes downstream depth of Tasks in a dependency graph. The depth of a Task is the number of Tasks on the longest
+ * chain of dependants starting with the Task itself, a Task without dependants has depth 1.
+ *
+ * Tasks with the highest depth lie on the critical path of the graph; starting them first shortens the time until the
+ * whole graph finishes when there are fewer slots than ready Tasks.
+ */
+public class CriticalPath {
+
+    /**
+     * Computes depth of each of the Tasks. Dependants outside the computed set contribute with their already known
+     * depth.
+     *
+     * Cycles are not detected; members of a cycle get a depth as if the edge closing the cycle did not exist.
+     *
+     * @param names names of Tasks to compute
+     * @param dependants function returning names of direct dependants of a Task
+     * @param knownDepth depth of a dependant that is not among computed Tasks
+     * @return depth for each of the Tasks
+     */
+    public static Map<String, Integer> downstreamDepth(Collection<String> names,
+                                                       Function<String, Set<String>> dependants,
+                                                       ToIntFunction<String> knownDepth) {
+        Set<String> computed = new HashSet<>(names);
+        Map<String, Integer> depths = new HashMap<>();
+        Set<String> visiting = new HashSet<>();
+
+        // iterative post-order DFS over dependants, graphs can be deep
+        for (String root : names) {
+            if (depths.containsKey(root)) {
+                continue;
+            }
+            Deque<Iterator<String>> stack = new ArrayDeque<>();
+            Deque<String> path = new ArrayDeque<>();
+            visiting.add(root);
+            path.push(root);
+            stack.push(dependants.apply(root).iterator());
+
+            while (!stack.isEmpty()) {
+                Iterator<String> next = stack.peek();
+                if (next.hasNext()) {
+                    String dependant = next.next();
+                    if (computed.contains(dependant) && !depths.containsKey(dependant) && visiting.add(dependant)) {
+                        path.push(dependant);
+                        stack.push(dependants.apply(dependant).iterator());
+                    }
+                    continue;
+                }
+
+                stack.pop();
+                String current = path.pop();
+                visiting.remove(current);
+
+                int depth = 0;
+                for (String dependant : dependants.apply(current)) {
+                    int dependantDepth;
+                    if (!computed.contains(dependant)) {
+                        dependantDepth = knownDepth.applyAsInt(dependant);
+                    } else {
+                        // missing only for a dependant closing a cycle
+                        dependantDepth = depths.getOrDefault(dependant, 0);
+                    }
+                    depth = Math.max(depth, dependantDepth);
+                }
+                depths.put(current, depth + 1);
+            }
+        }
+        return depths;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.core.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Deficit round-robin distribution of free slots among flows (f.e. correlation IDs within a queue).
+ *
+ * Active flows take turns in a ring. At the start of its turn a flow earns credit equal to its weight and is given
+ * one slot per credit. Each Task costs a single slot, so with weights 1 flows alternate and a flow with weight 3 gets
+ * three slots per turn. The ring position and unspent credit of the current flow survive between calls, therefore the
+ * shares stay fair even if only a single slot frees up at a time. A flow that runs out of backlog leaves the ring and
+ * loses its credit; it re-joins at the end once it has backlog again.
+ *
+ * @param <K> flow key, null is permitted
+ */
+public class DeficitRoundRobin<K> {
+
+    private final ToIntFunction<K> weights;
+
+    /**
+     * Ring of active flows. The first one has the turn.
+     */
+    private final LinkedHashMap<K, Flow> flows = new LinkedHashMap<>();
+
+    public DeficitRoundRobin(ToIntFunction<K> weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Distributes the slots among flows with backlog.
+     *
+     * @param backlog number of waiting Tasks per flow
+     * @param slots number of free slots
+     * @return number of slots given to each flow, never more than its backlog
+     */
+    public synchronized Map<K, Long> allot(Map<K, Long> backlog, long slots) {
+        return allot(backlog, slots, (key, wanted) -> wanted);
+    }
+
+    /**
+     * Distributes the slots among flows with backlog. Slots given to a flow are handed to the taker, which returns how
+     * many of them were actually used. Only used slots are charged to the flow. A flow that uses less than it was given
+     * (f.e. its Tasks can't start right now) gets nothing more in this call, but keeps its turn and unspent credit.
+     *
+     * @param backlog number of waiting Tasks per flow
+     * @param slots number of free slots
+     * @param taker uses up to the given number of slots for the flow and returns the number of used slots
+     * @return number of slots used by each flow, never more than its backlog
+     */
+    public synchronized Map<K, Long> allot(Map<K, Long> backlog, long slots, ToLongBiFunction<K, Long> taker) {
+        flows.keySet().removeIf(key -> backlog.getOrDefault(key, 0L) <= 0);
+        backlog.forEach((key, waiting) -> {
+            if (waiting > 0) {
+                flows.putIfAbsent(key, new Flow());
+            }
+        });
+
+        Map<K, Long> remaining = new HashMap<>(backlog);
+        Map<K, Long> allotment = new LinkedHashMap<>();
+        Set<K> stalled = new HashSet<>();
+        while (slots > 0) {
+            // first flow of the ring able to take slots (keys may be null)
+            K key = null;
+            boolean found = false;
+            for (K candidate : flows.keySet()) {
+                if (!stalled.contains(candidate)) {
+                    key = candidate;
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                break;
+            }
+            Flow flow = flows.get(key);
+            if (!flow.inTurn) {
+                flow.deficit += Math.max(1, weights.applyAsInt(key));
+                flow.inTurn = true;
+            }
+
+            long wanted = Math.min(slots, Math.min(flow.deficit, remaining.get(key)));
+            long given = Math.min(wanted, Math.max(0, taker.applyAsLong(key, wanted)));
+            if (given > 0) {
+                allotment.merge(key, given, Long::sum);
+            }
+            slots -= given;
+            flow.deficit -= given;
+            remaining.merge(key, -given, Long::sum);
+
+            if (given < wanted) {
+                // the flow can't use more slots now, it keeps its position and credit
+                stalled.add(key);
+            } else if (remaining.get(key) == 0) {
+                flows.remove(key);
+            } else if (flow.deficit == 0) {
+                // end of turn, move to the end of the ring
+                flow.inTurn = false;
+                flows.remove(key);
+                flows.put(key, flow);
+            }
+            // otherwise slots ran out mid-turn and the flow continues next time
+        }
+        return allotment;
+    }
+
+    /**
+     * Copies the ring and unspent credits, f.e. to apply changes made by an allotment only once its Tasks are started.
+     *
+     * @return independent copy
+     */
+    public synchronized DeficitRoundRobin<K> copy() {
+        DeficitRoundRobin<K> copy = new DeficitRoundRobin<>(weights);
+        flows.forEach((key, flow) -> {
+            Flow copied = new Flow();
+            copied.deficit = flow.deficit;
+            copied.inTurn = flow.inTurn;
+            copy.flows.put(key, copied);
+        });
+        return copy;
+    }
+
+    private static class Flow {
+        private long deficit;
+        private boolean inTurn;
+    }
+}
@@ -19,7 +19,9 @@ package org.jboss.pnc.rex.facade;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import org.jboss.pnc.rex.core.CorrelationTracker;
 import org.jboss.pnc.rex.core.FailoverInitiator;
+import org.jboss.pnc.rex.core.NotificationOutboxDispatcher;
 import org.jboss.pnc.rex.core.api.ClusteredJobRegistry;
 import org.jboss.pnc.rex.core.api.QueueManager;
 import org.jboss.pnc.rex.core.api.TaskRegistry;
@@ -37,14 +39,22 @@ public class MaintenanceProviderImpl implements MaintenanceProvider {
 
     private final FailoverInitiator failoverInitiator;
 
+    private final NotificationOutboxDispatcher outbox;
+
+    private final CorrelationTracker correlations;
+
     public MaintenanceProviderImpl(TaskRegistry taskRegistry,
                                    QueueManager queueManager,
                                    ClusteredJobRegistry jobRegistry,
-                                   FailoverInitiator failoverInitiator) {
+                                   FailoverInitiator failoverInitiator,
+                                   NotificationOutboxDispatcher outbox,
+                                   CorrelationTracker correlations) {
         this.taskRegistry = taskRegistry;
         this.queueManager = queueManager;
         this.jobRegistry = jobRegistry;
         this.failoverInitiator = failoverInitiator;
+        this.outbox = outbox;
+        this.correlations = correlations;
     }
 
     @Override
@@ -61,5 +71,11 @@ public class MaintenanceProviderImpl implements MaintenanceProvider {
 
         // clears signal cache
         failoverInitiator.clearCaches();
+
+        // clears undelivered notifications
+        outbox.clear();
+
+        // clears progress of correlations
+        correlations.clear();
     }
 }
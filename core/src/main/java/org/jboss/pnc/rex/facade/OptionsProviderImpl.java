@@ -22,14 +22,20 @@ import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
 import org.jboss.pnc.rex.common.exceptions.QueueMissingException;
 import org.jboss.pnc.rex.core.api.QueueManager;
+import org.jboss.pnc.rex.core.model.StartRate;
 import org.jboss.pnc.rex.dto.responses.ErrorResponse;
 import org.jboss.pnc.rex.dto.responses.LongResponse;
+import org.jboss.pnc.rex.dto.responses.QueueNodeResponse;
+import org.jboss.pnc.rex.dto.responses.StartRateResponse;
 import org.jboss.pnc.rex.facade.api.OptionsProvider;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
+import java.util.Comparator;
+import java.util.List;
+
 @ApplicationScoped
 public class OptionsProviderImpl implements OptionsProvider {
 
@@ -59,4 +65,67 @@ public class OptionsProviderImpl implements OptionsProvider {
                 .number(concurrency)
                 .build();
     }
+
+    @Override
+    public LongResponse getEffectiveConcurrency(String queueName) {
+        Long concurrency = manager.getEffectiveConcurrency(queueName);
+
+        if (concurrency == null) {
+            throw new QueueMissingException("Queue with name " + queueName + " not found.", queueName);
+        }
+
+        return LongResponse
+                .builder()
+                .number(concurrency)
+                .build();
+    }
+
+    @Override
+    public void setParent(String queueName, String parent, long minShare) {
+        manager.setParent(queueName, parent, minShare);
+    }
+
+    @Override
+    public void removeParent(String queueName) {
+        manager.removeParent(queueName);
+    }
+
+    @Override
+    public void setStartRate(String queueName, long perSecond, long burst) {
+        manager.setStartRate(queueName, perSecond, burst);
+    }
+
+    @Override
+    public void removeStartRate(String queueName) {
+        manager.removeStartRate(queueName);
+    }
+
+    @Override
+    public StartRateResponse getStartRate(String queueName) {
+        if (manager.getMaximumConcurrency(queueName) == null) {
+            throw new QueueMissingException("Queue with name " + queueName + " not found.", queueName);
+        }
+
+        StartRate rate = manager.getStartRate(queueName);
+        if (rate == null) {
+            return new StartRateResponse();
+        }
+
+        return StartRateResponse.builder()
+                .perSecond(rate.getPerSecond())
+                .burst(rate.getBurst())
+                .build();
+    }
+
+    @Override
+    public List<QueueNodeResponse> getQueueTree() {
+        return manager.getQueueTree().getNodes().stream()
+                .map(node -> QueueNodeResponse.builder()
+                        .queue(node.getName())
+                        .parent(node.getParent())
+                        .minShare(node.getMinShare())
+                        .build())
+                .sorted(Comparator.comparing(QueueNodeResponse::getQueue, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
 }
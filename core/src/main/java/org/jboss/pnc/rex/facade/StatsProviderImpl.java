@@ -0,0 +1,112 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.facade;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.StateGroup;
+import org.jboss.pnc.rex.core.api.QueueManager;
+import org.jboss.pnc.rex.core.api.TaskRegistry;
+import org.jboss.pnc.rex.dto.responses.QueueStatsResponse;
+import org.jboss.pnc.rex.dto.responses.TaskStatsResponse;
+import org.jboss.pnc.rex.facade.api.StatsProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@ApplicationScoped
+public class StatsProviderImpl implements StatsProvider {
+
+    private final TaskRegistry taskRegistry;
+
+    private final QueueManager queueManager;
+
+    public StatsProviderImpl(TaskRegistry taskRegistry, QueueManager queueManager) {
+        this.taskRegistry = taskRegistry;
+        this.queueManager = queueManager;
+    }
+
+    @Override
+    public TaskStatsResponse getTaskStats() {
+        Map<String, Map<State, Long>> counts = taskRegistry.getTaskCounts();
+        Map<String, Instant> oldest = taskRegistry.getOldestEnqueuedTimes();
+
+        Map<State, Long> states = new EnumMap<>(State.class);
+        counts.values().forEach(perQueue -> perQueue.forEach((state, count) -> states.merge(state, count, Long::sum)));
+
+        Instant oldestEnqueued = oldest.values().stream()
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+
+        return TaskStatsResponse.builder()
+                .states(states)
+                .groups(toGroups(states))
+                .oldestEnqueuedAge(ageOf(oldestEnqueued))
+                .build();
+    }
+
+    @Override
+    public List<QueueStatsResponse> getQueueStats() {
+        Map<String, Map<State, Long>> counts = taskRegistry.getTaskCounts();
+        Map<String, Instant> oldest = taskRegistry.getOldestEnqueuedTimes();
+
+        Set<String> queues = new HashSet<>(queueManager.getQueueNames());
+        queues.addAll(counts.keySet());
+
+        List<QueueStatsResponse> stats = new ArrayList<>(queues.size());
+        for (String queue : queues) {
+            stats.add(QueueStatsResponse.builder()
+                    .queue(queue)
+                    .maxConcurrency(queueManager.getMaximumConcurrency(queue))
+                    .running(queueManager.getRunningCounter(queue))
+                    .groups(toGroups(counts.getOrDefault(queue, Map.of())))
+                    .oldestEnqueuedAge(ageOf(oldest.get(queue)))
+                    .build());
+        }
+        // DEFAULT queue first, named queues alphabetically
+        stats.sort(Comparator.comparing(QueueStatsResponse::getQueue, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        return stats;
+    }
+
+    private static Map<StateGroup, Long> toGroups(Map<State, Long> states) {
+        Map<StateGroup, Long> groups = new EnumMap<>(StateGroup.class);
+        for (StateGroup group : StateGroup.values()) {
+            groups.put(group, 0L);
+        }
+        states.forEach((state, count) -> groups.merge(state.getGroup(), count, Long::sum));
+        return groups;
+    }
+
+    private static Duration ageOf(Instant since) {
+        if (since == null) {
+            return null;
+        }
+        Duration age = Duration.between(since, Instant.now());
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+}
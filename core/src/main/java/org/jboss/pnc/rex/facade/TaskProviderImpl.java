@@ -17,21 +17,33 @@
  */
 package org.jboss.pnc.rex.facade;
 
+import io.smallrye.mutiny.Multi;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.infinispan.client.hotrod.VersionedValue;
 import org.jboss.pnc.rex.common.enums.Mode;
 import org.jboss.pnc.rex.common.enums.Origin;
 import org.jboss.pnc.rex.common.enums.ResponseFlag;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.TaskProjection;
 import org.jboss.pnc.rex.common.exceptions.TaskMissingException;
 import org.jboss.pnc.rex.common.util.MDCUtils;
+import org.jboss.pnc.rex.core.FinalStateWaiters;
+import org.jboss.pnc.rex.core.TaskStateIndex;
+import org.jboss.pnc.rex.core.TransitionEventHub;
 import org.jboss.pnc.rex.core.api.TaskContainer;
 import org.jboss.pnc.rex.core.api.TaskController;
 import org.jboss.pnc.rex.core.api.TaskRegistry;
 import org.jboss.pnc.rex.core.api.TaskTarget;
+import org.jboss.pnc.rex.dto.EdgeDTO;
 import org.jboss.pnc.rex.dto.TaskDTO;
+import org.jboss.pnc.rex.dto.TransitionEventDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
 import org.jboss.pnc.rex.dto.responses.ErrorResponse;
+import org.jboss.pnc.rex.dto.responses.TaskGraphResponse;
 import org.jboss.pnc.rex.facade.api.TaskProvider;
 import org.jboss.pnc.rex.facade.mapper.GraphsMapper;
 import org.jboss.pnc.rex.facade.mapper.TaskMapper;
+import org.jboss.pnc.rex.facade.mapper.TransitionEventMapper;
 import org.jboss.pnc.rex.model.Task;
 import org.slf4j.MDC;
 
@@ -39,12 +51,21 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -62,18 +83,38 @@ public class TaskProviderImpl implements TaskProvider {
 
     private final HttpHeaders httpHeaders;
 
+    private final TaskStateIndex stateIndex;
+
+    private final TransitionEventHub eventHub;
+
+    private final TransitionEventMapper eventMapper;
+
+    private final FinalStateWaiters waiters;
+
+    private final ManagedExecutor executor;
+
     @Inject
     public TaskProviderImpl(TaskContainer container,
                             TaskController controller,
                             TaskMapper mapper,
                             GraphsMapper graphMapper,
-                            HttpHeaders httpHeaders) {
+                            HttpHeaders httpHeaders,
+                            TaskStateIndex stateIndex,
+                            TransitionEventHub eventHub,
+                            TransitionEventMapper eventMapper,
+                            FinalStateWaiters waiters,
+                            ManagedExecutor executor) {
         this.target = container;
         this.registry = container;
         this.controller = controller;
         this.mapper = mapper;
         this.graphMapper = graphMapper;
         this.httpHeaders = httpHeaders;
+        this.stateIndex = stateIndex;
+        this.eventHub = eventHub;
+        this.eventMapper = eventMapper;
+        this.waiters = waiters;
+        this.executor = executor;
     }
 
     @Override
@@ -100,6 +141,13 @@ public class TaskProviderImpl implements TaskProvider {
                 .collect(Collectors.toSet());
     }
 
+    @Override
+    public Set<TaskDTO> getChangedSince(long changedSince, boolean waiting, boolean running, boolean finished, boolean rollingback, List<String> queueFilter, int limit) {
+        return registry.getTasksChangedSince(changedSince, waiting, waiting, running, finished, rollingback, queueFilter, limit).stream()
+                .map(mapper::toDTO)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     @Override
     @Transactional
     public void cancel(String taskName) {
@@ -108,15 +156,7 @@ public class TaskProviderImpl implements TaskProvider {
 
     @Override
     public TaskDTO get(String taskName) {
-        Task task;
-        try {
-            task = registry.getRequiredTask(taskName);
-            return mapper.toDTO(task);
-        } catch (TaskMissingException e) {
-            throw new NotFoundException(Response.status(Response.Status.NOT_FOUND)
-                    .entity(new ErrorResponse(e, e.getTaskName()))
-                    .build());
-        }
+        return toRequiredDTO(taskName, registry.getCachedTask(taskName));
     }
 
     @Override
@@ -127,8 +167,84 @@ public class TaskProviderImpl implements TaskProvider {
     }
 
     @Override
-    public List<TaskDTO> getAllRelated(String taskName) {
-        throw new UnsupportedOperationException("not yet implemented");
+    public VersionedTask getVersioned(String taskName) {
+        VersionedValue<Task> versioned = registry.getWithMetadata(taskName);
+        if (versioned == null) {
+            return null;
+        }
+        return new VersionedTask(Long.toHexString(versioned.getVersion()), mapper.toDTO(versioned.getValue()));
+    }
+
+    @Override
+    public String getCorrelationVersion(String correlationID) {
+        return stateIndex.correlationVersion(correlationID).orElse(null);
+    }
+
+    @Override
+    public CompletionStage<TaskDTO> awaitFinal(String taskName, Duration timeout) {
+        if (!stateIndex.isReady()) {
+            throw new ServiceUnavailableException("Waiting for tasks relies on transition events of the local state index which is not available.");
+        }
+
+        // park before reading the task so that a transition in between is not missed
+        CompletableFuture<State> waiter = waiters.register(taskName);
+        Task current = registry.getTask(taskName);
+        if (current == null || current.getState().isFinal()) {
+            waiters.remove(taskName, waiter);
+            return CompletableFuture.completedFuture(toRequiredDTO(taskName, current));
+        }
+
+        return waiter.completeOnTimeout(current.getState(), timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApplyAsync(state -> {
+                    waiters.remove(taskName, waiter);
+                    Task task = registry.getTask(taskName);
+                    if (task == null) {
+                        // finished and cleaned in the meantime
+                        TaskDTO removed = new TaskDTO();
+                        removed.name = taskName;
+                        removed.state = state;
+                        return removed;
+                    }
+                    return mapper.toDTO(task);
+                }, executor);
+    }
+
+    private TaskDTO toRequiredDTO(String taskName, Task task) {
+        if (task == null) {
+            TaskMissingException e = new TaskMissingException("Task with name " + taskName + " was not found", taskName);
+            throw new NotFoundException(Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e, e.getTaskName()))
+                    .build());
+        }
+        return mapper.toDTO(task);
+    }
+
+    @Override
+    public Multi<TransitionEventDTO> events(String correlationID, String since) {
+        if (!stateIndex.isReady()) {
+            throw new ServiceUnavailableException("Transition events are fed by the local state index which is not available.");
+        }
+
+        return eventHub.stream(correlationID, since).map(eventMapper::toDTO);
+    }
+
+    @Override
+    public TaskGraphResponse getAllRelated(String taskName, Integer depth, Set<State> states, TaskProjection projection) {
+        // traversal goes through all tasks to keep the graph connected, the filter applies only to the result
+        Map<String, Task> included = registry.getConnectedTasks(taskName, depth).values().stream()
+                .filter(task -> states == null || states.isEmpty() || states.contains(task.getState()))
+                .collect(Collectors.toMap(Task::getName, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+
+        List<EdgeDTO> edges = included.values().stream()
+                .flatMap(task -> task.getDependencies().stream()
+                        .filter(included::containsKey)
+                        .map(dependency -> new EdgeDTO(task.getName(), dependency)))
+                .toList();
+
+        return TaskGraphResponse.builder()
+                .nodes(included.values().stream().map(task -> mapper.toDTO(task, projection)).toList())
+                .edges(edges)
+                .build();
     }
 
     @Override
@@ -19,6 +19,10 @@ package org.jboss.pnc.rex.facade.api;
 
 import jakarta.annotation.Nullable;
 import org.jboss.pnc.rex.dto.responses.LongResponse;
+import org.jboss.pnc.rex.dto.responses.QueueNodeResponse;
+import org.jboss.pnc.rex.dto.responses.StartRateResponse;
+
+import java.util.List;
 
 /**
  * Public interface for managing scheduler's settings on runtime.
@@ -38,4 +42,59 @@ public interface OptionsProvider {
      * @return maximum concurrent Tasks
      */
     LongResponse getConcurrency(@Nullable String queueName);
+
+    /**
+     * Return amount of concurrent tasks currently in effect (differs for queues in adaptive mode).
+     *
+     * @return effective maximum concurrent Tasks
+     */
+    LongResponse getEffectiveConcurrency(@Nullable String queueName);
+
+    /**
+     * Places the queue under a parent queue. The maximum concurrency of the parent bounds running Tasks of the parent
+     * and all its descendants.
+     *
+     * @param queueName the queue
+     * @param parent the parent queue
+     * @param minShare amount of running Tasks guaranteed to the queue within the parent
+     */
+    void setParent(@Nullable String queueName, String parent, long minShare);
+
+    /**
+     * Detaches the queue from its parent.
+     *
+     * @param queueName the queue
+     */
+    void removeParent(@Nullable String queueName);
+
+    /**
+     * Limits how many Tasks of the queue can start per second.
+     *
+     * @param queueName the queue
+     * @param perSecond amount of Tasks started per second
+     * @param burst maximal amount of Tasks started at once
+     */
+    void setStartRate(@Nullable String queueName, long perSecond, long burst);
+
+    /**
+     * Removes the start-rate limit of the queue.
+     *
+     * @param queueName the queue
+     */
+    void removeStartRate(@Nullable String queueName);
+
+    /**
+     * Returns the start-rate limit of the queue.
+     *
+     * @param queueName the queue
+     * @return the limit (empty if the queue is not rate limited)
+     */
+    StartRateResponse getStartRate(@Nullable String queueName);
+
+    /**
+     * Returns all queues that have a parent.
+     *
+     * @return queue hierarchy
+     */
+    List<QueueNodeResponse> getQueueTree();
 }
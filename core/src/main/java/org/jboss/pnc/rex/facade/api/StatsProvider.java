@@ -0,0 +1,40 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.facade.api;
+
+import org.jboss.pnc.rex.dto.responses.QueueStatsResponse;
+import org.jboss.pnc.rex.dto.responses.TaskStatsResponse;
+
+import java.util.List;
+
+/**
+ * Provider of aggregated statistics about Tasks and queues. Statistics are served from node-local memory and are
+ * eventually consistent with the cluster.
+ */
+public interface StatsProvider {
+
+    /**
+     * Returns amount of Tasks in each state across all queues together with the age of the oldest ENQUEUED Task.
+     */
+    TaskStatsResponse getTaskStats();
+
+    /**
+     * Returns statistics for every known queue. A queue is known if it was initialized or if it holds any Task.
+     */
+    List<QueueStatsResponse> getQueueStats();
+}
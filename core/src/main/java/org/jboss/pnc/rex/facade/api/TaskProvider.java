@@ -17,13 +17,22 @@
  */
 package org.jboss.pnc.rex.facade.api;
 
+import io.smallrye.mutiny.Multi;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.jboss.pnc.rex.common.enums.ResponseFlag;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.TaskProjection;
 import org.jboss.pnc.rex.dto.TaskDTO;
+import org.jboss.pnc.rex.dto.responses.TaskGraphResponse;
+import org.jboss.pnc.rex.dto.TransitionEventDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 public interface TaskProvider {
 
@@ -36,6 +45,16 @@ public interface TaskProvider {
      */
     Set<TaskDTO> getAll(boolean waiting, boolean running, boolean finished, boolean rollingback, List<String> queueFilter);
 
+    /**
+     * returns tasks changed after the change sequence based on filter, ordered by change sequence. If no state filter
+     * is set, tasks in any state are returned. The next page starts after the change sequence of the last returned task.
+     *
+     * @param changedSince change sequence of the last observed change
+     * @param limit maximal number of returned tasks
+     * @return set of changed tasks
+     */
+    Set<TaskDTO> getChangedSince(long changedSince, boolean waiting, boolean running, boolean finished, boolean rollingback, List<String> queueFilter, int limit);
+
     /**
      * Cancels execution of the task and its dependants
      *
@@ -53,14 +72,53 @@ public interface TaskProvider {
 
     Set<TaskDTO> getByCorrelationID(String correlationID);
 
+    /**
+     * Returns the task together with its version. Both come from the same read of the task, so the version always
+     * describes the returned task. The version changes with every update of the task.
+     *
+     * @param taskName name of the task
+     * @return the task with its version or null if the task doesn't exist
+     */
+    VersionedTask getVersioned(String taskName);
+
+    /**
+     * Returns the version of tasks with the correlation ID. The version changes whenever a task of the correlation is
+     * added, updated or removed. The version is eventually consistent with the cluster.
+     *
+     * @param correlationID the correlation ID
+     * @return the version or null if versions of correlations are not available
+     */
+    String getCorrelationVersion(String correlationID);
+
+    /**
+     * Waits until the task reaches a final state or the timeout elapses. No thread is blocked while waiting.
+     *
+     * @param taskName name of existing task
+     * @param timeout maximal time to wait
+     * @return the task once final or the task in its current state after the timeout
+     */
+    CompletionStage<TaskDTO> awaitFinal(String taskName, Duration timeout);
+
+    /**
+     * Returns stream of transitions of tasks. The stream can be resumed after the last received event.
+     *
+     * @param correlationID OPTIONAL only transitions of tasks with this correlation ID
+     * @param since OPTIONAL id of the last received event
+     * @return stream of transition events
+     */
+    Multi<TransitionEventDTO> events(String correlationID, String since);
+
     /**
      * Returns all related services
      * (all dependants, all dependencies, dependants of dependencies, dependencies of dependants)
      *
      * @param taskName name of existing task
-     * @return set of related tasks
+     * @param depth maximal distance from the task (null for the whole connected graph)
+     * @param states states of returned tasks (null or empty for all states)
+     * @param projection fields of returned tasks
+     * @return related tasks and dependencies between them
      */
-    List<TaskDTO> getAllRelated(String taskName);
+    TaskGraphResponse getAllRelated(String taskName, Integer depth, Set<State> states, TaskProjection projection);
 
     /**
      * Used for communication with remote entity. Invoked by remote entity by provided callback. Remote entity responds
@@ -94,4 +152,16 @@ public interface TaskProvider {
      * @param beatTime the earliest time of the received request
      */
     void beat(String taskName, Object body, Instant beatTime);
+
+    /**
+     * Task with the version it was read at.
+     */
+    @Getter
+    @AllArgsConstructor
+    class VersionedTask {
+
+        private final String version;
+
+        private final TaskDTO task;
+    }
 }
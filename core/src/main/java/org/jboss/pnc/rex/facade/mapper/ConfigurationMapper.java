@@ -18,16 +18,23 @@
 package org.jboss.pnc.rex.facade.mapper;
 
 import org.jboss.pnc.rex.common.ConfigurationDefaults;
+import org.jboss.pnc.rex.common.enums.State;
 import org.jboss.pnc.rex.dto.ConfigurationDTO;
 import org.jboss.pnc.rex.model.Configuration;
 import org.mapstruct.*;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
 @Mapper(config = MapperCentralConfig.class, imports = {ConfigurationDefaults.class},
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.SET_TO_DEFAULT,
         nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
 public interface ConfigurationMapper extends EntityMapper<ConfigurationDTO, Configuration> {
 
     @Override
+    @Mapping(target = "notificationGroupFilter", ignore = true)
     ConfigurationDTO toDTO(Configuration dbEntity);
 
     @Mapping(target = "passResultsOfDependencies", defaultValue = "" + ConfigurationDefaults.passResultsOfDependencies)
@@ -39,6 +46,9 @@ public interface ConfigurationMapper extends EntityMapper<ConfigurationDTO, Conf
     @Mapping(target = "rollbackLimit", defaultValue = "" + ConfigurationDefaults.rollbackLimit)
     @Mapping(target = "heartbeatInterval", defaultExpression = "java( ConfigurationDefaults.heartbeatInterval )")
     @Mapping(target = "heartbeatInitialDelay", defaultExpression = "java( ConfigurationDefaults.heartbeatInitialDelay )")
+    @Mapping(target = "notificationPayload", defaultExpression = "java( ConfigurationDefaults.notificationPayload )")
+    @Mapping(target = "notificationFilter", expression = "java( toNotificationFilter(dtoEntity) )")
+    @BeanMapping(ignoreUnmappedSourceProperties = {"notificationFilter", "notificationGroupFilter"})
     @Named("std") //avoid ambiguity
     Configuration _toDB(ConfigurationDTO dtoEntity);
 
@@ -54,4 +64,20 @@ public interface ConfigurationMapper extends EntityMapper<ConfigurationDTO, Conf
 
         return _toDB(dtoEntity);
     }
+
+    /**
+     * Expands state groups of the filter into their states.
+     */
+    default Set<State> toNotificationFilter(ConfigurationDTO dtoEntity) {
+        Set<State> filter = EnumSet.noneOf(State.class);
+        if (dtoEntity.notificationFilter != null) {
+            filter.addAll(dtoEntity.notificationFilter);
+        }
+        if (dtoEntity.notificationGroupFilter != null) {
+            Arrays.stream(State.values())
+                    .filter(state -> dtoEntity.notificationGroupFilter.contains(state.getGroup()))
+                    .forEach(filter::add);
+        }
+        return filter.isEmpty() ? null : new HashSet<>(filter);
+    }
 }
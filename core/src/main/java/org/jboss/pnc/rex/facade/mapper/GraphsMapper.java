@@ -17,6 +17,9 @@
  */
 package org.jboss.pnc.rex.facade.mapper;
 
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.StateGroup;
 import org.jboss.pnc.rex.core.model.TaskGraph;
 import org.jboss.pnc.rex.dto.ConfigurationDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
@@ -25,13 +28,15 @@ import org.mapstruct.*;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
-@Mapper(config = MapperCentralConfig.class, uses = {EdgeMapper.class, CreateTaskMapper.class})
+@Mapper(config = MapperCentralConfig.class, uses = {EdgeMapper.class, CreateTaskMapper.class, RequestMapper.class})
 public interface GraphsMapper extends EntityMapper<CreateGraphRequest, TaskGraph> {
 
     @Override
     @Mapping(target = "edge", ignore = true)
     @Mapping(target = "queue", ignore = true)
+    @Mapping(target = "priority", ignore = true)
     @Mapping(target = "correlationID", ignore = true)
     @Mapping(target = "graphConfiguration", ignore = true)
     CreateGraphRequest toDTO(TaskGraph dbEntity);
@@ -41,7 +46,8 @@ public interface GraphsMapper extends EntityMapper<CreateGraphRequest, TaskGraph
     //correlationID is used in applyCorrelationID method
     //graphConfiguration is used in mergeWithGraphConfig method
     //queue is used in mergeWithGraphQueue method
-    @BeanMapping(ignoreUnmappedSourceProperties = {"correlationID", "graphConfiguration", "queue"})
+    //priority is used in mergeWithGraphPriority method
+    @BeanMapping(ignoreUnmappedSourceProperties = {"correlationID", "graphConfiguration", "queue", "priority"})
     TaskGraph toDB(CreateGraphRequest dtoEntity);
 
     @AfterMapping
@@ -92,6 +98,20 @@ public interface GraphsMapper extends EntityMapper<CreateGraphRequest, TaskGraph
         }
     }
 
+    @BeforeMapping
+    default void mergeWithGraphPriority(CreateGraphRequest request) {
+        if (request == null || request.getPriority() == null) {
+            return;
+        }
+
+        for (var entry : request.getVertices().entrySet()) {
+            // apply priority configured in the top of the graph if task has it unspecified
+            if (entry.getValue().getPriority() == null) {
+                entry.getValue().priority = request.getPriority();
+            }
+        }
+    }
+
     /**
      * Merge graph-level and task-level configuration into one. The task-level configuration has priority. A field will
      * be overridden only if the task-level field IS NULL.
@@ -113,7 +133,11 @@ public interface GraphsMapper extends EntityMapper<CreateGraphRequest, TaskGraph
                     graphConfig.heartbeatEnable,
                     graphConfig.heartbeatInitialDelay,
                     graphConfig.heartbeatInterval,
-                    graphConfig.heartbeatToleranceThreshold);
+                    graphConfig.heartbeatToleranceThreshold,
+                    graphConfig.notificationFilter,
+                    graphConfig.notificationGroupFilter,
+                    graphConfig.notificationPayload,
+                    graphConfig.notificationFields);
         }
 
         Boolean passResultsOfDependencies = taskConfig.passResultsOfDependencies;
@@ -160,6 +184,22 @@ public interface GraphsMapper extends EntityMapper<CreateGraphRequest, TaskGraph
         if (taskConfig.heartbeatToleranceThreshold == null && graphConfig.heartbeatToleranceThreshold != null) {
             heartbeatToleranceThreshold = graphConfig.heartbeatToleranceThreshold;
         }
+        Set<State> notificationFilter = taskConfig.notificationFilter;
+        if (taskConfig.notificationFilter == null && graphConfig.notificationFilter != null) {
+            notificationFilter = graphConfig.notificationFilter;
+        }
+        Set<StateGroup> notificationGroupFilter = taskConfig.notificationGroupFilter;
+        if (taskConfig.notificationGroupFilter == null && graphConfig.notificationGroupFilter != null) {
+            notificationGroupFilter = graphConfig.notificationGroupFilter;
+        }
+        NotificationPayload notificationPayload = taskConfig.notificationPayload;
+        if (taskConfig.notificationPayload == null && graphConfig.notificationPayload != null) {
+            notificationPayload = graphConfig.notificationPayload;
+        }
+        Set<String> notificationFields = taskConfig.notificationFields;
+        if (taskConfig.notificationFields == null && graphConfig.notificationFields != null) {
+            notificationFields = graphConfig.notificationFields;
+        }
 
         return new ConfigurationDTO(
                 passResultsOfDependencies,
@@ -172,6 +212,10 @@ public interface GraphsMapper extends EntityMapper<CreateGraphRequest, TaskGraph
                 heartbeatEnable,
                 heartbeatInitialDelay,
                 heartbeatInterval,
-                heartbeatToleranceThreshold);
+                heartbeatToleranceThreshold,
+                notificationFilter,
+                notificationGroupFilter,
+                notificationPayload,
+                notificationFields);
     }
 }
@@ -17,6 +17,7 @@
  */
 package org.jboss.pnc.rex.facade.mapper;
 
+import org.jboss.pnc.rex.common.enums.TaskProjection;
 import org.jboss.pnc.rex.model.Task;
 import org.jboss.pnc.rex.dto.TaskDTO;
 import org.mapstruct.*;
@@ -27,9 +28,38 @@ public interface TaskMapper extends EntityMapper<TaskDTO, Task> {
 
     @Override
     @BeanMapping(ignoreUnmappedSourceProperties = {"unfinishedDependencies", "serverResponses", "starting",
-            "controllerMode", "disposable", "rollbackMeta", "heartbeatMeta"})
+            "controllerMode", "disposable", "rollbackMeta", "heartbeatMeta", "stateChangedAt", "criticalPath"})
     TaskDTO toDTO(Task dbEntity);
 
+    /**
+     * Maps only the fields of the Task included in the projection.
+     */
+    default TaskDTO toDTO(Task dbEntity, TaskProjection projection) {
+        if (dbEntity == null) {
+            return null;
+        }
+        return switch (projection) {
+            case MINIMAL -> TaskDTO.builder()
+                    .name(dbEntity.getName())
+                    .correlationID(dbEntity.getCorrelationID())
+                    .queue(dbEntity.getQueue())
+                    .state(dbEntity.getState())
+                    .stopFlag(dbEntity.getStopFlag())
+                    .stoppedCause(dbEntity.getStoppedCause())
+                    .changeSequence(dbEntity.getChangeSequence())
+                    .build();
+            case STANDARD -> {
+                TaskDTO dto = toDTO(dbEntity);
+                dto.serverResponses = null;
+                dto.configuration = null;
+                dto.dependants = null;
+                dto.dependencies = null;
+                yield dto;
+            }
+            case FULL -> toDTO(dbEntity);
+        };
+    }
+
     @Override
     @Mapping(target = "controllerMode", ignore = true)
     @Mapping(target = "unfinishedDependencies", ignore = true)
@@ -40,6 +70,8 @@ public interface TaskMapper extends EntityMapper<TaskDTO, Task> {
     @Mapping(target = "disposable", ignore = true)
     @Mapping(target = "rollbackMeta", ignore = true)
     @Mapping(target = "heartbeatMeta", ignore = true)
+    @Mapping(target = "stateChangedAt", ignore = true)
+    @Mapping(target = "criticalPath", ignore = true)
 //    @BeanMapping(ignoreUnmappedSourceProperties = {"stopFlag"})
     Task toDB(TaskDTO dtoEntity);
 }
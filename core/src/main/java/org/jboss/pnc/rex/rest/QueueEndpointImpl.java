@@ -25,10 +25,16 @@ import org.jboss.pnc.rex.api.QueueEndpoint;
 import org.jboss.pnc.rex.common.exceptions.QueueMissingException;
 import org.jboss.pnc.rex.core.api.QueueManager;
 import org.jboss.pnc.rex.dto.responses.LongResponse;
+import org.jboss.pnc.rex.dto.responses.QueueNodeResponse;
+import org.jboss.pnc.rex.dto.responses.QueueStatsResponse;
+import org.jboss.pnc.rex.dto.responses.StartRateResponse;
 import org.jboss.pnc.rex.facade.api.OptionsProvider;
+import org.jboss.pnc.rex.facade.api.StatsProvider;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.List;
+
 @Slf4j
 @ApplicationScoped
 public class QueueEndpointImpl implements QueueEndpoint {
@@ -37,9 +43,12 @@ public class QueueEndpointImpl implements QueueEndpoint {
 
     private final QueueManager queue;
 
-    public QueueEndpointImpl(OptionsProvider optionsProvider, QueueManager queue) {
+    private final StatsProvider statsProvider;
+
+    public QueueEndpointImpl(OptionsProvider optionsProvider, QueueManager queue, StatsProvider statsProvider) {
         this.optionsProvider = optionsProvider;
         this.queue = queue;
+        this.statsProvider = statsProvider;
     }
 
     @Override
@@ -65,6 +74,16 @@ public class QueueEndpointImpl implements QueueEndpoint {
         return optionsProvider.getConcurrency(name);
     }
 
+    @Override
+    public LongResponse getEffectiveConcurrent() {
+        return getEffectiveConcurrentNamed(null);
+    }
+
+    @Override
+    public LongResponse getEffectiveConcurrentNamed(String name) {
+        return optionsProvider.getEffectiveConcurrency(name);
+    }
+
     @Override
     public LongResponse getRunning() {
         return getRunningNamed(null);
@@ -80,6 +99,74 @@ public class QueueEndpointImpl implements QueueEndpoint {
         return LongResponse.builder().number(runningCounter).build();
     }
 
+    @Override
+    public List<QueueStatsResponse> getStats() {
+        return statsProvider.getQueueStats();
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void setParent(String parent, Long minShare) {
+        setParentNamed(null, parent, minShare);
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void setParentNamed(String name, String parent, Long minShare) {
+        optionsProvider.setParent(name, parent, minShare == null ? 0 : minShare);
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void removeParent() {
+        removeParentNamed(null);
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void removeParentNamed(String name) {
+        optionsProvider.removeParent(name);
+    }
+
+    @Override
+    public List<QueueNodeResponse> getTree() {
+        return optionsProvider.getQueueTree();
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void setStartRate(Long perSecond, Long burst) {
+        setStartRateNamed(null, perSecond, burst);
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void setStartRateNamed(String name, Long perSecond, Long burst) {
+        optionsProvider.setStartRate(name, perSecond, burst == null ? perSecond : burst);
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void removeStartRate() {
+        removeStartRateNamed(null);
+    }
+
+    @Override
+    @RolesAllowed({ "pnc-app-rex-editor", "pnc-app-rex-user", "pnc-users-admin" })
+    public void removeStartRateNamed(String name) {
+        optionsProvider.removeStartRate(name);
+    }
+
+    @Override
+    public StartRateResponse getStartRate() {
+        return getStartRateNamed(null);
+    }
+
+    @Override
+    public StartRateResponse getStartRateNamed(String name) {
+        return optionsProvider.getStartRate(name);
+    }
+
     private Long getRunningCounter(String name) {
         return queue.getRunningCounter(name);
     }
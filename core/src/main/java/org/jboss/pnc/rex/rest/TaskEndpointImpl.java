@@ -18,29 +18,48 @@
 package org.jboss.pnc.rex.rest;
 
 import io.smallrye.faulttolerance.api.ApplyGuard;
+import io.smallrye.mutiny.subscription.MultiSubscriber;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import lombok.extern.slf4j.Slf4j;
 import org.jboss.pnc.rex.api.TaskEndpoint;
 import org.jboss.pnc.rex.api.parameters.TaskFilterParameters;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.TaskProjection;
 import org.jboss.pnc.rex.dto.TaskDTO;
+import org.jboss.pnc.rex.dto.TransitionEventDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.dto.responses.TaskGraphResponse;
+import org.jboss.pnc.rex.dto.responses.TaskStatsResponse;
+import org.jboss.pnc.rex.facade.api.StatsProvider;
 import org.jboss.pnc.rex.facade.api.TaskProvider;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
+@Slf4j
 @ApplicationScoped
 public class TaskEndpointImpl implements TaskEndpoint {
 
     private final TaskProvider taskProvider;
 
+    private final StatsProvider statsProvider;
+
     @Inject
-    public TaskEndpointImpl(TaskProvider taskProvider) {
+    public TaskEndpointImpl(TaskProvider taskProvider, StatsProvider statsProvider) {
         this.taskProvider = taskProvider;
+        this.statsProvider = statsProvider;
     }
 
     @Override
@@ -59,6 +78,17 @@ public class TaskEndpointImpl implements TaskEndpoint {
             queueFilter.add(null);
         }
 
+        if (filterParameters.getChangedSince() != null) {
+            return taskProvider.getChangedSince(
+                    filterParameters.getChangedSince(),
+                    filterParameters.getWaiting(),
+                    filterParameters.getRunning(),
+                    filterParameters.getFinished(),
+                    filterParameters.getRollingback(),
+                    queueFilter,
+                    filterParameters.getLimit());
+        }
+
         Boolean allFiltersAreFalse = !filterParameters.getFinished() && !filterParameters.getRunning() && !filterParameters.getWaiting() && !filterParameters.getRollingback();
 
         //If query is empty return all tasks
@@ -73,11 +103,34 @@ public class TaskEndpointImpl implements TaskEndpoint {
                 queueFilter);
     }
 
+    @Override
+    public TaskStatsResponse getStats() {
+        return statsProvider.getTaskStats();
+    }
+
+    @Override
+    public void events(String correlationID, String since, String lastEventID, SseEventSink sink, Sse sse) {
+        String resumeFrom = since != null ? since : lastEventID;
+
+        taskProvider.events(correlationID, resumeFrom)
+                .subscribe().withSubscriber(new SseSubscriber(sink, sse));
+    }
+
     @Override
     public TaskDTO getSpecific(String taskID) {
         return taskProvider.get(taskID);
     }
 
+    @Override
+    public CompletionStage<TaskDTO> await(String taskID, long timeout) {
+        return taskProvider.awaitFinal(taskID, Duration.ofSeconds(timeout));
+    }
+
+    @Override
+    public TaskGraphResponse graph(String taskID, Integer depth, Set<State> states, TaskProjection projection) {
+        return taskProvider.getAllRelated(taskID, depth, states, projection);
+    }
+
     @Override
     public Set<TaskDTO> byCorrelation(String correlationID) {
         return taskProvider.getByCorrelationID(correlationID);
@@ -91,4 +144,62 @@ public class TaskEndpointImpl implements TaskEndpoint {
 
         return Response.accepted().build();
     }
+
+    /**
+     * Sends events one by one and requests the next event only after the previous one was written. A slow client
+     * therefore fills the buffer of its subscription instead of memory of the instance.
+     */
+    private static class SseSubscriber implements MultiSubscriber<TransitionEventDTO> {
+
+        private final SseEventSink sink;
+
+        private final Sse sse;
+
+        private volatile Flow.Subscription subscription;
+
+        private SseSubscriber(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onItem(TransitionEventDTO event) {
+            if (sink.isClosed()) {
+                subscription.cancel();
+                return;
+            }
+
+            OutboundSseEvent sseEvent = sse.newEventBuilder()
+                    .id(event.getId())
+                    .name("transition")
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(TransitionEventDTO.class, event)
+                    .build();
+            sink.send(sseEvent).whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    subscription.cancel();
+                    sink.close();
+                } else {
+                    subscription.request(1);
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            log.debug("Transition event stream terminated.", failure);
+            sink.close();
+        }
+
+        @Override
+        public void onCompletion() {
+            sink.close();
+        }
+    }
 }
@@ -0,0 +1,101 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.rest.providers;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.facade.api.TaskProvider;
+import org.jboss.pnc.rex.facade.api.TaskProvider.VersionedTask;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+/**
+ * Conditional GET of a task and of tasks of a correlation.
+ *
+ * A single task is read together with the version of its cache entry, bypassing the near-cache, and the tagged
+ * response is answered directly from that read, so the tag always describes the returned task. The correlation listing
+ * gets a weak tag resolved before the listing is read. If the client already has the current version (If-None-Match),
+ * the request is answered with 304 Not Modified and nothing is mapped.
+ */
+public class EntityTagFilter {
+
+    private static final String ENTITY_TAG = "entity-tag";
+
+    private final TaskProvider taskProvider;
+
+    public EntityTagFilter(TaskProvider taskProvider) {
+        this.taskProvider = taskProvider;
+    }
+
+    @ServerRequestFilter
+    public Response evaluate(ContainerRequestContext requestContext, SimpleResourceInfo resourceInfo) {
+        if (!HttpMethod.GET.equals(requestContext.getMethod())
+                || !TaskEndpoint.class.isAssignableFrom(resourceInfo.getResourceClass())) {
+            return null;
+        }
+
+        var pathParameters = requestContext.getUriInfo().getPathParameters();
+        switch (resourceInfo.getMethodName()) {
+            case "getSpecific" -> {
+                VersionedTask versioned = taskProvider.getVersioned(pathParameters.getFirst("taskID"));
+                if (versioned == null) {
+                    // the resource answers with 404
+                    return null;
+                }
+                EntityTag tag = new EntityTag(versioned.getVersion());
+                Response.ResponseBuilder notModified = requestContext.getRequest().evaluatePreconditions(tag);
+                if (notModified != null) {
+                    return notModified.tag(tag).build();
+                }
+                return Response.ok(versioned.getTask(), MediaType.APPLICATION_JSON_TYPE).tag(tag).build();
+            }
+            case "byCorrelation" -> {
+                String version = taskProvider.getCorrelationVersion(pathParameters.getFirst("correlationID"));
+                if (version == null) {
+                    return null;
+                }
+                // the listing is eventually consistent and its ordering is not stable
+                EntityTag tag = new EntityTag(version, true);
+                Response.ResponseBuilder notModified = requestContext.getRequest().evaluatePreconditions(tag);
+                if (notModified != null) {
+                    return notModified.tag(tag).build();
+                }
+                requestContext.setProperty(ENTITY_TAG, tag);
+                return null;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    @ServerResponseFilter
+    public void tag(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object tag = requestContext.getProperty(ENTITY_TAG);
+        if (tag != null && responseContext.getStatus() == Response.Status.OK.getStatusCode()) {
+            responseContext.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.jboss.pnc.rex.api.QueueEndpoint;
+import org.jboss.pnc.rex.core.AdaptiveConcurrencyLimiter;
+import org.jboss.pnc.rex.test.common.AbstractTest;
+import org.jboss.pnc.rex.test.profile.WithAdaptiveConcurrency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.rex.test.profile.WithAdaptiveConcurrency.ADAPTIVE_QUEUE;
+
+@QuarkusTest
+@TestProfile(WithAdaptiveConcurrency.class)
+public class AdaptiveConcurrencyTest extends AbstractTest {
+
+    private static final Duration FAST = Duration.ofMillis(10);
+
+    @Inject
+    QueueEndpoint queue;
+
+    @Inject
+    AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void resetAdaptiveQueue() {
+        queue.setConcurrentNamed(ADAPTIVE_QUEUE, 8L);
+    }
+
+    @Test
+    void testDecreaseIsMultiplicative() {
+        assertThat(effective()).isEqualTo(8);
+
+        limiter.onResponse(ADAPTIVE_QUEUE, 503, FAST);
+        assertThat(effective()).isEqualTo(4);
+
+        limiter.onResponse(ADAPTIVE_QUEUE, 425, FAST);
+        assertThat(effective()).isEqualTo(2);
+
+        limiter.onConnectionFailure(ADAPTIVE_QUEUE);
+        assertThat(effective()).isEqualTo(1);
+
+        // lower bound
+        limiter.onResponse(ADAPTIVE_QUEUE, 500, FAST);
+        assertThat(effective()).isEqualTo(1);
+
+        // configured maximum is unaffected
+        assertThat(queue.getConcurrentNamed(ADAPTIVE_QUEUE).getNumber()).isEqualTo(8);
+    }
+
+    @Test
+    void testIncreaseIsAdditive() {
+        limiter.onResponse(ADAPTIVE_QUEUE, 503, FAST);
+        limiter.onResponse(ADAPTIVE_QUEUE, 503, FAST);
+        assertThat(effective()).isEqualTo(2);
+
+        // each healthy response adds 1/limit (2.5, 2.9, 3.24)
+        limiter.onResponse(ADAPTIVE_QUEUE, 200, FAST);
+        limiter.onResponse(ADAPTIVE_QUEUE, 200, FAST);
+        assertThat(effective()).isEqualTo(2);
+        limiter.onResponse(ADAPTIVE_QUEUE, 200, FAST);
+        assertThat(effective()).isEqualTo(3);
+
+        // client errors are not a sign of overload
+        limiter.onResponse(ADAPTIVE_QUEUE, 400, FAST);
+        assertThat(effective()).isEqualTo(3);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onResponse(ADAPTIVE_QUEUE, 200, FAST);
+        }
+        // upper bound
+        assertThat(effective()).isEqualTo(8);
+    }
+
+    @Test
+    void testSlowResponseDecreases() {
+        limiter.onResponse(ADAPTIVE_QUEUE, 200, Duration.ofMinutes(1));
+
+        assertThat(effective()).isEqualTo(4);
+    }
+
+    @Test
+    void testSettingMaximumRestartsAdaptation() {
+        limiter.onResponse(ADAPTIVE_QUEUE, 503, FAST);
+        assertThat(effective()).isEqualTo(4);
+
+        queue.setConcurrentNamed(ADAPTIVE_QUEUE, 20L);
+
+        assertThat(effective()).isEqualTo(20);
+    }
+
+    @Test
+    void testOtherQueuesAreNotAdapted() {
+        queue.setConcurrent(10L);
+
+        limiter.onResponse(null, 503, FAST);
+
+        assertThat(queue.getEffectiveConcurrent().getNumber()).isEqualTo(10);
+    }
+
+    private long effective() {
+        return queue.getEffectiveConcurrentNamed(ADAPTIVE_QUEUE).getNumber();
+    }
+}
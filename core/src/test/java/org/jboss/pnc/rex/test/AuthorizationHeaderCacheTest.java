@@ -0,0 +1,198 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import io.opentelemetry.api.OpenTelemetry;
+import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.jboss.pnc.rex.core.AuthorizationHeaderCache;
+import org.jboss.pnc.rex.core.config.TokenCacheConfig;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthorizationHeaderCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    @Test
+    void testHeaderIsCachedUntilTtl() {
+        AuthorizationHeaderCache cache = cache(() -> "Basic " + fetches.incrementAndGet());
+        cache.prime();
+
+        assertThat(cache.get()).isEqualTo("Basic 1");
+        assertThat(cache.get()).isEqualTo("Basic 1");
+
+        // expired header is served while it is refreshed in the background
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertThat(cache.get()).isEqualTo("Basic 1");
+        runLastScheduled();
+        assertThat(cache.get()).isEqualTo("Basic 2");
+    }
+
+    @Test
+    void testColdCacheDoesNotWaitForToken() {
+        AuthorizationHeaderCache cache = cache(() -> "Basic " + fetches.incrementAndGet());
+
+        assertThat(cache.get()).isNull();
+        assertThat(cache.get()).isNull();
+        assertThat(fetches).hasValue(0);
+
+        // a single background refresh for both requests
+        assertThat(scheduled).hasSize(1);
+        runLastScheduled();
+        assertThat(cache.get()).isEqualTo("Basic 1");
+    }
+
+    @Test
+    void testLastHeaderIsServedWhenRefreshFails() {
+        AtomicBoolean failing = new AtomicBoolean();
+        AuthorizationHeaderCache cache = cache(() -> {
+            if (failing.get()) {
+                throw new IllegalStateException("token endpoint is down");
+            }
+            return "Basic " + fetches.incrementAndGet();
+        });
+        cache.prime();
+
+        failing.set(true);
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertThat(cache.get()).isEqualTo("Basic 1");
+        runLastScheduled();
+        assertThat(cache.get()).isEqualTo("Basic 1");
+
+        failing.set(false);
+        runLastScheduled();
+        assertThat(cache.get()).isEqualTo("Basic 2");
+    }
+
+    @Test
+    void testExpiryIsReadFromJwt() {
+        long exp = Duration.ofMillis(now.get()).toSeconds() + 60;
+        AuthorizationHeaderCache cache = cache(() -> {
+            fetches.incrementAndGet();
+            return "Bearer " + jwt(exp);
+        });
+
+        cache.prime();
+        now.addAndGet(Duration.ofSeconds(59).toMillis());
+        cache.get();
+        assertThat(fetches).hasValue(1);
+
+        now.addAndGet(Duration.ofSeconds(1).toMillis());
+        cache.get();
+        runLastScheduled();
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void testProactiveRefresh() {
+        AuthorizationHeaderCache cache = cache(() -> "Basic " + fetches.incrementAndGet());
+        cache.prime();
+
+        // background refresh is scheduled once per refresh
+        assertThat(scheduled).hasSize(1);
+        scheduled.remove(0).run();
+
+        assertThat(cache.get()).isEqualTo("Basic 2");
+        assertThat(scheduled).hasSize(1);
+    }
+
+    @Test
+    void testUnauthorizedRefreshesOnlyStaleHeader() {
+        AuthorizationHeaderCache cache = cache(() -> "Basic " + fetches.incrementAndGet());
+        cache.prime();
+        long sentAt = cache.now();
+
+        now.incrementAndGet();
+        cache.invalidate(sentAt);
+        assertThat(cache.get()).isEqualTo("Basic 2");
+
+        // another request rejected with the same stale header doesn't refresh again
+        cache.invalidate(sentAt);
+        assertThat(cache.get()).isEqualTo("Basic 2");
+    }
+
+    private void runLastScheduled() {
+        scheduled.remove(scheduled.size() - 1).run();
+    }
+
+    private AuthorizationHeaderCache cache(Supplier<String> headers) {
+        TokenCacheConfig config = new TokenCacheConfig() {
+            @Override
+            public Duration ttl() {
+                return Duration.ofMinutes(5);
+            }
+
+            @Override
+            public Duration refreshAhead() {
+                return Duration.ofSeconds(30);
+            }
+        };
+        return new AuthorizationHeaderCache(new StubAuth(headers),
+                config,
+                (delay, task) -> scheduled.add(task),
+                OpenTelemetry.noop().getMeter("test"),
+                now::get);
+    }
+
+    private static String jwt(long exp) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8)) + ".sig";
+    }
+
+    private record StubAuth(Supplier<String> headers) implements PNCClientAuth {
+
+        @Override
+        public ClientAuthType getConfiguredType() {
+            return ClientAuthType.OIDC;
+        }
+
+        @Override
+        public String getAuthToken() {
+            return headers.get();
+        }
+
+        @Override
+        public String getHttpAuthorizationHeaderValue() {
+            return headers.get();
+        }
+
+        @Override
+        public String getHttpAuthorizationHeaderValueWithCachedToken() {
+            return headers.get();
+        }
+
+        @Override
+        public LDAPCredentials getLDAPCredentials() {
+            return null;
+        }
+    }
+}
@@ -19,20 +19,35 @@ package org.jboss.pnc.rex.test;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.security.TestSecurity;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.api.dto.Request;
+import org.jboss.pnc.rex.api.CallbackEndpoint;
 import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.api.parameters.ErrorOption;
 import org.jboss.pnc.rex.common.enums.Mode;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.model.requests.CorrelationNotificationRequest;
 import org.jboss.pnc.rex.test.common.AbstractTest;
 import org.jboss.pnc.rex.dto.TaskDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.test.endpoints.TransitionRecorderEndpoint;
 import org.junit.jupiter.api.Test;
 
 import jakarta.inject.Inject;
 
+import java.net.URI;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.rex.test.common.Assertions.waitSynchronouslyFor;
+import static org.jboss.pnc.rex.test.common.Assertions.waitTillTaskTransitionsInto;
+import static org.jboss.pnc.rex.test.common.Assertions.waitTillTasksAreFinishedWith;
 import static org.jboss.pnc.rex.test.common.RandomDAGGeneration.generateDAG;
 import static org.jboss.pnc.rex.test.common.TestData.getAllParameters;
+import static org.jboss.pnc.rex.test.common.TestData.getComplexGraph;
+import static org.jboss.pnc.rex.test.common.TestData.getSingleWithoutStart;
 
 @QuarkusTest
 public class CorrelationTest extends AbstractTest {
@@ -40,6 +55,15 @@ public class CorrelationTest extends AbstractTest {
     @Inject
     TaskEndpoint taskEndpoint;
 
+    @Inject
+    TransitionRecorderEndpoint recorderEndpoint;
+
+    @Inject
+    CallbackEndpoint callbackEndpoint;
+
+    @Inject
+    ManagedExecutor executor;
+
     @Test
     void testAllTasksGetCorrelated() {
         String correlationID = "heavy-metal";
@@ -96,6 +120,61 @@ public class CorrelationTest extends AbstractTest {
                 .containsOnlyNulls();
     }
 
+    @Test
+    void testCorrelationNotificationIsSentOnceAllTasksFinish() {
+        String correlationID = "doom-metal";
+        CreateGraphRequest request = getComplexGraph(true)
+                .toBuilder()
+                .correlationID(correlationID)
+                .correlationNotifications(Request.builder()
+                        .uri(URI.create("http://localhost:8081/transition/correlation"))
+                        .method(Request.Method.POST)
+                        .headers(List.of(new Request.Header("Content-Type", "application/json")))
+                        .attachment("hello")
+                        .build())
+                .build();
+
+        taskEndpoint.start(request);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, request.getVertices().keySet().toArray(new String[0]));
+
+        waitSynchronouslyFor(() -> !recorderEndpoint.getCorrelationRecords(correlationID).isEmpty(), 5, TimeUnit.SECONDS);
+        List<CorrelationNotificationRequest> records = recorderEndpoint.getCorrelationRecords(correlationID);
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getSummary())
+                .containsEntry(State.SUCCESSFUL, (long) request.getVertices().size())
+                .containsEntry(State.FAILED, 0L);
+    }
+
+    @Test
+    void testCorrelationNotificationWaitsForTasksOfPreviousInstalls() throws InterruptedException {
+        String correlationID = "sludge-metal";
+        taskEndpoint.start(getSingleWithoutStart("sludge-1").toBuilder().correlationID(correlationID).build());
+        waitTillTaskTransitionsInto(State.UP, "sludge-1");
+
+        CreateGraphRequest second = getComplexGraph(true)
+                .toBuilder()
+                .correlationID(correlationID)
+                .correlationNotifications(Request.builder()
+                        .uri(URI.create("http://localhost:8081/transition/correlation"))
+                        .method(Request.Method.POST)
+                        .headers(List.of(new Request.Header("Content-Type", "application/json")))
+                        .build())
+                .build();
+        taskEndpoint.start(second);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, second.getVertices().keySet().toArray(new String[0]));
+        Thread.sleep(200);
+
+        // the Task of the first install is still running
+        assertThat(recorderEndpoint.getCorrelationRecords(correlationID)).isEmpty();
+
+        executor.runAsync(() -> callbackEndpoint.succeed("sludge-1", "the-result", ErrorOption.IGNORE, Set.of()));
+        waitSynchronouslyFor(() -> !recorderEndpoint.getCorrelationRecords(correlationID).isEmpty(), 5, TimeUnit.SECONDS);
+        List<CorrelationNotificationRequest> records = recorderEndpoint.getCorrelationRecords(correlationID);
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getSummary())
+                .containsEntry(State.SUCCESSFUL, (long) second.getVertices().size() + 1);
+    }
+
     @Test
     void testQueryByNonExistingCorrelationID() {
         String correlationID = "trash-metal";
@@ -0,0 +1,157 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.pnc.rex.core.utils.CriticalPath;
+import org.jboss.pnc.rex.dto.EdgeDTO;
+import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.rex.test.common.RandomDAGGeneration.generateDAG;
+
+/**
+ * Simulation of a saturated queue dispatching random DAGs. Compares makespan (time until the whole graph finishes) of
+ * the default FIFO dispatch with critical-path dispatch.
+ */
+@Slf4j
+public class CriticalPathSimulationTest {
+
+    private static final int GRAPHS = 100;
+
+    private static final int SLOTS = 3;
+
+    private static final int MAX_DURATION = 10;
+
+    @Test
+    void testCriticalPathShortensMakespan() {
+        long fifoTotal = 0;
+        long criticalTotal = 0;
+        int better = 0;
+        int worse = 0;
+
+        for (int seed = 0; seed < GRAPHS; seed++) {
+            CreateGraphRequest graph = generateDAG(seed, 2, 10, 5, 10, 0.3F);
+            Map<String, Set<String>> dependants = new HashMap<>();
+            Map<String, Set<String>> dependencies = new HashMap<>();
+            for (String name : graph.getVertices().keySet()) {
+                dependants.put(name, new HashSet<>());
+                dependencies.put(name, new HashSet<>());
+            }
+            for (EdgeDTO edge : graph.getEdges()) {
+                // source depends on target
+                dependants.get(edge.getTarget()).add(edge.getSource());
+                dependencies.get(edge.getSource()).add(edge.getTarget());
+            }
+
+            Random random = new Random(seed);
+            Map<String, Integer> durations = new HashMap<>();
+            new TreeSet<>(graph.getVertices().keySet()).forEach(name -> durations.put(name, 1 + random.nextInt(MAX_DURATION)));
+
+            Map<String, Integer> depths = CriticalPath.downstreamDepth(dependants.keySet(), dependants::get, name -> 1);
+
+            long fifo = simulate(dependants, dependencies, durations, (a, b) -> 0);
+            long critical = simulate(dependants, dependencies, durations,
+                    Comparator.comparing((String name) -> depths.get(name)).reversed());
+            fifoTotal += fifo;
+            criticalTotal += critical;
+            if (critical < fifo) better++;
+            if (critical > fifo) worse++;
+        }
+
+        log.info("Simulated {} random graphs with {} slots. Total makespan FIFO: {}, critical-path: {} ({}% shorter). "
+                        + "Critical-path was better in {} graphs and worse in {} graphs.",
+                GRAPHS, SLOTS, fifoTotal, criticalTotal,
+                String.format("%.1f", 100.0 * (fifoTotal - criticalTotal) / fifoTotal), better, worse);
+
+        assertThat(criticalTotal).isLessThanOrEqualTo(fifoTotal);
+    }
+
+    @Test
+    void testDepthOfChain() {
+        // a <- b <- c, a <- d
+        Map<String, Set<String>> dependants = Map.of(
+                "a", Set.of("b", "d"),
+                "b", Set.of("c"),
+                "c", Set.of(),
+                "d", Set.of());
+
+        Map<String, Integer> depths = CriticalPath.downstreamDepth(dependants.keySet(), dependants::get, name -> 1);
+
+        assertThat(depths).containsEntry("a", 3).containsEntry("b", 2).containsEntry("c", 1).containsEntry("d", 1);
+    }
+
+    /**
+     * Event-driven simulation of a queue with limited slots. Ready tasks are ordered by the policy and then by the time
+     * they became ready (FIFO).
+     *
+     * @return time when the last task finished
+     */
+    private static long simulate(Map<String, Set<String>> dependants,
+                                 Map<String, Set<String>> dependencies,
+                                 Map<String, Integer> durations,
+                                 Comparator<String> policy) {
+        Map<String, Integer> unfinished = new HashMap<>();
+        Map<String, Long> enqueuedAt = new HashMap<>();
+        Comparator<String> order = policy
+                .thenComparing(enqueuedAt::get)
+                .thenComparing(Comparator.naturalOrder());
+        PriorityQueue<String> ready = new PriorityQueue<>(order);
+        PriorityQueue<long[]> running = new PriorityQueue<>(Comparator.comparingLong(event -> event[0]));
+        Map<Long, String> runningNames = new HashMap<>();
+
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            unfinished.put(entry.getKey(), entry.getValue().size());
+            if (entry.getValue().isEmpty()) {
+                enqueuedAt.put(entry.getKey(), 0L);
+                ready.add(entry.getKey());
+            }
+        }
+
+        long time = 0;
+        long sequence = 0;
+        while (!ready.isEmpty() || !running.isEmpty()) {
+            while (running.size() < SLOTS && !ready.isEmpty()) {
+                String task = ready.poll();
+                running.add(new long[]{time + durations.get(task), sequence});
+                runningNames.put(sequence++, task);
+            }
+
+            long[] finished = running.poll();
+            time = finished[0];
+            String task = runningNames.remove(finished[1]);
+            for (String dependant : dependants.get(task)) {
+                if (unfinished.merge(dependant, -1, Integer::sum) == 0) {
+                    enqueuedAt.put(dependant, time);
+                    ready.add(dependant);
+                }
+            }
+        }
+        return time;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import org.jboss.pnc.rex.core.utils.DeficitRoundRobin;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeficitRoundRobinTest {
+
+    @Test
+    void testSmallFlowIsNotStarvedByLargeFlow() {
+        DeficitRoundRobin<String> round = new DeficitRoundRobin<>(key -> 1);
+
+        Map<String, Long> allotment = round.allot(Map.of("huge", 1000L, "small", 3L), 4);
+
+        assertThat(allotment).containsEntry("huge", 2L).containsEntry("small", 2L);
+    }
+
+    @Test
+    void testSingleSlotsAlternate() {
+        DeficitRoundRobin<String> round = new DeficitRoundRobin<>(key -> 1);
+        Map<String, Long> backlog = new HashMap<>(Map.of("a", 10L, "b", 10L));
+
+        Map<String, Long> started = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            round.allot(backlog, 1).forEach((key, slots) -> {
+                started.merge(key, slots, Long::sum);
+                backlog.merge(key, -slots, Long::sum);
+            });
+        }
+
+        assertThat(started).containsEntry("a", 3L).containsEntry("b", 3L);
+    }
+
+    @Test
+    void testWeights() {
+        DeficitRoundRobin<String> round = new DeficitRoundRobin<>(key -> key.equals("heavy") ? 3 : 1);
+        Map<String, Long> backlog = new HashMap<>(Map.of("heavy", 100L, "light", 100L));
+
+        Map<String, Long> started = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            round.allot(backlog, 1).forEach((key, slots) -> {
+                started.merge(key, slots, Long::sum);
+                backlog.merge(key, -slots, Long::sum);
+            });
+        }
+
+        assertThat(started).containsEntry("heavy", 30L).containsEntry("light", 10L);
+    }
+
+    @Test
+    void testUnusedShareIsRedistributed() {
+        Map<String, Long> backlog = new HashMap<>();
+        backlog.put("a", 1L);
+        backlog.put(null, 10L);
+        DeficitRoundRobin<String> round = new DeficitRoundRobin<>(key -> 1);
+
+        Map<String, Long> allotment = round.allot(backlog, 5);
+
+        assertThat(allotment).containsEntry("a", 1L).containsEntry(null, 4L);
+    }
+
+    @Test
+    void testStalledFlowIsNotChargedAndSlotsGoToOthers() {
+        DeficitRoundRobin<String> round = new DeficitRoundRobin<>(key -> 1);
+        Map<String, Long> backlog = Map.of("blocked", 10L, "healthy", 10L);
+
+        Map<String, Long> allotment = round.allot(backlog, 4, (key, slots) -> key.equals("blocked") ? 0 : slots);
+        assertThat(allotment).doesNotContainKey("blocked").containsEntry("healthy", 4L);
+
+        // once its Tasks can start, the stalled flow gets its share
+        assertThat(round.allot(backlog, 2)).containsEntry("blocked", 1L).containsEntry("healthy", 1L);
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        DeficitRoundRobin<String> round = new DeficitRoundRobin<>(key -> 1);
+        Map<String, Long> backlog = new HashMap<>(Map.of("a", 10L, "b", 10L));
+
+        // allotment on a copy that is thrown away (f.e. rolled back) doesn't move the ring
+        Map<String, Long> discarded = round.copy().allot(backlog, 1);
+
+        Map<String, Long> first = round.allot(backlog, 1);
+        assertThat(first).isEqualTo(discarded);
+        assertThat(round.copy().allot(backlog, 1)).isNotEqualTo(first);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.common.enums.Mode;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.test.common.AbstractTest;
+import org.jboss.pnc.rex.test.profile.WithoutTaskCleaning;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.rex.test.common.Assertions.waitSynchronouslyFor;
+import static org.jboss.pnc.rex.test.common.Assertions.waitTillTasksAreFinishedWith;
+import static org.jboss.pnc.rex.test.common.TestData.getMockTaskWithoutStart;
+import static org.jboss.pnc.rex.test.common.TestData.getRequestFromSingleTask;
+
+@QuarkusTest
+@TestProfile(WithoutTaskCleaning.class) // keep stopped tasks readable
+public class EntityTagTest extends AbstractTest {
+
+    @TestHTTPEndpoint(TaskEndpoint.class)
+    @TestHTTPResource
+    URI taskEndpointURI;
+
+    @Inject
+    TaskEndpoint endpoint;
+
+    @Test
+    void testTaskIsNotSentWhenNotModified() {
+        String taskName = "tagged";
+        endpoint.start(getRequestFromSingleTask(getMockTaskWithoutStart(taskName, Mode.IDLE)));
+        String path = taskEndpointURI.getPath() + String.format(TaskEndpoint.GET_SPECIFIC_FMT, taskName);
+
+        String etag = given().get(path)
+                .then()
+                    .statusCode(200)
+                    .extract().header(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        given().header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get(path)
+                .then()
+                    .statusCode(304)
+                    .header(HttpHeaders.ETAG, etag);
+
+        endpoint.cancel(taskName);
+        waitTillTasksAreFinishedWith(State.STOPPED, taskName);
+
+        var response = given().header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get(path)
+                .then()
+                    .statusCode(200)
+                    .extract();
+        assertThat(response.header(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        // the body comes from the same read as the tag
+        assertThat(response.<String>path("state")).isEqualTo(State.STOPPED.name());
+    }
+
+    @Test
+    void testCorrelationListingIsNotSentWhenNotModified() {
+        String correlationID = "tagged-correlation";
+        CreateGraphRequest request = getRequestFromSingleTask(getMockTaskWithoutStart("correlated", Mode.IDLE))
+                .toBuilder()
+                .correlationID(correlationID)
+                .build();
+        endpoint.start(request);
+        String path = taskEndpointURI.getPath() + String.format(TaskEndpoint.GET_BY_CORRELATION_ID_FMT, correlationID);
+
+        // the version settles once the instance observes the change from the cache
+        AtomicReference<String> etag = new AtomicReference<>();
+        waitSynchronouslyFor(() -> {
+            String previous = etag.getAndSet(given().get(path).then().statusCode(200).extract().header(HttpHeaders.ETAG));
+            return previous != null && previous.equals(etag.get());
+        }, 5, TimeUnit.SECONDS);
+
+        given().header(HttpHeaders.IF_NONE_MATCH, etag.get())
+                .get(path)
+                .then()
+                    .statusCode(304);
+
+        endpoint.cancel("correlated");
+        waitTillTasksAreFinishedWith(State.STOPPED, "correlated");
+
+        given().header(HttpHeaders.IF_NONE_MATCH, etag.get())
+                .get(path)
+                .then()
+                    .statusCode(200);
+    }
+}
@@ -35,6 +35,7 @@ import org.jboss.pnc.rex.common.enums.CJobOperation;
 import org.jboss.pnc.rex.common.enums.ResourceType;
 import org.jboss.pnc.rex.common.enums.State;
 import org.jboss.pnc.rex.core.FailoverInitiator;
+import org.jboss.pnc.rex.core.QueueDispatcher;
 import org.jboss.pnc.rex.core.api.ClusteredJobRegistry;
 import org.jboss.pnc.rex.core.api.TaskContainer;
 import org.jboss.pnc.rex.core.config.ApplicationConfig;
@@ -49,6 +50,7 @@ import org.mockito.Mockito;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.Collections;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -76,6 +78,9 @@ public class FailoverInitiatorTest extends AbstractTest {
     @Inject
     ClusteredJobRegistry registry;
 
+    @Inject
+    QueueDispatcher dispatcher;
+
     /**
      * Override default Smallrye Config object scope which is @Dependent so that the config can be mocked.
      *
@@ -169,6 +174,32 @@ public class FailoverInitiatorTest extends AbstractTest {
         assertThat(jobReference.getOwner()).isEqualTo("very-nice-instance");
     }
 
+    @Test
+    void testDispatcherLeaseIsHandedOver() throws InterruptedException {
+        // given
+        assertThat(dispatcher.dispatchLocally(Collections.singleton(null))).containsExactly((String) null);
+        assertThat(dispatcher.holdsLease(null)).isTrue();
+
+        // when
+        initiator.failoverResources();
+        waitt(); // async stuff
+
+        // then
+        NodeResource handover = initiator.signal().get(QueueDispatcher.HANDOVER_PREFIX);
+        assertThat(handover).isNotNull();
+        assertThat(handover.getResourceType()).isEqualTo(ResourceType.QUEUE_DISPATCHER);
+
+        // when
+        Mockito.doReturn("very-nice-instance").when(appConfig).name();
+        initiator.takeAvailableResources();
+        waitt(); // async stuff
+
+        // then
+        assertThat(initiator.signal().get(QueueDispatcher.HANDOVER_PREFIX)).isNull(); // signal should be taken
+        assertThat(initiator.signal().get(QueueDispatcher.LEASE_PREFIX)).isNotNull(); // lease is never taken as signal
+        assertThat(dispatcher.holdsLease(null)).isTrue();
+    }
+
     private void waitt() throws InterruptedException {
         Thread.sleep(50);
     }
@@ -33,6 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.jboss.pnc.rex.common.enums.Method;
 import org.jboss.pnc.rex.common.exceptions.HttpResponseException;
 import org.jboss.pnc.rex.core.GenericVertxHttpClient;
+import org.jboss.pnc.rex.core.HostConnectionPool;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -51,6 +52,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
@@ -263,4 +265,34 @@ public class GenericHttpClientStandaloneTest {
         Duration duration = Duration.between(firstRequest.getRequest().getLoggedDate().toInstant(), lastRequest.getRequest().getLoggedDate().toInstant());
         Assertions.assertTrue(duration.abs().toMillis() < 5000, "Should not retry for more than 5 sec.");
     }
+
+    @Test
+    void shouldReuseConnectionPoolOfHost() {
+        // given
+        stubFor(get(urlPathMatching("/.*"))
+                    .willReturn(aResponse().withStatus(200).withFixedDelay(100))
+        );
+        URI first = URI.create("http://localhost:" + MOCK_SERVER_PORT + "/first");
+        URI second = URI.create("http://localhost:" + MOCK_SERVER_PORT + "/second");
+
+        // when
+        List<Uni<HttpResponse<Buffer>>> requests = Stream.of(first, second, first, second, first)
+                .map(uri -> httpClient.makeReactiveRequest(
+                        uri,
+                        Method.GET,
+                        Collections.emptyList(),
+                        "",
+                        (r) -> {},
+                        (r) -> Uni.createFrom().voidItem()))
+                .toList();
+        Uni.join().all(requests).andFailFast().await().atMost(Duration.of(5, ChronoUnit.SECONDS));
+
+        // expect
+        HostConnectionPool pool = httpClient.getPool(first);
+        assertThat(httpClient.getPool(second)).isSameAs(pool);
+        assertThat(pool.getHost()).isEqualTo("localhost:" + MOCK_SERVER_PORT);
+        assertThat(pool.getActive()).isZero();
+        assertThat(pool.getQueued()).isZero();
+        assertThat(pool.getWaited()).isGreaterThanOrEqualTo(5);
+    }
 }
@@ -0,0 +1,104 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import org.jboss.pnc.rex.core.HostCircuitBreaker;
+import org.jboss.pnc.rex.core.HostCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HostCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("host:80", true, 3, 100, 1, -1, now::get);
+
+        fail(breaker);
+        fail(breaker);
+        succeed(breaker);
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.admits(0)).isFalse();
+        assertThat(breaker.getRemainingOpen()).isEqualTo(100);
+    }
+
+    @Test
+    void testHalfOpenProbeClosesCircuit() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("host:80", true, 1, 100, 1, -1, now::get);
+        fail(breaker);
+
+        now.addAndGet(100);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.admits(0)).isTrue();
+        assertThat(breaker.admits(1)).isFalse();
+
+        boolean probe = breaker.onRequest();
+        assertThat(probe).isTrue();
+        assertThat(breaker.admits(0)).isFalse();
+
+        breaker.onResult(probe, true);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void testFailedProbeReopensCircuit() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("host:80", true, 1, 100, 1, -1, now::get);
+        fail(breaker);
+        now.addAndGet(100);
+
+        boolean probe = breaker.onRequest();
+        assertThat(breaker.onResult(probe, false)).isTrue();
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.getRemainingOpen()).isEqualTo(100);
+    }
+
+    @Test
+    void testInFlightLimit() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("host:80", false, 1, 100, 1, 2, now::get);
+
+        assertThat(breaker.admits(1)).isTrue();
+        assertThat(breaker.admits(2)).isFalse();
+
+        boolean first = breaker.onRequest();
+        breaker.onRequest();
+        assertThat(breaker.admits(0)).isFalse();
+
+        breaker.onResult(first, false);
+        assertThat(breaker.admits(0)).isTrue();
+        // disabled breaker never opens
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    private static void fail(HostCircuitBreaker breaker) {
+        breaker.onResult(breaker.onRequest(), false);
+    }
+
+    private static void succeed(HostCircuitBreaker breaker) {
+        breaker.onResult(breaker.onRequest(), true);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.jboss.pnc.api.dto.Request;
+import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.model.TransitionTime;
+import org.jboss.pnc.rex.test.common.AbstractTest;
+import org.jboss.pnc.rex.test.endpoints.TransitionRecorderEndpoint;
+import org.jboss.pnc.rex.test.profile.WithNotificationOutbox;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.rex.common.enums.Transition.ENQUEUED_to_STARTING;
+import static org.jboss.pnc.rex.common.enums.Transition.NEW_to_ENQUEUED;
+import static org.jboss.pnc.rex.common.enums.Transition.NEW_to_WAITING;
+import static org.jboss.pnc.rex.common.enums.Transition.STARTING_to_UP;
+import static org.jboss.pnc.rex.common.enums.Transition.UP_to_SUCCESSFUL;
+import static org.jboss.pnc.rex.common.enums.Transition.WAITING_to_ENQUEUED;
+import static org.jboss.pnc.rex.test.common.Assertions.waitSynchronouslyFor;
+import static org.jboss.pnc.rex.test.common.Assertions.waitTillTasksAreFinishedWith;
+import static org.jboss.pnc.rex.test.common.TestData.getAllParameters;
+import static org.jboss.pnc.rex.test.common.TestData.getComplexGraph;
+import static org.jboss.pnc.rex.test.common.TestData.getNotificationsRequest;
+
+@QuarkusTest
+@TestProfile(WithNotificationOutbox.class)
+public class NotificationOutboxTest extends AbstractTest {
+
+    @Inject
+    TaskEndpoint endpoint;
+
+    @Inject
+    TransitionRecorderEndpoint recorderEndpoint;
+
+    @Test
+    void testNotificationsAreDeliveredInOrder() {
+        CreateGraphRequest request = getComplexGraph(true, true);
+        endpoint.start(request);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, request.getVertices().keySet().toArray(new String[0]));
+
+        // final notifications were delivered so the graph got cleaned
+        waitSynchronouslyFor(() -> endpoint.getAll(getAllParameters(), null).isEmpty(), 5, TimeUnit.SECONDS);
+        Map<String, Set<TransitionTime>> records = recorderEndpoint.getRecordsWithTimestamps();
+        assertThat(records.keySet()).containsExactlyInAnyOrderElementsOf(request.getVertices().keySet());
+        assertThat(ordered(records, "a")).containsExactly(NEW_to_ENQUEUED, ENQUEUED_to_STARTING, STARTING_to_UP, UP_to_SUCCESSFUL);
+        assertThat(ordered(records, "j")).containsExactly(NEW_to_WAITING, WAITING_to_ENQUEUED, ENQUEUED_to_STARTING, STARTING_to_UP, UP_to_SUCCESSFUL);
+    }
+
+    @Test
+    void testFailedDeliveriesAreRetried() {
+        CreateGraphRequest request = getComplexGraph(true, true);
+        Request flaky = Request.builder()
+                .uri(URI.create("http://localhost:8081/transition/flaky"))
+                .method(Request.Method.POST)
+                .headers(getNotificationsRequest().getHeaders())
+                .attachment("hello")
+                .build();
+        request.getVertices().values().forEach(task -> task.callerNotifications = flaky);
+
+        endpoint.start(request);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, request.getVertices().keySet().toArray(new String[0]));
+
+        // every notification got through on the second attempt
+        waitSynchronouslyFor(() -> endpoint.getAll(getAllParameters(), null).isEmpty(), 5, TimeUnit.SECONDS);
+        Map<String, Set<TransitionTime>> records = recorderEndpoint.getRecordsWithTimestamps();
+        assertThat(records.keySet()).containsExactlyInAnyOrderElementsOf(request.getVertices().keySet());
+        assertThat(ordered(records, "a")).containsExactly(NEW_to_ENQUEUED, ENQUEUED_to_STARTING, STARTING_to_UP, UP_to_SUCCESSFUL);
+    }
+
+    private static Transition[] ordered(Map<String, Set<TransitionTime>> records, String task) {
+        return records.get(task).stream()
+                .sorted()
+                .map(TransitionTime::getTransition)
+                .toArray(Transition[]::new);
+    }
+}
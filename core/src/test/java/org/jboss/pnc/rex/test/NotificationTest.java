@@ -23,13 +23,23 @@ import org.eclipse.microprofile.context.ManagedExecutor;
 import org.jboss.pnc.rex.api.CallbackEndpoint;
 import org.jboss.pnc.rex.api.TaskEndpoint;
 import org.jboss.pnc.rex.api.parameters.ErrorOption;
+import org.jboss.pnc.rex.common.enums.Method;
 import org.jboss.pnc.rex.common.enums.Mode;
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
 import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.StateGroup;
 import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.common.exceptions.BadRequestException;
 import org.jboss.pnc.rex.core.GenericVertxHttpClient;
 import org.jboss.pnc.rex.core.TaskContainerImpl;
+import org.jboss.pnc.rex.core.mapper.MiniTaskMapper;
+import org.jboss.pnc.rex.dto.ConfigurationDTO;
 import org.jboss.pnc.rex.dto.CreateTaskDTO;
 import org.jboss.pnc.rex.dto.EdgeDTO;
+import org.jboss.pnc.rex.model.Configuration;
+import org.jboss.pnc.rex.model.Request;
+import org.jboss.pnc.rex.model.Task;
+import org.jboss.pnc.rex.model.requests.MinimizedTask;
 import org.jboss.pnc.rex.test.common.AbstractTest;
 import org.jboss.pnc.rex.test.common.TestData;
 import org.jboss.pnc.rex.test.endpoints.TransitionRecorderEndpoint;
@@ -48,6 +58,7 @@ import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.jboss.pnc.rex.common.enums.Transition.ENQUEUED_to_STARTING;
 import static org.jboss.pnc.rex.common.enums.Transition.NEW_to_ENQUEUED;
 import static org.jboss.pnc.rex.common.enums.Transition.NEW_to_WAITING;
@@ -77,6 +88,9 @@ public class NotificationTest extends AbstractTest {
     @Inject
     TaskContainerImpl container;
 
+    @Inject
+    MiniTaskMapper miniTaskMapper;
+
     @Inject
     TaskEndpoint endpoint;
 
@@ -113,6 +127,23 @@ public class NotificationTest extends AbstractTest {
         assertThat(records.get("j")).containsExactlyInAnyOrderElementsOf(Set.of(NEW_to_WAITING, WAITING_to_ENQUEUED, ENQUEUED_to_STARTING, STARTING_to_UP, UP_to_SUCCESSFUL));
     }
 
+    @Test
+    void testNotificationFilter() throws InterruptedException {
+        CreateGraphRequest request = getComplexGraph(true, true);
+        request.getVertices().values().forEach(task -> task.configuration = ConfigurationDTO.builder()
+                .notificationFilter(Set.of(State.UP))
+                .notificationGroupFilter(Set.of(StateGroup.FINAL))
+                .build());
+        endpoint.start(request);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, request.getVertices().keySet().toArray(new String[0]));
+
+        Thread.sleep(100);
+        Map<String, Set<Transition>> records = recorderEndpoint.getRecords();
+        assertThat(records.keySet()).containsExactlyInAnyOrderElementsOf(request.getVertices().keySet());
+        records.values().forEach(transitions ->
+                assertThat(transitions).containsExactlyInAnyOrder(STARTING_to_UP, UP_to_SUCCESSFUL));
+    }
+
     @Test
     void testNotificationOnCancel() throws InterruptedException {
         CreateGraphRequest request = getComplexGraphWithoutEnd(true, true);
@@ -373,4 +404,65 @@ public class NotificationTest extends AbstractTest {
         assertThat(endpoint.getAll(getAllParameters(), null)).extracting(TaskDTO::getName).doesNotContain(otherTaskName);
 
     }
+
+    @Test
+    void testNotificationPayloadProfiles() {
+        Request definition = Request.builder()
+                .url("http://localhost:8081/test/accept")
+                .method(Method.POST)
+                .attachment("a very large attachment")
+                .build();
+        Task.TaskBuilder task = Task.builder()
+                .name("task")
+                .correlationID("correlation")
+                .state(State.UP)
+                .dependants(Set.of("dependant"))
+                .remoteStart(definition)
+                .callerNotifications(definition);
+
+        MinimizedTask minimal = miniTaskMapper.minimizeForNotification(task
+                .configuration(Configuration.builder().notificationPayload(NotificationPayload.MINIMAL).build())
+                .build());
+        assertThat(minimal.getName()).isEqualTo("task");
+        assertThat(minimal.getState()).isEqualTo(State.UP);
+        assertThat(minimal.getDependants()).isNull();
+        assertThat(minimal.getRemoteStart()).isNull();
+
+        MinimizedTask standard = miniTaskMapper.minimizeForNotification(task
+                .configuration(Configuration.builder().notificationPayload(NotificationPayload.STANDARD).build())
+                .build());
+        assertThat(standard.getDependants()).containsExactly("dependant");
+        assertThat(standard.getRemoteStart()).isNull();
+        assertThat(standard.getCallerNotifications()).isNull();
+
+        MinimizedTask full = miniTaskMapper.minimizeForNotification(task
+                .configuration(Configuration.builder().notificationPayload(NotificationPayload.FULL).build())
+                .build());
+        assertThat(full.getRemoteStart()).isNotNull();
+
+        MinimizedTask explicit = miniTaskMapper.minimizeForNotification(task
+                .configuration(Configuration.builder()
+                        .notificationPayload(NotificationPayload.FULL)
+                        .notificationFields(Set.of("remoteStart"))
+                        .build())
+                .build());
+        assertThat(explicit.getName()).isEqualTo("task");
+        assertThat(explicit.getRemoteStart()).isNotNull();
+        assertThat(explicit.getState()).isNull();
+    }
+
+    @Test
+    void testUnknownNotificationFieldsAreRejected() {
+        CreateTaskDTO task = createMockTask(
+                "task",
+                Mode.IDLE,
+                getRequestWithStart("hello"),
+                getStopRequest("stop"),
+                getNotificationsRequest(),
+                null,
+                ConfigurationDTO.builder().notificationFields(Set.of("state", "doesNotExist")).build());
+
+        assertThatThrownBy(() -> endpoint.start(CreateGraphRequest.builder().vertex("task", task).build()))
+                .isInstanceOf(BadRequestException.class);
+    }
 }
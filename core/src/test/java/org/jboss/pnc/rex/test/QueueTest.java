@@ -18,28 +18,41 @@
 package org.jboss.pnc.rex.test;
 
 import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
 import io.quarkus.test.security.TestSecurity;
 import org.jboss.pnc.rex.api.QueueEndpoint;
 import org.jboss.pnc.rex.api.TaskEndpoint;
 import org.jboss.pnc.rex.api.parameters.TaskFilterParameters;
 import org.jboss.pnc.rex.common.enums.Mode;
 import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.StateGroup;
+import org.jboss.pnc.rex.common.exceptions.BadRequestException;
+import org.jboss.pnc.rex.common.exceptions.QueueMissingException;
+import org.jboss.pnc.rex.core.PokeCoalescer;
+import org.jboss.pnc.rex.core.QueueManagerImpl;
 import org.jboss.pnc.rex.core.TaskContainerImpl;
+import org.jboss.pnc.rex.dto.CreateTaskDTO;
 import org.jboss.pnc.rex.dto.EdgeDTO;
 import org.jboss.pnc.rex.dto.responses.LongResponse;
+import org.jboss.pnc.rex.dto.responses.QueueStatsResponse;
+import org.jboss.pnc.rex.dto.responses.TaskStatsResponse;
 import org.jboss.pnc.rex.test.common.AbstractTest;
 import org.jboss.pnc.rex.test.common.TestData;
 import org.jboss.pnc.rex.test.endpoints.HttpEndpoint;
 import org.jboss.pnc.rex.dto.TaskDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import jakarta.inject.Inject;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toMap;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -50,6 +63,8 @@ import static org.jboss.pnc.rex.test.common.Assertions.*;
 import static org.jboss.pnc.rex.test.common.RandomDAGGeneration.generateDAG;
 import static org.jboss.pnc.rex.test.common.TestData.getAllParameters;
 import static org.jboss.pnc.rex.test.common.TestData.getComplexGraph;
+import static org.jboss.pnc.rex.test.common.TestData.getMockTaskWithoutStart;
+import static org.jboss.pnc.rex.test.common.TestData.getRequestFromSingleTask;
 import static org.jboss.pnc.rex.test.common.TestData.getSingleWithoutStart;
 
 @QuarkusTest
@@ -69,6 +84,12 @@ public class QueueTest extends AbstractTest {
     @Inject
     QueueEndpoint queue;
 
+    @Inject
+    PokeCoalescer coalescer;
+
+    @InjectSpy
+    QueueManagerImpl queueManager;
+
     @Test
     void testNoServiceStartsWithMaxBeingZero() {
         queue.setConcurrent(0L);
@@ -127,6 +148,39 @@ public class QueueTest extends AbstractTest {
         waitTillTaskTransitionsInto(State.UP,EXISTING_KEY);
     }
 
+    @Test
+    void testHigherPriorityIsDequeuedFirst() throws InterruptedException {
+        queue.setConcurrent(0L);
+
+        CreateTaskDTO low = getMockTaskWithoutStart("low", Mode.ACTIVE);
+        low.priority = 1;
+        CreateTaskDTO mid = getMockTaskWithoutStart("mid", Mode.ACTIVE); // graph default
+        CreateTaskDTO high = getMockTaskWithoutStart("high", Mode.ACTIVE);
+        high.priority = 10;
+        CreateGraphRequest graph = CreateGraphRequest.builder()
+                .priority(5)
+                .vertex(low.name, low)
+                .vertex(high.name, high)
+                .vertex(mid.name, mid)
+                .build();
+        taskEndpoint.start(graph);
+        Thread.sleep(100);
+
+        Map<String, TaskDTO> tasks = taskEndpoint.getAll(getAllParameters(), null).stream()
+                .collect(toMap(TaskDTO::getName, Function.identity()));
+        assertThat(tasks.values()).extracting("state", State.class).allMatch(ENQUEUED::equals);
+        assertThat(tasks.get("mid").getPriority()).isEqualTo(5);
+
+        queue.setConcurrent(1L);
+        waitTillTaskTransitionsInto(State.UP, "high");
+        assertThat(taskEndpoint.getSpecific("mid").getState()).isEqualTo(ENQUEUED);
+        assertThat(taskEndpoint.getSpecific("low").getState()).isEqualTo(ENQUEUED);
+
+        queue.setConcurrent(2L);
+        waitTillTaskTransitionsInto(State.UP, "mid");
+        assertThat(taskEndpoint.getSpecific("low").getState()).isEqualTo(ENQUEUED);
+    }
+
     @Test
     void testRunningQueue() {
         queue.setConcurrent(1L);
@@ -144,6 +198,32 @@ public class QueueTest extends AbstractTest {
         assertThat(queueRecords.get(null)).allMatch(record -> record <= 1);
     }
 
+    @Test
+    void testBurstOfPokesIsCoalesced() throws InterruptedException {
+        queue.setConcurrent(0L);
+        httpEndpoint.startRecordingQueue();
+
+        CreateGraphRequest graph = getComplexGraph(true);
+        taskEndpoint.start(graph);
+        waitTillTasksAre(ENQUEUED, container, "a", "b");
+
+        // let pokes of the install pass
+        Thread.sleep(200);
+        Mockito.clearInvocations(queueManager);
+
+        IntStream.range(0, 100).parallel().forEach(i -> coalescer.request(i % 2 == 0 ? null : Collections.singleton(null)));
+        Thread.sleep(500);
+        Mockito.verify(queueManager, Mockito.atLeastOnce()).poke(Mockito.any());
+        Mockito.verify(queueManager, Mockito.atMost(5)).poke(Mockito.any());
+
+        queue.setConcurrent(2L);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, graph.getVertices().keySet().toArray(new String[0]));
+
+        Map<String, ? extends Collection<Long>> queueRecords = httpEndpoint.stopRecording();
+        assertThat(queueRecords.get(null)).allMatch(record -> record <= 2);
+        assertThat(queue.getRunning().getNumber()).isEqualTo(0L);
+    }
+
     @Test
     void testSetNamedQueue() {
         // with
@@ -209,6 +289,210 @@ public class QueueTest extends AbstractTest {
 
     }
 
+    @Test
+    void testStatsOfNamedQueue() throws InterruptedException {
+        // with
+        queue.setConcurrent(1000L);
+
+        String NAMED_QUEUE = "named";
+        queue.setConcurrentNamed(NAMED_QUEUE, 0L);
+        CreateGraphRequest graph = getComplexGraph(true);
+        graph.queue = NAMED_QUEUE;
+
+        // when
+        taskEndpoint.start(graph);
+        Thread.sleep(100);
+
+        // then
+        List<QueueStatsResponse> stats = queue.getStats();
+        assertThat(stats).extracting("queue", String.class).contains(null, NAMED_QUEUE);
+
+        QueueStatsResponse named = stats.stream()
+                .filter(stat -> NAMED_QUEUE.equals(stat.getQueue()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(named.getMaxConcurrency()).isEqualTo(0L);
+        assertThat(named.getRunning()).isEqualTo(0L);
+        assertThat(named.getGroups())
+                .containsEntry(StateGroup.QUEUED, 2L)
+                .containsEntry(StateGroup.IDLE, 8L)
+                .containsEntry(StateGroup.RUNNING, 0L);
+        assertThat(named.getOldestEnqueuedAge()).isNotNull();
+
+        TaskStatsResponse taskStats = taskEndpoint.getStats();
+        assertThat(taskStats.getStates())
+                .containsEntry(ENQUEUED, 2L)
+                .containsEntry(WAITING, 8L);
+        assertThat(taskStats.getGroups()).containsEntry(StateGroup.QUEUED, 2L);
+        assertThat(taskStats.getOldestEnqueuedAge()).isNotNull();
+    }
+
+    @Test
+    void testParentQueueBoundsChildren() throws InterruptedException {
+        String PARENT = "parent";
+        String CHILD_A = "child-a";
+        String CHILD_B = "child-b";
+        queue.setConcurrentNamed(PARENT, 1L);
+        queue.setConcurrentNamed(CHILD_A, 10L);
+        queue.setConcurrentNamed(CHILD_B, 10L);
+        queue.setParentNamed(CHILD_A, PARENT, 0L);
+        queue.setParentNamed(CHILD_B, PARENT, 0L);
+
+        try {
+            CreateGraphRequest graph = CreateGraphRequest.builder()
+                    .vertex("a1", inQueue(getMockTaskWithoutStart("a1", Mode.ACTIVE), CHILD_A))
+                    .vertex("a2", inQueue(getMockTaskWithoutStart("a2", Mode.ACTIVE), CHILD_A))
+                    .vertex("b1", inQueue(getMockTaskWithoutStart("b1", Mode.ACTIVE), CHILD_B))
+                    .build();
+            taskEndpoint.start(graph);
+            Thread.sleep(200);
+
+            assertThat(taskEndpoint.getAll(getAllParameters(), null))
+                    .extracting("state", State.class)
+                    .filteredOn(State.UP::equals)
+                    .hasSize(1);
+            assertThat(queue.getTree()).extracting("queue", String.class).containsExactly(CHILD_A, CHILD_B);
+
+            // raising the parent limit starts Tasks of both children
+            queue.setConcurrentNamed(PARENT, 3L);
+            waitTillTasksAre(State.UP, container, "a1", "a2", "b1");
+        } finally {
+            queue.removeParentNamed(CHILD_A);
+            queue.removeParentNamed(CHILD_B);
+        }
+    }
+
+    @Test
+    void testGuaranteedShareWithinParent() throws InterruptedException {
+        String PARENT = "parent";
+        String CHILD_A = "child-a";
+        String CHILD_B = "child-b";
+        queue.setConcurrentNamed(PARENT, 1L);
+        queue.setConcurrentNamed(CHILD_A, 10L);
+        queue.setConcurrentNamed(CHILD_B, 10L);
+        queue.setParentNamed(CHILD_A, PARENT, 0L);
+        queue.setParentNamed(CHILD_B, PARENT, 1L);
+
+        try {
+            CreateGraphRequest graph = CreateGraphRequest.builder()
+                    .vertex("a1", inQueue(getMockTaskWithoutStart("a1", Mode.ACTIVE), CHILD_A))
+                    .vertex("a2", inQueue(getMockTaskWithoutStart("a2", Mode.ACTIVE), CHILD_A))
+                    .build();
+            taskEndpoint.start(graph);
+            Thread.sleep(200);
+
+            // the only slot of the parent is reserved for 'child-b'
+            assertThat(taskEndpoint.getAll(getAllParameters(), null))
+                    .extracting("state", State.class)
+                    .allMatch(ENQUEUED::equals);
+
+            taskEndpoint.start(CreateGraphRequest.builder()
+                    .vertex("b1", inQueue(getMockTaskWithoutStart("b1", Mode.ACTIVE), CHILD_B))
+                    .build());
+            waitTillTaskTransitionsInto(State.UP, "b1");
+        } finally {
+            queue.removeParentNamed(CHILD_A);
+            queue.removeParentNamed(CHILD_B);
+        }
+    }
+
+    @Test
+    void testGuaranteedSharesCannotExceedParentMaximum() {
+        queue.setConcurrentNamed("parent", 2L);
+        queue.setConcurrentNamed("child-a", 2L);
+        queue.setConcurrentNamed("child-b", 2L);
+        queue.setParentNamed("child-a", "parent", 1L);
+
+        try {
+            assertThatThrownBy(() -> queue.setParentNamed("child-b", "parent", 2L))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> queue.setParentNamed("child-a", "parent", 3L))
+                    .isInstanceOf(BadRequestException.class);
+
+            // the current share of 'child-a' is replaced, not added
+            queue.setParentNamed("child-a", "parent", 2L);
+            assertThatThrownBy(() -> queue.setParentNamed("child-b", "parent", 1L))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> queue.setConcurrentNamed("parent", 1L))
+                    .isInstanceOf(BadRequestException.class);
+            assertThat(queue.getConcurrentNamed("parent").getNumber()).isEqualTo(2L);
+        } finally {
+            queue.removeParentNamed("child-a");
+            queue.removeParentNamed("child-b");
+        }
+    }
+
+    @Test
+    void testParentCannotBeDescendant() {
+        queue.setConcurrentNamed("parent", 1L);
+        queue.setConcurrentNamed("child", 1L);
+        queue.setParentNamed("child", "parent", 0L);
+
+        try {
+            assertThatThrownBy(() -> queue.setParentNamed("parent", "child", 0L))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> queue.setParentNamed("child", "missing", 0L))
+                    .isInstanceOf(QueueMissingException.class);
+        } finally {
+            queue.removeParentNamed("child");
+        }
+    }
+
+    @Test
+    void testStartRateLimitsBurst() throws InterruptedException {
+        String RATED = "rated";
+        queue.setConcurrentNamed(RATED, 1000L);
+        queue.setStartRateNamed(RATED, 1L, 2L);
+
+        try {
+            assertThat(queue.getStartRateNamed(RATED).getBurst()).isEqualTo(2L);
+
+            CreateGraphRequest graph = CreateGraphRequest.builder()
+                    .vertex("r1", inQueue(getMockTaskWithoutStart("r1", Mode.ACTIVE), RATED))
+                    .vertex("r2", inQueue(getMockTaskWithoutStart("r2", Mode.ACTIVE), RATED))
+                    .vertex("r3", inQueue(getMockTaskWithoutStart("r3", Mode.ACTIVE), RATED))
+                    .vertex("r4", inQueue(getMockTaskWithoutStart("r4", Mode.ACTIVE), RATED))
+                    .build();
+            taskEndpoint.start(graph);
+            Thread.sleep(200);
+
+            // only the burst starts despite free concurrency
+            assertThat(taskEndpoint.getAll(getAllParameters(), null))
+                    .extracting("state", State.class)
+                    .filteredOn(State.UP::equals)
+                    .hasSize(2);
+
+            // the rest starts as tokens are refilled
+            waitTillTasksAre(State.UP, container, "r1", "r2", "r3", "r4");
+        } finally {
+            queue.removeStartRateNamed(RATED);
+        }
+        assertThat(queue.getStartRateNamed(RATED).getPerSecond()).isNull();
+    }
+
+    @Test
+    void testTooHighStartRateIsRejected() {
+        String RATED = "rated-too-fast";
+        queue.setConcurrentNamed(RATED, 1000L);
+
+        assertThatThrownBy(() -> queue.setStartRateNamed(RATED, 1_000_001L, 1L))
+                .isInstanceOf(BadRequestException.class);
+
+        // the highest rate still starts tasks
+        queue.setStartRateNamed(RATED, 1_000_000L, 1L);
+        try {
+            taskEndpoint.start(getRequestFromSingleTask(inQueue(getMockTaskWithoutStart("fast", Mode.ACTIVE), RATED)));
+            waitTillTasksAre(State.UP, container, "fast");
+        } finally {
+            queue.removeStartRateNamed(RATED);
+        }
+    }
+
+    private static CreateTaskDTO inQueue(CreateTaskDTO task, String queueName) {
+        task.queue = queueName;
+        return task;
+    }
+
     @Test
     void testTasksCompleteWithNamedQueue() throws InterruptedException {
         queue.setConcurrent(0L); // make sure default queue is not affecting
@@ -0,0 +1,80 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import org.jboss.pnc.rex.core.model.QueueTree;
+import org.jboss.pnc.rex.model.QueueNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueueTreeTest {
+
+    // root <- mid <- {a, b}, root <- DEFAULT
+    private final QueueTree tree = new QueueTree(List.of(
+            node("mid", "root", 0),
+            node("a", "mid", 0),
+            node("b", "mid", 2),
+            node(null, "root", 0)));
+
+    @Test
+    void testRelatives() {
+        assertThat(tree.relativesOf(Set.of("a"))).containsExactlyInAnyOrder("root", "mid", "a", "b", null);
+        assertThat(tree.relativesOf(Set.of("unrelated"))).containsExactly("unrelated");
+        assertThat(tree.ancestorsOf("a")).containsExactly("mid", "root");
+    }
+
+    @Test
+    void testQueueWithoutParentIsNotLimited() {
+        assertThat(tree.allowance("root", Map.of("root", 1L), Map.of())).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void testParentLimitAndReservedShare() {
+        Map<String, Long> max = Map.of("mid", 5L, "root", 10L);
+        Map<String, Long> running = new HashMap<>(Map.of("a", 2L));
+
+        // 5 - 2 running - 2 reserved for 'b'
+        assertThat(tree.allowance("a", max, running)).isEqualTo(1);
+        // 2 reserved + 1 shared
+        assertThat(tree.allowance("b", max, running)).isEqualTo(3);
+
+        running.put("a", 3L);
+        assertThat(tree.allowance("a", max, running)).isEqualTo(0);
+        assertThat(tree.allowance("b", max, running)).isEqualTo(2);
+    }
+
+    @Test
+    void testGrandparentLimit() {
+        Map<String, Long> max = Map.of("mid", 5L, "root", 3L);
+        Map<String, Long> running = new HashMap<>();
+        running.put(null, 2L);
+
+        // 'mid' would permit 3 but 'root' has only 1 left
+        assertThat(tree.allowance("a", max, running)).isEqualTo(1);
+    }
+
+    private static QueueNode node(String name, String parent, long minShare) {
+        return QueueNode.builder().name(name).parent(parent).minShare(minShare).build();
+    }
+}
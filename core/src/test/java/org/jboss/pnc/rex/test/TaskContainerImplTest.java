@@ -20,6 +20,7 @@ package org.jboss.pnc.rex.test;
 import static io.restassured.RestAssured.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.jboss.pnc.rex.test.common.Assertions.*;
 import static org.jboss.pnc.rex.test.common.RandomDAGGeneration.generateDAG;
 import static org.jboss.pnc.rex.test.common.TestData.*;
@@ -40,6 +41,7 @@ import org.jboss.pnc.rex.api.TaskEndpoint;
 import org.jboss.pnc.rex.common.enums.Mode;
 import org.jboss.pnc.rex.common.enums.Origin;
 import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.TaskProjection;
 import org.jboss.pnc.rex.common.exceptions.BadRequestException;
 import org.jboss.pnc.rex.common.exceptions.CircularDependencyException;
 import org.jboss.pnc.rex.common.exceptions.ConstraintConflictException;
@@ -55,6 +57,7 @@ import org.jboss.pnc.rex.dto.CreateTaskDTO;
 import org.jboss.pnc.rex.dto.EdgeDTO;
 import org.jboss.pnc.rex.dto.TaskDTO;
 import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.dto.responses.TaskGraphResponse;
 import org.jboss.pnc.rex.model.Request;
 import org.jboss.pnc.rex.model.Task;
 
@@ -70,6 +73,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @QuarkusTest
 @Slf4j
@@ -130,6 +134,42 @@ class TaskContainerImplTest extends AbstractTest {
         assertThat(queue.getRunning().getNumber()).isEqualTo(0);
     }
 
+    @Test
+    public void testNearCacheIsInvalidated() throws Exception {
+        assertThat(container.getCachedTask(EXISTING_KEY).getControllerMode()).isEqualTo(Mode.IDLE);
+
+        // local write invalidates after commit
+        TransactionManager tm = container.getCache().getTransactionManager();
+        tm.begin();
+        controller.setMode(EXISTING_KEY, Mode.CANCEL);
+        tm.commit();
+
+        assertThat(container.getCachedTask(EXISTING_KEY).getControllerMode()).isEqualTo(Mode.CANCEL);
+
+        // write that bypasses the near-cache is picked up through server event
+        Task task = container.getTask(EXISTING_KEY);
+        container.getCache().put(EXISTING_KEY, task.toBuilder().controllerMode(Mode.ACTIVE).build());
+
+        waitSynchronouslyFor(() -> container.getCachedTask(EXISTING_KEY).getControllerMode() == Mode.ACTIVE,
+                5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testStateIndexCounts() throws Exception {
+        assertThat(container.getTaskCount(null, State.NEW)).isEqualTo(1);
+        assertThat(container.getTasks(true, false, false, false, false, null)).extracting("name", String.class)
+                .containsExactly(EXISTING_KEY);
+
+        TransactionManager tm = container.getCache().getTransactionManager();
+        tm.begin();
+        controller.setMode(EXISTING_KEY, Mode.CANCEL);
+        tm.commit();
+
+        // the task is cleaned right after it is stopped
+        waitSynchronouslyFor(() -> container.getTaskCount(null, State.NEW) == 0, 5, TimeUnit.SECONDS);
+        assertThat(container.getTasks(true, true, true, true, true, null)).isEmpty();
+    }
+
     @Test
     public void testInstall() throws Exception {
         taskEndpoint.start(CreateGraphRequest.builder()
@@ -562,7 +602,7 @@ class TaskContainerImplTest extends AbstractTest {
                         .name("service2")
                         .remoteStart(getRequestWithStart("I am service2!"))
                         .remoteCancel(getStopRequestWithCallback("I am service2!"))
-                        .configuration(new ConfigurationDTO(true, false, false, null, null, false, 3, false, null, null, null))
+                        .configuration(new ConfigurationDTO(true, false, false, null, null, false, 3, false, null, null, null, null, null, null, null))
                         .build())
                 .build());
 
@@ -598,7 +638,7 @@ class TaskContainerImplTest extends AbstractTest {
                         .name("service2")
                         .remoteStart(getRequestWithStart("I am service2!"))
                         .remoteCancel(getStopRequestWithCallback("I am service2!"))
-                        .configuration(new ConfigurationDTO(false, false, false, null, null, false, 3, false, null, null, null))
+                        .configuration(new ConfigurationDTO(false, false, false, null, null, false, 3, false, null, null, null, null, null, null, null))
                         .build())
                 .build());
 
@@ -690,4 +730,36 @@ class TaskContainerImplTest extends AbstractTest {
             .extracting("name")
             .contains(EXISTING_KEY);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGraphOfRelatedTasks() {
+        taskEndpoint.start(getComplexGraph(false));
+
+        TaskGraphResponse whole = taskEndpoint.graph("a", null, null, TaskProjection.FULL);
+        assertThat(whole.getNodes())
+                .extracting(TaskDTO::getName)
+                .containsExactlyInAnyOrder("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        assertThat(whole.getNodes().get(0).getName()).isEqualTo("a");
+        assertThat(whole.getEdges()).hasSize(13);
+
+        TaskGraphResponse neighbourhood = taskEndpoint.graph("a", 1, null, TaskProjection.MINIMAL);
+        assertThat(neighbourhood.getNodes())
+                .extracting(TaskDTO::getName)
+                .containsExactlyInAnyOrder("a", "c", "d");
+        assertThat(neighbourhood.getNodes()).allSatisfy(node -> assertThat(node.getConfiguration()).isNull());
+        assertThat(neighbourhood.getEdges())
+                .extracting(EdgeDTO::getSource, EdgeDTO::getTarget)
+                .containsExactlyInAnyOrder(tuple("c", "a"), tuple("d", "a"));
+
+        // relations are given by the edges
+        TaskGraphResponse standard = taskEndpoint.graph("a", 1, null, TaskProjection.STANDARD);
+        assertThat(standard.getNodes()).allSatisfy(node -> {
+            assertThat(node.getState()).isNotNull();
+            assertThat(node.getServerResponses()).isNull();
+            assertThat(node.getConfiguration()).isNull();
+            assertThat(node.getDependants()).isNull();
+        });
+
+        assertThat(taskEndpoint.graph("a", null, Set.of(State.SUCCESSFUL), TaskProjection.FULL).getNodes()).isEmpty();
+    }
+}
@@ -17,13 +17,17 @@
  */
 package org.jboss.pnc.rex.test;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.TestProfile;
 import io.quarkus.test.security.TestSecurity;
 import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.api.parameters.TaskFilterParameters;
+import org.jboss.pnc.rex.common.enums.Mode;
 import org.jboss.pnc.rex.common.enums.State;
 import org.jboss.pnc.rex.common.enums.StopFlag;
 import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.core.ChangeSequencer;
 import org.jboss.pnc.rex.test.common.AbstractTest;
 import org.jboss.pnc.rex.dto.TaskDTO;
 import org.jboss.pnc.rex.dto.TransitionTimeDTO;
@@ -50,6 +54,8 @@ import static org.jboss.pnc.rex.common.enums.Transition.WAITING_to_ENQUEUED;
 import static org.jboss.pnc.rex.test.common.Assertions.waitTillTasksAreFinishedWith;
 import static org.jboss.pnc.rex.test.common.TestData.getAllParameters;
 import static org.jboss.pnc.rex.test.common.TestData.getComplexGraph;
+import static org.jboss.pnc.rex.test.common.TestData.getMockTaskWithoutStart;
+import static org.jboss.pnc.rex.test.common.TestData.getRequestFromSingleTask;
 import static org.jboss.pnc.rex.test.common.TestData.getRequestWithNegativeCallback;
 
 /**
@@ -62,6 +68,9 @@ public class TaskContainerNoCleanTest extends AbstractTest {
     @Inject
     TaskEndpoint taskEndpoint;
 
+    @Inject
+    ChangeSequencer sequencer;
+
     @Test
     void shouldFailATaskAndDependants() {
         CreateGraphRequest graphRequest = getComplexGraph(true);
@@ -120,6 +129,64 @@ public class TaskContainerNoCleanTest extends AbstractTest {
 
     }
 
+    @Test
+    void testOnlyChangedTasksAreReturned() {
+        CreateGraphRequest request = getComplexGraph(true);
+        taskEndpoint.start(request);
+        waitTillTasksAreFinishedWith(State.SUCCESSFUL, request.getVertices().keySet().toArray(new String[0]));
+
+        long lastSeen = taskEndpoint.getAll(getAllParameters(), null).stream()
+                .mapToLong(TaskDTO::getChangeSequence)
+                .max()
+                .orElseThrow();
+
+        taskEndpoint.start(getRequestFromSingleTask(getMockTaskWithoutStart("changed", Mode.IDLE)));
+
+        TaskFilterParameters changedSince = new TaskFilterParameters();
+        changedSince.setWaiting(false);
+        changedSince.setRunning(false);
+        changedSince.setFinished(false);
+        changedSince.setRollingback(false);
+        changedSince.setChangedSince(lastSeen);
+        changedSince.setLimit(1000);
+
+        Set<TaskDTO> changed = taskEndpoint.getAll(changedSince, null);
+        assertThat(changed).extracting(TaskDTO::getName).containsExactly("changed");
+        assertThat(changed.iterator().next().getChangeSequence()).isGreaterThan(lastSeen);
+
+        changedSince.setChangedSince(changed.iterator().next().getChangeSequence());
+        assertThat(taskEndpoint.getAll(changedSince, null)).isEmpty();
+
+        // states are filtered by the query and pages continue after the last returned sequence
+        changedSince.setFinished(true);
+        changedSince.setChangedSince(0L);
+        changedSince.setLimit(4);
+        Set<TaskDTO> firstPage = taskEndpoint.getAll(changedSince, null);
+        assertThat(firstPage).hasSize(4)
+                .extracting(TaskDTO::getState)
+                .containsOnly(State.SUCCESSFUL);
+        assertThat(firstPage).extracting(TaskDTO::getChangeSequence).isSorted();
+
+        changedSince.setChangedSince(firstPage.stream().mapToLong(TaskDTO::getChangeSequence).max().orElseThrow());
+        changedSince.setLimit(1000);
+        Set<TaskDTO> rest = taskEndpoint.getAll(changedSince, null);
+        assertThat(rest).hasSize(request.getVertices().size() - 4)
+                .extracting(TaskDTO::getName)
+                .doesNotContainAnyElementsOf(firstPage.stream().map(TaskDTO::getName).toList());
+    }
+
+    @Test
+    void testUncommittedSequenceHoldsCursorBack() {
+        long issued = QuarkusTransaction.requiringNew().call(() -> {
+            long sequence = sequencer.next(0);
+            // a change stamped with the sequence is not visible yet
+            assertThat(sequencer.safeCursor()).isLessThan(sequence);
+            return sequence;
+        });
+
+        assertThat(sequencer.safeCursor()).isGreaterThanOrEqualTo(issued);
+    }
+
     private static void containsInTimeOrder(Map<String, List<TransitionTimeDTO>> times, String task, Transition... transitions) {
         assertThat(times.get(task))
                 .map(TransitionTimeDTO::getTransition)
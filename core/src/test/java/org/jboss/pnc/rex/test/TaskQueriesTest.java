@@ -0,0 +1,97 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import io.quarkus.infinispan.client.Remote;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.jboss.pnc.rex.api.QueueEndpoint;
+import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.core.infinispan.TaskQueries;
+import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.model.Task;
+import org.jboss.pnc.rex.test.common.AbstractTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.rex.test.common.TestData.getComplexGraph;
+
+@QuarkusTest
+public class TaskQueriesTest extends AbstractTest {
+
+    private static final String NAMED_QUEUE = "named";
+
+    @Inject
+    TaskEndpoint taskEndpoint;
+
+    @Inject
+    QueueEndpoint queue;
+
+    @Inject
+    @Remote("rex-tasks")
+    RemoteCache<String, Task> tasks;
+
+    @Test
+    void testCatalogMatchesLiteralQueries() {
+        startBlockedGraph();
+        TaskQueries queries = new TaskQueries(tasks);
+        Set<State> states = EnumSet.of(State.WAITING, State.ENQUEUED);
+        List<String> queues = Arrays.asList(NAMED_QUEUE, null);
+
+        Set<String> literal = names(tasks.<Task>query(
+                "FROM rex_model.Task WHERE state IN ('WAITING','ENQUEUED') AND (queue = '" + NAMED_QUEUE + "' OR queue IS NULL)")
+                .execute().list());
+        Set<String> parameterized = names(queries.byStates(states, queues).execute().list());
+
+        assertThat(parameterized)
+                .hasSize(10)
+                .isEqualTo(literal);
+    }
+
+    @Test
+    void testQueueNameCannotAlterQuery() {
+        startBlockedGraph();
+        TaskQueries queries = new TaskQueries(tasks);
+
+        String naughty = "x' OR queue = '" + NAMED_QUEUE;
+        List<Task> found = queries.byStates(EnumSet.allOf(State.class), List.of(naughty)).execute().list();
+
+        assertThat(found).isEmpty();
+        assertThat(queries.byStateAndQueue(State.ENQUEUED, naughty).execute().list()).isEmpty();
+        assertThat(queries.byStateAndQueue(State.ENQUEUED, NAMED_QUEUE).execute().list()).hasSize(2);
+    }
+
+    private void startBlockedGraph() {
+        queue.setConcurrentNamed(NAMED_QUEUE, 0L);
+        CreateGraphRequest graph = getComplexGraph(true);
+        graph.queue = NAMED_QUEUE;
+        taskEndpoint.start(graph);
+    }
+
+    private static Set<String> names(List<Task> found) {
+        return found.stream().map(Task::getName).collect(Collectors.toSet());
+    }
+}
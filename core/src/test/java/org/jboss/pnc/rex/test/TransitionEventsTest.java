@@ -0,0 +1,156 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.inject.Inject;
+import org.jboss.pnc.rex.api.TaskEndpoint;
+import org.jboss.pnc.rex.common.enums.Mode;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.Transition;
+import org.jboss.pnc.rex.common.exceptions.BadRequestException;
+import org.jboss.pnc.rex.core.FinalStateWaiters;
+import org.jboss.pnc.rex.dto.TaskDTO;
+import org.jboss.pnc.rex.dto.TransitionEventDTO;
+import org.jboss.pnc.rex.dto.requests.CreateGraphRequest;
+import org.jboss.pnc.rex.facade.api.TaskProvider;
+import org.jboss.pnc.rex.test.common.AbstractTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.jboss.pnc.rex.test.common.Assertions.waitSynchronouslyFor;
+import static org.jboss.pnc.rex.test.common.Assertions.waitTillTasksAreFinishedWith;
+import static org.jboss.pnc.rex.test.common.TestData.getComplexGraph;
+import static org.jboss.pnc.rex.test.common.TestData.getMockTaskWithoutStart;
+import static org.jboss.pnc.rex.test.common.TestData.getRequestFromSingleTask;
+
+@QuarkusTest
+public class TransitionEventsTest extends AbstractTest {
+
+    @Inject
+    TaskEndpoint endpoint;
+
+    @Inject
+    TaskProvider taskProvider;
+
+    @Inject
+    FinalStateWaiters waiters;
+
+    @Test
+    void testTransitionsOfCorrelationAreStreamed() {
+        String correlationID = "streamed";
+        CreateGraphRequest request = getComplexGraph(true).toBuilder().correlationID(correlationID).build();
+        List<TransitionEventDTO> events = new CopyOnWriteArrayList<>();
+        List<TransitionEventDTO> otherEvents = new CopyOnWriteArrayList<>();
+        Cancellable subscription = taskProvider.events(correlationID, null).subscribe().with(events::add);
+        Cancellable otherSubscription = taskProvider.events("other", null).subscribe().with(otherEvents::add);
+
+        try {
+            endpoint.start(request);
+            String[] tasks = request.getVertices().keySet().toArray(new String[0]);
+            waitTillTasksAreFinishedWith(State.SUCCESSFUL, tasks);
+
+            waitSynchronouslyFor(() -> events.stream().filter(event -> event.getAfter() == State.SUCCESSFUL).count() == tasks.length,
+                    5,
+                    TimeUnit.SECONDS);
+            assertThat(events)
+                    .filteredOn(event -> event.getAfter() == State.SUCCESSFUL)
+                    .extracting(TransitionEventDTO::getTransition)
+                    .containsOnly(Transition.UP_to_SUCCESSFUL);
+            assertThat(events).extracting(TransitionEventDTO::getCorrelationID).containsOnly(correlationID);
+            assertThat(events).extracting(TransitionEventDTO::getSequence).isSorted();
+            assertThat(otherEvents).isEmpty();
+        } finally {
+            subscription.cancel();
+            otherSubscription.cancel();
+        }
+    }
+
+    @Test
+    void testStreamResumesAfterSequence() {
+        String correlationID = "resumed";
+        CreateGraphRequest request = getComplexGraph(true).toBuilder().correlationID(correlationID).build();
+        List<TransitionEventDTO> events = new CopyOnWriteArrayList<>();
+        Cancellable subscription = taskProvider.events(correlationID, null).subscribe().with(events::add);
+
+        List<TransitionEventDTO> resumed = new CopyOnWriteArrayList<>();
+        try {
+            endpoint.start(request);
+            String[] tasks = request.getVertices().keySet().toArray(new String[0]);
+            waitTillTasksAreFinishedWith(State.SUCCESSFUL, tasks);
+            waitSynchronouslyFor(() -> events.stream().filter(event -> event.getAfter() == State.SUCCESSFUL).count() == tasks.length,
+                    5,
+                    TimeUnit.SECONDS);
+        } finally {
+            subscription.cancel();
+        }
+
+        String lastReceived = events.get(0).getId();
+        Cancellable resumedSubscription = taskProvider.events(correlationID, lastReceived).subscribe().with(resumed::add);
+        try {
+            assertThat(resumed)
+                    .extracting(TransitionEventDTO::getSequence)
+                    .containsExactlyElementsOf(events.subList(1, events.size()).stream()
+                            .map(TransitionEventDTO::getSequence)
+                            .toList());
+        } finally {
+            resumedSubscription.cancel();
+        }
+    }
+
+    @Test
+    void testForeignEventIdIsRefused() {
+        assertThatThrownBy(() -> taskProvider.events(null, "1a2b3c-10"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> taskProvider.events(null, "10"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void testAwaitCompletesOnFinalState() throws Exception {
+        String taskName = "awaited";
+        endpoint.start(getRequestFromSingleTask(getMockTaskWithoutStart(taskName, Mode.ACTIVE)));
+
+        CompletableFuture<TaskDTO> awaited = endpoint.await(taskName, 30).toCompletableFuture();
+        assertThat(awaited).isNotDone();
+
+        endpoint.cancel(taskName);
+
+        TaskDTO task = awaited.get(5, TimeUnit.SECONDS);
+        assertThat(task.getState()).isEqualTo(State.STOPPED);
+        assertThat(waiters.size()).isZero();
+    }
+
+    @Test
+    void testAwaitReturnsCurrentStateOnTimeout() throws Exception {
+        String taskName = "idle";
+        endpoint.start(getRequestFromSingleTask(getMockTaskWithoutStart(taskName, Mode.IDLE)));
+
+        TaskDTO task = endpoint.await(taskName, 1).toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        assertThat(task.getState()).isEqualTo(State.NEW);
+        assertThat(waiters.size()).isZero();
+    }
+}
@@ -20,21 +20,26 @@ package org.jboss.pnc.rex.test.endpoints;
 import io.vertx.core.impl.ConcurrentHashSet;
 import org.jboss.pnc.rex.common.enums.Transition;
 import org.jboss.pnc.rex.model.TransitionTime;
+import org.jboss.pnc.rex.model.requests.CorrelationNotificationRequest;
 import org.jboss.pnc.rex.model.requests.NotificationRequest;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toMap;
@@ -44,10 +49,54 @@ public class TransitionRecorderEndpoint {
 
     private final Map<String, Set<TransitionTime>> recorder = new ConcurrentHashMap<>();
 
+    private final AtomicInteger batches = new AtomicInteger();
+
+    private final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, List<CorrelationNotificationRequest>> correlations = new ConcurrentHashMap<>();
+
     @POST
     @Path("/record")
     @Consumes(MediaType.APPLICATION_JSON)
     public Response record(NotificationRequest request) {
+        if (recordInternal(request)) {
+            return Response.ok().build();
+        }
+        return Response.serverError().build();
+    }
+
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<Integer> recordBatch(List<NotificationRequest> requests) {
+        batches.incrementAndGet();
+        return requests.stream()
+                .map(request -> recordInternal(request) ? 200 : 500)
+                .toList();
+    }
+
+    @POST
+    @Path("/flaky")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response recordFlaky(NotificationRequest request) {
+        // every notification fails on the first attempt
+        String attempt = request.getTask().getName() + ':' + request.getBefore() + "->" + request.getAfter();
+        if (failedOnce.add(attempt)) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+        }
+        return record(request);
+    }
+
+    @POST
+    @Path("/correlation")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response recordCorrelation(CorrelationNotificationRequest request) {
+        correlations.computeIfAbsent(request.getCorrelationID(), key -> new CopyOnWriteArrayList<>()).add(request);
+        return Response.ok().build();
+    }
+
+    private boolean recordInternal(NotificationRequest request) {
         Instant timestamp = Instant.now();
 
         String taskName = request.getTask().getName();
@@ -63,9 +112,9 @@ public class TransitionRecorderEndpoint {
                     .time(timestamp)
                     .transition(transition.get())
                     .build());
-            return Response.ok().build();
+            return true;
         }
-        return Response.serverError().build();
+        return false;
     }
 
     @POST
@@ -80,6 +129,17 @@ public class TransitionRecorderEndpoint {
 
     public void flush() {
         recorder.clear();
+        batches.set(0);
+        failedOnce.clear();
+        correlations.clear();
+    }
+
+    public List<CorrelationNotificationRequest> getCorrelationRecords(String correlationID) {
+        return correlations.getOrDefault(correlationID, List.of());
+    }
+
+    public int getBatchCount() {
+        return batches.get();
     }
 
     public Map<String, Set<Transition>> getRecords() {
@@ -0,0 +1,40 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.test.profile;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+public class WithAdaptiveConcurrency implements QuarkusTestProfile {
+
+    public static final String ADAPTIVE_QUEUE = "adaptive";
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "scheduler.options.adaptive-concurrency.enabled", "true",
+                "scheduler.options.adaptive-concurrency.queues", ADAPTIVE_QUEUE,
+                "scheduler.options.adaptive-concurrency.decrease-cooldown", "0s");
+    }
+
+    @Override
+    public String getConfigProfile() {
+        return "test";
+    }
+}
@@ -23,9 +23,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.jboss.pnc.rex.common.ConfigurationDefaults;
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
+import org.jboss.pnc.rex.common.enums.State;
+import org.jboss.pnc.rex.common.enums.StateGroup;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Class to specify metadata for a Task.
@@ -58,4 +62,27 @@ public class ConfigurationDTO {
     public Duration heartbeatInterval = ConfigurationDefaults.heartbeatInterval;
 
     public Integer heartbeatToleranceThreshold = ConfigurationDefaults.heartbeatToleranceThreshold;
+
+    /**
+     * Notify the caller only about transitions into these states. Combined with notificationGroupFilter. If both are
+     * empty, every transition is notified.
+     */
+    public Set<State> notificationFilter = null;
+
+    /**
+     * Notify the caller only about transitions into states of these groups. Combined with notificationFilter.
+     */
+    public Set<StateGroup> notificationGroupFilter = null;
+
+    /**
+     * Profile of the Task view sent in notifications. MINIMAL sends only identity and state, STANDARD leaves out
+     * request definitions and configuration, FULL sends the whole Task view.
+     */
+    public NotificationPayload notificationPayload = ConfigurationDefaults.notificationPayload;
+
+    /**
+     * Explicit list of fields of the Task view sent in notifications. Overrides notificationPayload. The name of the
+     * Task is always sent.
+     */
+    public Set<String> notificationFields = null;
 }
@@ -40,6 +40,12 @@ public class CreateTaskDTO {
 
     public String queue;
 
+    /**
+     * Priority of the Task within its queue. Tasks with higher priority are started first when the queue is
+     * saturated. Defaults to the graph priority or 0.
+     */
+    public Integer priority;
+
     public String milestoneTask;
 
     @NotNull
@@ -45,6 +45,8 @@ public class TaskDTO {
 
     public String queue;
 
+    public int priority;
+
     public String correlationID;
 
     public Request remoteStart;
@@ -75,4 +77,9 @@ public class TaskDTO {
     public List<TransitionTimeDTO> timestamps = new ArrayList<>();
 
     public String milestoneTask;
+
+    /**
+     * Sequence of the last change of the Task. Usable as 'changedSince' parameter when listing Tasks.
+     */
+    public long changeSequence;
 }
@@ -22,6 +22,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Singular;
+import org.jboss.pnc.api.dto.Request;
 import org.jboss.pnc.rex.dto.ConfigurationDTO;
 import org.jboss.pnc.rex.dto.CreateTaskDTO;
 import org.jboss.pnc.rex.dto.EdgeDTO;
@@ -42,8 +43,19 @@ public class CreateGraphRequest {
 
     public String queue;
 
+    /**
+     * Default priority of Tasks in the graph which have no priority specified.
+     */
+    public Integer priority;
+
     public ConfigurationDTO graphConfiguration;
 
+    /**
+     * Notification sent once all Tasks with the correlationID reach a FINAL state. The notification carries the number
+     * of Tasks in each final state. Requires correlationID.
+     */
+    public Request correlationNotifications;
+
     @Singular
     public Set<@NotNull @Valid EdgeDTO> edges;
 
@@ -0,0 +1,61 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.dto.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.jboss.pnc.rex.common.enums.StateGroup;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class QueueStatsResponse {
+
+    /**
+     * Name of the queue. Null for the DEFAULT queue.
+     */
+    public String queue;
+
+    /**
+     * Maximum amount of concurrently running Tasks. Null if the queue was never configured.
+     */
+    public Long maxConcurrency;
+
+    /**
+     * Value of the running counter.
+     */
+    public Long running;
+
+    /**
+     * Number of Tasks of the queue in each StateGroup.
+     */
+    public Map<StateGroup, Long> groups;
+
+    /**
+     * How long the oldest ENQUEUED Task waits in the queue. Null if no Task is enqueued.
+     */
+    public Duration oldestEnqueuedAge;
+}
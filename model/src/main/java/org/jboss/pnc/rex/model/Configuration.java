@@ -27,10 +27,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoField;
 import org.jboss.pnc.rex.common.ConfigurationDefaults;
+import org.jboss.pnc.rex.common.enums.NotificationPayload;
+import org.jboss.pnc.rex.common.enums.State;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Class to specify metadata for a Task.
@@ -99,4 +103,33 @@ public class Configuration {
     @Getter(onMethod_ = {@ProtoField(number = 11, defaultValue = "" + ConfigurationDefaults.heartbeatToleranceThreshold)})
     private final int heartbeatToleranceThreshold;
 
+    /**
+     * If configured, caller is notified only about transitions into these states. Empty means every transition is
+     * notified.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 12, collectionImplementation = HashSet.class)})
+    private final Set<State> notificationFilter;
+
+    /**
+     * Profile of the Task view sent in notifications. Ignored if notificationFields are configured.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 13, defaultValue = "FULL")})
+    private final NotificationPayload notificationPayload;
+
+    /**
+     * If configured, the Task view sent in notifications contains only these fields (the name is always included).
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 14, collectionImplementation = HashSet.class)})
+    private final Set<String> notificationFields;
+
+    /**
+     * Whether the caller should be notified about a transition into the state.
+     *
+     * @param state the state
+     * @return true if the transition should be notified
+     */
+    public boolean shouldNotify(State state) {
+        return notificationFilter == null || notificationFilter.isEmpty() || notificationFilter.contains(state);
+    }
+
 }
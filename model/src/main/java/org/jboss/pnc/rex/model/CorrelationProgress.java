@@ -0,0 +1,131 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.jboss.pnc.rex.common.enums.State;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Progress of Tasks sharing a correlationID towards the graph-level notification. The caller is notified once no Task
+ * of the correlation remains unfinished.
+ *
+ * The progress is split into a head holding the notification and stripes counting Tasks of the correlation. For the
+ * head, remaining is the number of stripes with unfinished Tasks.
+ */
+@ToString
+@Jacksonized
+@Builder(toBuilder = true)
+@AllArgsConstructor(onConstructor_ = {@ProtoFactory})
+public class CorrelationProgress {
+
+    @Getter(onMethod_ = {@ProtoField(number = 1)})
+    private final String correlationID;
+
+    /**
+     * Notification sent once all Tasks are finished.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 2)})
+    private final Request notification;
+
+    /**
+     * Number of Tasks that are not in a FINAL state (number of such stripes for the head).
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 3, defaultValue = "0")})
+    private final long remaining;
+
+    @Getter(onMethod_ = {@ProtoField(number = 4, defaultValue = "0")})
+    private final long successful;
+
+    @Getter(onMethod_ = {@ProtoField(number = 5, defaultValue = "0")})
+    private final long failed;
+
+    @Getter(onMethod_ = {@ProtoField(number = 6, defaultValue = "0")})
+    private final long startFailed;
+
+    @Getter(onMethod_ = {@ProtoField(number = 7, defaultValue = "0")})
+    private final long stopFailed;
+
+    @Getter(onMethod_ = {@ProtoField(number = 8, defaultValue = "0")})
+    private final long stopped;
+
+    /**
+     * Moves a Task into or out of a FINAL state.
+     *
+     * @param state the FINAL state
+     * @param delta 1 if the Task reached the state, -1 if the Task left it
+     * @return updated progress
+     */
+    public CorrelationProgress withFinal(State state, int delta) {
+        CorrelationProgressBuilder builder = toBuilder().remaining(remaining - delta);
+        switch (state) {
+            case SUCCESSFUL:
+                return builder.successful(successful + delta).build();
+            case FAILED:
+                return builder.failed(failed + delta).build();
+            case START_FAILED:
+                return builder.startFailed(startFailed + delta).build();
+            case STOP_FAILED:
+                return builder.stopFailed(stopFailed + delta).build();
+            case STOPPED:
+                return builder.stopped(stopped + delta).build();
+            default:
+                throw new IllegalArgumentException("State " + state + " is not FINAL");
+        }
+    }
+
+    /**
+     * Adds up two parts of the progress of a correlation.
+     *
+     * @param other the other part
+     * @return combined progress, notification is kept from this part
+     */
+    public CorrelationProgress plus(CorrelationProgress other) {
+        return toBuilder()
+                .remaining(remaining + other.remaining)
+                .successful(successful + other.successful)
+                .failed(failed + other.failed)
+                .startFailed(startFailed + other.startFailed)
+                .stopFailed(stopFailed + other.stopFailed)
+                .stopped(stopped + other.stopped)
+                .build();
+    }
+
+    /**
+     * Number of finished Tasks in each FINAL state.
+     *
+     * @return summary of FINAL states
+     */
+    public Map<State, Long> summary() {
+        Map<State, Long> summary = new EnumMap<>(State.class);
+        summary.put(State.SUCCESSFUL, successful);
+        summary.put(State.FAILED, failed);
+        summary.put(State.START_FAILED, startFailed);
+        summary.put(State.STOP_FAILED, stopFailed);
+        summary.put(State.STOPPED, stopped);
+        return summary;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Notifications of a Task that were not delivered to the caller yet, in the order of the transitions. The outbox is
+ * drained by the instance holding its lease.
+ */
+@ToString
+@Jacksonized
+@Builder(toBuilder = true)
+@AllArgsConstructor(onConstructor_ = {@ProtoFactory})
+public class NotificationOutbox {
+
+    @Getter(onMethod_ = {@ProtoField(number = 1)})
+    private final String taskName;
+
+    /**
+     * Instance delivering the notifications.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 2)})
+    private final String owner;
+
+    /**
+     * Epoch millis until which the owner has exclusive right to deliver. After that, any instance can take the outbox
+     * over (f.e. after a crash of the owner).
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 3, defaultValue = "0")})
+    private final long leaseUntil;
+
+    /**
+     * Sequence of the next appended notification.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 4, defaultValue = "0")})
+    private final long nextSequence;
+
+    @Getter(onMethod_ = {@ProtoField(number = 5, collectionImplementation = ArrayList.class)})
+    private final List<PendingNotification> pending;
+
+    public boolean isLeasedBy(String instance, long now) {
+        return instance.equals(owner) && now < leaseUntil;
+    }
+
+    public boolean isLeaseExpired(long now) {
+        return leaseUntil <= now;
+    }
+}
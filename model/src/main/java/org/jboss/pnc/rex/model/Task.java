@@ -67,7 +67,7 @@ public class Task {
     /*
      * Correlation ID between tasks that were triggered at the same time.
      */
-    @Getter(onMethod_ = {@ProtoField(number = 3), @Keyword})
+    @Getter(onMethod_ = {@ProtoField(number = 3), @Keyword(projectable = true, aggregable = true)})
     private final String correlationID;
 
     /**
@@ -196,6 +196,34 @@ public class Task {
     @Getter(onMethod_ = {@ProtoField(number = 23)})
     private HeartbeatMetadata heartbeatMeta;
 
+    /**
+     * Time (epoch millis) of the last State change. Updated alongside Task.state in the same transaction.
+     *
+     * For ENQUEUED Tasks this is the time they were enqueued.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 24, defaultValue = "0"), @Basic(projectable = true, sortable = true, aggregable = true)})
+    private long stateChangedAt;
+
+    /**
+     * Priority of the Task within its queue. ENQUEUED Tasks with higher priority are dequeued first, Tasks with equal
+     * priority are dequeued from the longest enqueued.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 25, defaultValue = "0"), @Basic(projectable = true, sortable = true)})
+    private int priority;
+
+    /**
+     * Number of Tasks on the longest chain of dependants starting with this Task (1 if it has no dependants). Computed
+     * on install. Used to prefer Tasks on the critical path of a graph when the queue is saturated.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 26, defaultValue = "1"), @Basic(projectable = true, sortable = true)})
+    private int criticalPath;
+
+    /**
+     * Sequence of the last change of the Task. Stamped on every save; see ChangeSequencer for ordering guarantees.
+     */
+    @Getter(onMethod_ = {@ProtoField(number = 27, defaultValue = "0"), @Basic(projectable = true, sortable = true)})
+    private long changeSequence;
+
     public void incUnfinishedDependencies() {
         unfinishedDependencies++;
     }
@@ -0,0 +1,47 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021-2024 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.rex.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+import org.jboss.pnc.rex.common.enums.State;
+
+import java.util.Map;
+
+/**
+ * Request sent to the initial caller once all Tasks with the correlationID are finished.
+ */
+@Jacksonized
+@Builder
+@Getter
+@ToString
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CorrelationNotificationRequest {
+
+    private final String correlationID;
+
+    /**
+     * Number of Tasks in each FINAL state.
+     */
+    private final Map<State, Long> summary;
+
+    private final Object attachment;
+}